@@ -33,6 +33,7 @@ import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
 import org.codehaus.groovy.ast.expr.Expression;
 import org.codehaus.groovy.ast.stmt.ReturnStatement;
 import org.codehaus.groovy.vmplugin.VMPluginFactory;
+import org.codehaus.jdt.groovy.internal.compiler.ast.BuildReport;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTClassNode;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
@@ -49,6 +50,7 @@ import org.eclipse.jdt.core.tests.builder.Problem;
 import org.eclipse.jdt.core.tests.util.GroovyUtils;
 import org.eclipse.jdt.core.tests.util.Util;
 import org.eclipse.jdt.core.util.CompilerUtils;
+import org.eclipse.jdt.groovy.core.Activator;
 import org.eclipse.jdt.groovy.search.VariableScope;
 import org.eclipse.jdt.internal.core.builder.AbstractImageBuilder;
 import org.osgi.framework.Version;
@@ -2150,6 +2152,77 @@ public final class BasicGroovyBuildTests extends BuilderTests {
 
     }
 
+    public void testClosureIncremental2() throws Exception {
+        IPath projectPath = env.addProject("Project");
+        env.addExternalJars(projectPath, Util.getJavaClassLibs());
+        env.addGroovyJars(projectPath);
+        fullBuild(projectPath);
+
+        // remove old package fragment root so that names don't collide
+        env.removePackageFragmentRoot(projectPath, "");
+
+        IPath root = env.addPackageFragmentRoot(projectPath, "src");
+        env.setOutputFolder(projectPath, "bin");
+
+        env.addGroovyClass(root, "", "Helper", "class Helper {\n"
+                + "  static int twice(int n) { n * 2 }\n" + "}\n");
+        env.addClass(root, "", "Client", "public class Client {\n"
+                + "  public static void main(String[] argv) {\n"
+                + "    System.out.print(Helper.twice(2));\n" + "  }\n" + "}\n");
+
+        incrementalBuild(projectPath);
+        expectingCompiledClasses("Helper", "Client");
+        expectingNoProblems();
+        executeClass(projectPath, "Client", "4", "");
+
+        // closures in the method body are new class files, but no change for Client
+        env.addGroovyClass(root, "", "Helper", "class Helper {\n"
+                + "  static int twice(int n) { [n].collect { it * 2 }.find { it } }\n" + "}\n");
+
+        incrementalBuild(projectPath);
+        expectingCompiledClasses("Helper", "Helper$_twice_closure1", "Helper$_twice_closure2");
+        expectingNoProblems();
+        executeClass(projectPath, "Client", "4", "");
+
+        // and so is their removal
+        env.addGroovyClass(root, "", "Helper", "class Helper {\n"
+                + "  static int twice(int n) { n + n }\n" + "}\n");
+
+        incrementalBuild(projectPath);
+        expectingCompiledClasses("Helper");
+        expectingNoProblems();
+        executeClass(projectPath, "Client", "4", "");
+    }
+
+    public void testBuildReport() throws Exception {
+        IPath projectPath = env.addProject("Project");
+        env.addExternalJars(projectPath, Util.getJavaClassLibs());
+        env.addGroovyJars(projectPath);
+        fullBuild(projectPath);
+
+        // remove old package fragment root so that names don't collide
+        env.removePackageFragmentRoot(projectPath, "");
+
+        IPath root = env.addPackageFragmentRoot(projectPath, "src");
+        env.setOutputFolder(projectPath, "bin");
+
+        env.addGroovyClass(root, "p", "Reported", "package p\n"
+                + "@groovy.transform.ToString\n" + "class Reported {\n" + "  def run() { [1, 2].collect { it * 2 } }\n" + "}\n");
+
+        incrementalBuild(projectPath);
+        expectingCompiledClasses("p.Reported", "p.Reported$_run_closure1");
+        expectingNoProblems();
+
+        File report = env.getProject(projectPath).getWorkingLocation(Activator.PLUGIN_ID).append(BuildReport.FILE_NAME).toFile();
+        assertTrue("No build report at " + report, report.isFile());
+        String contents = Util.fileContent(report.getPath());
+        assertTrue(contents, contents.contains("Classes generated:    2"));
+        assertTrue(contents, contents.contains("Reported.groovy"));
+        assertTrue(contents, contents.contains("class generation"));
+        assertTrue(contents, contents.contains("Time per AST transform"));
+        assertTrue(contents, contents.contains("org.codehaus.groovy.transform.ToStringASTTransformation"));
+    }
+
     // http://jira.codehaus.org/browse/GRECLIPSE-558
     /**
      * The aim of this test is to verify the processing in
@@ -2236,10 +2309,18 @@ public final class BasicGroovyBuildTests extends BuilderTests {
                 "FoobarSpec.class");
         long filesize = f.length(); // this is 9131 for groovy 1.7.0
 
+        // FoobarSpec refers to none of the new members
         env.addGroovyClass(root, "", "Foobar", "class Foobar {\n" + "\n"
                 + "def baz = 42\n" + "def quux = 36\n" + "\n" + "}\n");
         incrementalBuild(projectPath);
         expectingNoProblems();
+        expectingCompiledClasses("Foobar");
+
+        // but it does refer to baz
+        env.addGroovyClass(root, "", "Foobar", "class Foobar {\n" + "\n"
+                + "Integer baz = 42\n" + "def quux = 36\n" + "\n" + "}\n");
+        incrementalBuild(projectPath);
+        expectingNoProblems();
         expectingCompiledClasses("Foobar", "FoobarSpec");
 
         long filesizeNow = f.length(); // drops to 7002 if transform did not run
@@ -2289,10 +2370,18 @@ public final class BasicGroovyBuildTests extends BuilderTests {
         // File(workspacePath.append(env.getOutputLocation(projectPath)).toOSString(),"FoobarSpec.class");
         // long filesize = f.length(); // this is 9131 for groovy 1.7.0
 
+        // FoobarSpec refers to none of the new members
         env.addGroovyClass(root, "", "Foobar", "class Foobar {\n" + "\n"
                 + "def baz = 42\n" + "def quux = 36\n" + "\n" + "}\n");
         incrementalBuild(projectPath);
         expectingNoProblems();
+        expectingCompiledClasses("Foobar");
+
+        // but it does refer to baz
+        env.addGroovyClass(root, "", "Foobar", "class Foobar {\n" + "\n"
+                + "Integer baz = 42\n" + "def quux = 36\n" + "\n" + "}\n");
+        incrementalBuild(projectPath);
+        expectingNoProblems();
         expectingCompiledClasses("Foobar", "FoobarSpec");
 
         // long filesizeNow = f.length(); // drops to 7002 if transform did not
@@ -2540,6 +2629,63 @@ public final class BasicGroovyBuildTests extends BuilderTests {
 
     }
 
+    public void testIncrementalCompilationMemberReferences() throws Exception {
+        IPath projectPath = env.addProject("Project");
+        env.addExternalJars(projectPath, Util.getJavaClassLibs());
+        env.addGroovyJars(projectPath);
+        fullBuild(projectPath);
+
+        // remove old package fragment root so that names don't collide
+        env.removePackageFragmentRoot(projectPath, "");
+
+        IPath root = env.addPackageFragmentRoot(projectPath, "src");
+        env.setOutputFolder(projectPath, "bin");
+
+        env.addClass(root, "pkg", "Hello", "package pkg;\n"
+                + "public class Hello {\n"
+                + "   public static void main(String[] args) {\n"
+                + "      new GHello();\n" + "   }\n"
+                + "}\n");
+
+        env.addGroovyClass(root, "pkg", "GHello", "package pkg\n"
+                + "class GHello {\n"
+                + "   int run() { 12 }\n"
+                + "   int stop() { 0 }\n" + "}\n");
+
+        env.addGroovyClass(root, "pkg", "Runner", "package pkg\n"
+                + "class Runner {\n"
+                + "   def go(hello) { hello.run() }\n" + "}\n");
+
+        env.addGroovyClass(root, "pkg", "Stopper", "package pkg\n"
+                + "class Stopper {\n"
+                + "   def go(GHello hello) { hello.stop() }\n" + "}\n");
+
+        env.addGroovyClass(root, "pkg", "SubHello", "package pkg\n"
+                + "class SubHello extends GHello {\n" + "}\n");
+
+        incrementalBuild(projectPath);
+        expectingCompiledClasses("pkg.Hello", "pkg.GHello", "pkg.Runner", "pkg.Stopper", "pkg.SubHello");
+        expectingNoProblems();
+
+        // changed signature of run(): only the files that may call it (dynamic or not), the java file and subtypes
+        env.addGroovyClass(root, "pkg", "GHello", "package pkg\n"
+                + "class GHello {\n"
+                + "   String run() { 'abc' }\n"
+                + "   int stop() { 0 }\n" + "}\n");
+        incrementalBuild(projectPath);
+        expectingCompiledClasses("pkg.GHello", "pkg.Hello", "pkg.Runner", "pkg.SubHello");
+        expectingNoProblems();
+
+        // a type-level change reaches every dependent
+        env.addGroovyClass(root, "pkg", "GHello", "package pkg\n"
+                + "class GHello implements Runnable {\n"
+                + "   void run() { }\n"
+                + "   int stop() { 0 }\n" + "}\n");
+        incrementalBuild(projectPath);
+        expectingCompiledClasses("pkg.GHello", "pkg.Hello", "pkg.Runner", "pkg.Stopper", "pkg.SubHello");
+        expectingNoProblems();
+    }
+
     public void testIncrementalCompilation1594() throws Exception {
         IPath projectPath = env.addProject("Project");
         env.addExternalJars(projectPath, Util.getJavaClassLibs());
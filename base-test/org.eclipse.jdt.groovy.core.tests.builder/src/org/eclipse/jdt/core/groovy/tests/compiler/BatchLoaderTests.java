@@ -0,0 +1,192 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.compiler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import junit.framework.TestCase;
+
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem.Classpath;
+import org.eclipse.jdt.core.tests.util.Util;
+
+/**
+ * Tests the loaders of batch compiles, which share a loader for the jars at the start of their classpaths.
+ */
+public class BatchLoaderTests extends TestCase {
+
+    private static final String GLOBAL_TRANSFORMS = "META-INF/services/org.codehaus.groovy.transform.ASTTransformation";
+
+    private File root;
+    private File jarA, jarB, dir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        root = new File(Util.getOutputDirectory(), "BatchLoaderTests");
+        Util.flushDirectoryContent(root);
+        root.mkdirs();
+        jarA = createJar("a.jar", "res.txt", "a.jar");
+        jarB = createJar("b.jar", "res.txt", "b.jar", GLOBAL_TRANSFORMS, "b.Transform");
+        dir = new File(root, "classes");
+        new File(dir, GLOBAL_TRANSFORMS).getParentFile().mkdirs();
+        Util.writeToFile("classes", new File(dir, "res.txt").getPath());
+        Util.writeToFile("dir.Transform", new File(dir, GLOBAL_TRANSFORMS).getPath());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Util.delete(root);
+        super.tearDown();
+    }
+
+    public void testJarsBeforeFirstDirectory() throws Exception {
+        ClassLoader loader = createBatchLoader(jarA, dir, jarB);
+        assertEquals("a.jar", read(loader.getResource("res.txt")));
+        assertEquals("[a.jar, classes, b.jar]", String.valueOf(readAll(loader, "res.txt")));
+    }
+
+    public void testDirectoryBeforeLaterJars() throws Exception {
+        ClassLoader loader = createBatchLoader(dir, jarA, jarB);
+        assertEquals("classes", read(loader.getResource("res.txt")));
+        assertEquals("[classes, a.jar, b.jar]", String.valueOf(readAll(loader, "res.txt")));
+
+        loader = createBatchLoader(jarB, jarA, dir);
+        assertEquals("b.jar", read(loader.getResource("res.txt")));
+        assertEquals("[b.jar, a.jar, classes]", String.valueOf(readAll(loader, "res.txt")));
+    }
+
+    public void testTransformsInClasspathOrder() throws Exception {
+        assertEquals("[dir.Transform, b.Transform]", String.valueOf(readAll(createBatchLoader(jarA, dir, jarB), GLOBAL_TRANSFORMS)));
+        assertEquals("[b.Transform, dir.Transform]", String.valueOf(readAll(createBatchLoader(jarB, jarA, dir), GLOBAL_TRANSFORMS)));
+    }
+
+    public void testSharedLoaderHasOnlyLeadingJars() throws Exception {
+        ClassLoader one = createBatchLoader(jarA, dir, jarB);
+        ClassLoader two = createBatchLoader(jarA, jarB);
+        ClassLoader three = createBatchLoader(jarA, new File(root, "other"), jarB);
+        assertSame("Should share the loader of the jars before the first directory", one.getParent(), three.getParent());
+        assertNotSame(one.getParent(), two.getParent());
+        assertEquals("[a.jar]", String.valueOf(readAll(one.getParent(), "res.txt")));
+    }
+
+    public void testConcurrentCompiles() throws Exception {
+        final int compiles = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(compiles);
+        try {
+            List<Future<ClassLoader>> loaders = new ArrayList<Future<ClassLoader>>();
+            for (int i = 0; i < compiles; i += 1) {
+                final File[] classpath = (i % 2 == 0 ? new File[] {jarA, dir, jarB} : new File[] {jarA, jarB, dir});
+                loaders.add(executor.submit(new Callable<ClassLoader>() {
+                    public ClassLoader call() throws Exception {
+                        start.await();
+                        return createBatchLoader(classpath);
+                    }
+                }));
+            }
+            start.countDown();
+
+            ClassLoader[] sharedLoaders = new ClassLoader[2];
+            for (int i = 0; i < compiles; i += 1) {
+                ClassLoader loader = loaders.get(i).get();
+                if (sharedLoaders[i % 2] == null) {
+                    sharedLoaders[i % 2] = loader.getParent();
+                }
+                assertSame("Compiles of the same jars should share their loader", sharedLoaders[i % 2], loader.getParent());
+                assertEquals(i % 2 == 0 ? "[a.jar, classes, b.jar]" : "[a.jar, b.jar, classes]", String.valueOf(readAll(loader, "res.txt")));
+            }
+            assertNotSame(sharedLoaders[0], sharedLoaders[1]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    private File createJar(String name, String... entries) throws IOException {
+        File jar = new File(root, name);
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            for (int i = 0; i < entries.length; i += 2) {
+                out.putNextEntry(new JarEntry(entries[i]));
+                out.write(entries[i + 1].getBytes("UTF-8"));
+                out.closeEntry();
+            }
+        } finally {
+            out.close();
+        }
+        return jar;
+    }
+
+    private static ClassLoader createBatchLoader(File... files) throws Exception {
+        Classpath[] classpaths = new Classpath[files.length];
+        for (int i = 0; i < files.length; i += 1) {
+            files[i].mkdirs(); // makes a directory of an entry that does not exist yet
+            classpaths[i] = FileSystem.getClasspath(files[i].getPath(), null, null);
+        }
+        Method method = GroovyParser.class.getDeclaredMethod("createBatchLoader", Classpath[].class);
+        method.setAccessible(true);
+        try {
+            return (ClassLoader) method.invoke(null, (Object) classpaths);
+        } catch (InvocationTargetException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    /**
+     * @return the contents of the resources of the given name that are in this test's files, in the order the loader finds them
+     */
+    private List<String> readAll(ClassLoader loader, String name) throws IOException {
+        List<String> contents = new ArrayList<String>();
+        for (URL url : Collections.list(loader.getResources(name))) {
+            if (url.toString().contains(root.getName())) {
+                contents.add(read(url));
+            }
+        }
+        return contents;
+    }
+
+    private static String read(URL url) throws IOException {
+        InputStream in = url.openStream();
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (int b = in.read(); b != -1; b = in.read()) {
+                sb.append((char) b);
+            }
+            return sb.toString().trim();
+        } finally {
+            in.close();
+        }
+    }
+}
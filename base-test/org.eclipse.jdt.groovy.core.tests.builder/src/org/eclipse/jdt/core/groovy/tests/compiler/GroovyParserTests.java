@@ -0,0 +1,146 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.compiler;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.internal.compiler.CompilationResult;
+import org.eclipse.jdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
+
+/**
+ * Tests that a parser that has been reset parses like a new one, which is what the completion and comment recorder parsers
+ * rely on when they reuse theirs.
+ */
+public class GroovyParserTests extends TestCase {
+
+    private static final String PROJECT = "GroovyParserTests";
+
+    private CompilerOptions options;
+    private ProblemReporter problemReporter;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        options = new CompilerOptions();
+        options.groovyProjectName = PROJECT;
+        options.groovyClassLoaderPath = new File(System.getProperty("java.io.tmpdir")).getAbsolutePath();
+        options.groovyParserPluginFactory = ""; // the default, without looking at preferences
+        problemReporter = new ProblemReporter(DefaultErrorHandlingPolicies.proceedWithAllProblems(), options, new DefaultProblemFactory());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        GroovyParser.tidyCache(PROJECT);
+        super.tearDown();
+    }
+
+    public void testResetParsesLikeNewParser() throws Exception {
+        GroovyParser parser = new GroovyParser(options, problemReporter, false, true);
+        parse(parser, "A.groovy", "class A { def a() { } }");
+        CompilationUnit first = getCompilationUnit(parser);
+
+        parser.reset();
+        assertNotSame("Should have a new compilation unit", first, getCompilationUnit(parser));
+        assertFalse("Should not hold on to the previous source", getCompilationUnit(parser).iterator().hasNext());
+
+        List<String> afterReset = parse(parser, "B.groovy", "class B extends A { def b() { } }");
+        List<String> fresh = parse(new GroovyParser(options, problemReporter, false, true), "B.groovy", "class B extends A { def b() { } }");
+        assertEquals(fresh, afterReset);
+    }
+
+    public void testResetKeepsLoadersWithoutGrab() throws Exception {
+        GroovyParser parser = new GroovyParser(options, problemReporter, false, true);
+        ClassLoader grabbyLoader = getLoader(parser, "grabbyLoader");
+        ClassLoader transformLoader = getLoader(parser, "transformLoader");
+
+        parser.reset();
+        assertSame(grabbyLoader, getLoader(parser, "grabbyLoader"));
+        assertSame(transformLoader, getLoader(parser, "transformLoader"));
+        assertSame(grabbyLoader, getCompilationUnit(parser).getClassLoader());
+    }
+
+    public void testResetAfterGrab() throws Exception {
+        GroovyParser parser = new GroovyParser(options, problemReporter, false, true);
+        ClassLoader grabbyLoader = getLoader(parser, "grabbyLoader");
+        ReflectionUtils.setPrivateField(grabbyLoader.getClass(), "grabbed", grabbyLoader, true);
+
+        parser.reset();
+        ClassLoader newGrabbyLoader = getLoader(parser, "grabbyLoader");
+        assertNotSame("Should not keep a loader that a grab has added to", grabbyLoader, newGrabbyLoader);
+        assertEquals(Boolean.FALSE, ReflectionUtils.getPrivateField(newGrabbyLoader.getClass(), "grabbed", newGrabbyLoader));
+        assertSame(getLoader(parser, "transformLoader"), newGrabbyLoader.getParent());
+    }
+
+    public void testResetAfterClasspathChange() throws Exception {
+        GroovyParser parser = new GroovyParser(options, problemReporter, false, true);
+        ClassLoader grabbyLoader = getLoader(parser, "grabbyLoader");
+        ClassLoader transformLoader = getLoader(parser, "transformLoader");
+
+        // what a change to the project's classpath does to the loader cache
+        GroovyParser.tidyCache(PROJECT);
+
+        parser.reset();
+        GroovyParser fresh = new GroovyParser(options, problemReporter, false, true);
+        assertNotSame(transformLoader, getLoader(parser, "transformLoader"));
+        assertNotSame(grabbyLoader, getLoader(parser, "grabbyLoader"));
+        assertSame("Should use the project's current loader, as a new parser does",
+                getLoader(fresh, "transformLoader"), getLoader(parser, "transformLoader"));
+        assertEquals(parse(fresh, "A.groovy", "class A { }"), parse(parser, "A.groovy", "class A { }"));
+    }
+
+    //--------------------------------------------------------------------------
+
+    private List<String> parse(GroovyParser parser, String fileName, String contents) {
+        org.eclipse.jdt.internal.compiler.batch.CompilationUnit unit =
+                new org.eclipse.jdt.internal.compiler.batch.CompilationUnit(contents.toCharArray(), fileName, null);
+        CompilationUnitDeclaration cud = parser.dietParse(unit, new CompilationResult(unit, 0, 0, options.maxProblemsPerUnit));
+        List<String> elements = new ArrayList<String>();
+        if (cud.types != null) {
+            for (TypeDeclaration type : cud.types) {
+                elements.add(String.valueOf(type.name));
+                if (type.superclass != null) {
+                    elements.add("extends " + type.superclass);
+                }
+                if (type.methods != null) {
+                    for (int i = 0; i < type.methods.length; i += 1) {
+                        elements.add(String.valueOf(type.methods[i].selector));
+                    }
+                }
+            }
+        }
+        return elements;
+    }
+
+    private static CompilationUnit getCompilationUnit(GroovyParser parser) {
+        return (CompilationUnit) ReflectionUtils.getPrivateField(GroovyParser.class, "compilationUnit", parser);
+    }
+
+    private static ClassLoader getLoader(GroovyParser parser, String name) {
+        return (ClassLoader) ReflectionUtils.getPrivateField(GroovyParser.class, name, parser);
+    }
+}
@@ -15,9 +15,14 @@
  */
 package org.eclipse.jdt.core.groovy.tests.search;
 
+import java.util.Arrays;
+import java.util.List;
+
 import junit.framework.Test;
 
+import org.codehaus.jdt.groovy.integration.ISupplementalIndexer;
 import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jdt.core.IField;
@@ -35,6 +40,9 @@ import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.internal.core.BinaryMember;
 import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.jdt.internal.core.index.EntryResult;
+import org.eclipse.jdt.internal.core.index.Index;
+import org.eclipse.jdt.internal.core.search.indexing.IIndexConstants;
 
 /**
  * @author Andrew Eisenberg
@@ -101,13 +109,15 @@ public class BinarySearchTests extends AbstractGroovySearchTest {
             "}\n";
 
     private IJavaProject javaProject;
+    private IPath jarPath;
 
     @Override
     protected void setUp() throws Exception {
         super.setUp();
 
         Path libDir = new Path(FileLocator.resolve(Platform.getBundle("org.eclipse.jdt.groovy.core.tests.builder").getEntry("lib")).getFile());
-        env.addEntry(project.getFullPath(), JavaCore.newLibraryEntry(libDir.append("binGroovySearch.jar"), libDir.append("binGroovySearchSrc.zip"), null));
+        jarPath = libDir.append("binGroovySearch.jar");
+        env.addEntry(project.getFullPath(), JavaCore.newLibraryEntry(jarPath, libDir.append("binGroovySearchSrc.zip"), null));
 
         JavaModelManager.getIndexManager().indexAll(project);
         javaProject = env.getJavaProject(project.getName());
@@ -121,6 +131,7 @@ public class BinarySearchTests extends AbstractGroovySearchTest {
     @Override
     protected void tearDown() throws Exception {
         javaProject = null;
+        jarPath = null;
         super.tearDown();
     }
 
@@ -139,6 +150,20 @@ public class BinarySearchTests extends AbstractGroovySearchTest {
         return requestor;
     }
 
+    private void assertIndexed(char[] category, String key, String document) throws Exception {
+        Index index = JavaModelManager.getIndexManager().getIndex(jarPath, true, false);
+        assertNotNull("No index for " + jarPath, index);
+        index.startQuery();
+        try {
+            EntryResult[] results = index.query(new char[][] {category}, key.toCharArray(), SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+            assertNotNull("No " + new String(category) + " entry for " + key, results);
+            List<String> documents = Arrays.asList(results[0].getDocumentNames(index));
+            assertTrue("Expected " + document + " in " + documents, documents.contains(document));
+        } finally {
+            index.stopQuery();
+        }
+    }
+
     private void assertMatches(String toFind, MockSearchRequestor requestor, int allMatches, int firstMatches) {
         if (requestor.matches.size() != allMatches) {
             fail("Expecting " + allMatches + " matches, but found " + requestor.matches.size() + "\n" + requestor.printMatches());
@@ -214,4 +239,19 @@ public class BinarySearchTests extends AbstractGroovySearchTest {
         MockSearchRequestor requestor = performSearch(method);
         assertMatches(toFind, requestor, 2, 1);
     }
+
+    public void testReferencesInJarIndex() throws Exception {
+        // names referenced from Groovy class files are indexed as dynamic references for member
+        // searches and as name references for type and package reference searches
+        assertIndexed(ISupplementalIndexer.DYNAMIC_REF, "referencedInInitializer", "pack/AnotherGroovyClass.class");
+        assertIndexed(IIndexConstants.REF, "referencedInInitializer", "pack/AnotherGroovyClass.class");
+        assertIndexed(ISupplementalIndexer.DYNAMIC_REF, "fieldInInitializer", "pack/AnotherGroovyClass.class");
+        assertIndexed(IIndexConstants.REF, "fieldInInitializer", "pack/AnotherGroovyClass.class");
+    }
+
+    public void testTypeRefInJar() throws Exception {
+        IType type = javaProject.findType("pack.OtherClass");
+        MockSearchRequestor requestor = performSearch(type);
+        assertFalse("Expected references to OtherClass in the jar\n" + requestor.printMatches(), requestor.matches.isEmpty());
+    }
 }
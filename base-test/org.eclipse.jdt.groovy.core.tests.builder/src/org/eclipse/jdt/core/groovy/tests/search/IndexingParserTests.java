@@ -0,0 +1,353 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Test;
+
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.IGroovyLogger;
+import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.jdt.groovy.integration.LanguageSupportFactory;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameRequestor;
+import org.eclipse.jdt.groovy.core.Activator;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.internal.compiler.SourceElementRequestorAdapter;
+import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.jdt.internal.core.BasicCompilationUnit;
+import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.jdt.internal.core.search.indexing.IndexManager;
+import org.eclipse.jdt.internal.core.search.indexing.IndexingParser;
+import org.eclipse.jdt.internal.core.util.Util;
+
+/**
+ * Tests the structure-only parse that indexes Groovy files, on the indexing thread and ahead of it.
+ */
+public class IndexingParserTests extends AbstractGroovySearchTest {
+
+    public static Test suite() {
+        return buildTestSuite(IndexingParserTests.class);
+    }
+
+    public IndexingParserTests(String name) {
+        super(name);
+    }
+
+    private static final String CLASS_CONTENTS =
+        "package p\n" +
+        "class Foo {\n" +
+        "    String name\n" +
+        "    def greet() { println name }\n" +
+        "}\n";
+
+    private static final String SCRIPT_CONTENTS =
+        "def greet() { 'hi' }\n" +
+        "println greet()\n";
+
+    private static final String BROKEN_CONTENTS =
+        "package p\n" +
+        "class Broken {\n" +
+        "    def ok() { }\n" +
+        "    def notOk() { new Foo(). }\n" +
+        "}\n";
+
+    private final RecordingLogger logger = new RecordingLogger();
+
+    private boolean origScriptsEnabled;
+    private String origScriptPatterns;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        origScriptsEnabled = Activator.getDefault().getBooleanPreference(null, Activator.GROOVY_SCRIPT_FILTERS_ENABLED, false);
+        origScriptPatterns = Activator.getDefault().getStringPreference(null, Activator.GROOVY_SCRIPT_FILTERS, Activator.DEFAULT_GROOVY_SCRIPT_FILTER);
+        Activator.getDefault().setPreference(null, Activator.GROOVY_SCRIPT_FILTERS_ENABLED, Boolean.TRUE.toString());
+        Activator.getDefault().setPreference(null, Activator.GROOVY_SCRIPT_FILTERS, "src/scripts/*.groovy,y");
+        GroovyParser.tidyCache(project.getName());
+        GroovyLogManager.manager.addLogger(logger);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        GroovyLogManager.manager.removeLogger(logger);
+        Activator.getDefault().setPreference(null, Activator.GROOVY_SCRIPT_FILTERS_ENABLED, String.valueOf(origScriptsEnabled));
+        Activator.getDefault().setPreference(null, Activator.GROOVY_SCRIPT_FILTERS, origScriptPatterns);
+        GroovyParser.tidyCache(project.getName());
+        super.tearDown();
+    }
+
+    public void testClassScriptAndSyntaxError() throws Exception {
+        RecordingRequestor requestor = new RecordingRequestor();
+        IndexingParser parser = createParser(requestor);
+
+        CompilationUnitDeclaration cud = parse(parser, "/Project/src/p/Foo.groovy", CLASS_CONTENTS);
+        assertFalse(isScript(cud));
+        assertElements(requestor.take(), "type Foo", "field name", "method greet");
+
+        cud = parse(parser, "/Project/src/scripts/Script.groovy", SCRIPT_CONTENTS);
+        assertTrue("Should be tagged as a script of the project's script folders", isScript(cud));
+        assertElements(requestor.take(), "type Script", "method greet");
+
+        cud = parse(parser, "/Project/src/Script.groovy", SCRIPT_CONTENTS);
+        assertFalse("Should only be a script in a script folder", isScript(cud));
+        requestor.take();
+
+        // what the parser recovers from the broken method is indexed
+        parse(parser, "/Project/src/p/Broken.groovy", BROKEN_CONTENTS);
+        assertElements(requestor.take(), "type Broken", "method ok");
+    }
+
+    public void testSearchFindsClassScriptAndSyntaxError() throws Exception {
+        IPath src = project.getFolder("src").getFullPath();
+        env.addGroovyClass(env.addPackage(src, "p"), "Foo", CLASS_CONTENTS);
+        env.addGroovyClass(env.addPackage(src, "p"), "Broken", BROKEN_CONTENTS);
+        env.addGroovyClass(env.addPackage(src, "scripts"), "Script", SCRIPT_CONTENTS);
+        env.fullBuild(project.getFullPath());
+        waitForIndexer(JavaCore.create(project));
+
+        assertEquals("[Broken, Foo, Script]", String.valueOf(findTypeNames()));
+    }
+
+    public void testParsedAheadInOrder() throws Exception {
+        IFile[] files = createFiles(12);
+        String serial = indexSerially(files);
+
+        RecordingRequestor requestor = new RecordingRequestor();
+        IndexingParser parser = createParser(requestor);
+        parser.aboutToIndex(files);
+        for (IFile file : files) {
+            parse(parser, file, null);
+        }
+        assertEquals(serial, requestor.take());
+        assertEquals("Should have used every file parsed ahead:\n" + logger, 0, logger.count("Indexing parser:"));
+        assertEquals(1, logger.count("Indexed 12 Groovy files of Project"));
+    }
+
+    public void testParsedAheadOutOfOrder() throws Exception {
+        IFile[] files = createFiles(12);
+        IFile[] reversed = new IFile[files.length];
+        for (int i = 0; i < files.length; i += 1) {
+            reversed[i] = files[files.length - 1 - i];
+        }
+        String serial = indexSerially(reversed);
+
+        RecordingRequestor requestor = new RecordingRequestor();
+        IndexingParser parser = createParser(requestor);
+        parser.aboutToIndex(files);
+        for (IFile file : reversed) {
+            parse(parser, file, null);
+        }
+        assertEquals(serial, requestor.take());
+        assertTrue("Should have traced the files not indexed in order:\n" + logger, logger.count("Indexing parser:") > 0);
+    }
+
+    public void testParsedAheadThenChanged() throws Exception {
+        IFile[] files = createFiles(3);
+        String changed = "package p\nclass C1 { def changed() { new C0() } }\n";
+
+        RecordingRequestor requestor = new RecordingRequestor();
+        IndexingParser parser = createParser(requestor);
+        parse(parser, files[0], null);
+        parse(parser, files[1], changed);
+        parse(parser, files[2], null);
+        String serial = requestor.take();
+
+        parser.aboutToIndex(files);
+        parse(parser, files[0], null);
+        parse(parser, files[1], changed);
+        parse(parser, files[2], null);
+        assertEquals(serial, requestor.take());
+        assertEquals(logger.toString(), 1, logger.count("/Project/src/p/C1.groovy has changed since it was parsed ahead"));
+    }
+
+    public void testProjectIndexingParsesAhead() throws Exception {
+        createFiles(12);
+        env.fullBuild(project.getFullPath());
+        waitForIndexer(JavaCore.create(project));
+        List<String> serial = findTypeNames();
+        assertEquals(12, serial.size());
+
+        // the IndexAllProject job hands the files it is about to index to the parser
+        IndexManager indexManager = JavaModelManager.getIndexManager();
+        indexManager.removeIndex(project.getFullPath());
+        logger.clear();
+        indexManager.indexAll(project);
+        waitForIndexer(JavaCore.create(project));
+
+        assertEquals(logger.toString(), 1, logger.count("Indexed 12 Groovy files of Project"));
+        assertEquals(serial, findTypeNames());
+    }
+
+    //--------------------------------------------------------------------------
+
+    private IndexingParser createParser(RecordingRequestor requestor) {
+        CompilerOptions options = new CompilerOptions(JavaCore.create(project).getOptions(true));
+        return LanguageSupportFactory.getIndexingParser(requestor, new DefaultProblemFactory(), options, true, true, false);
+    }
+
+    private IFile[] createFiles(int count) {
+        IPath pack = env.addPackage(project.getFolder("src").getFullPath(), "p");
+        IFile[] files = new IFile[count];
+        for (int i = 0; i < count; i += 1) {
+            String contents = "package p\n" +
+                "class C" + i + (i > 0 ? " extends C" + (i - 1) : "") + " {\n" +
+                "    int f" + i + "\n" +
+                "    def m" + i + "(C" + i + " other) { other.m" + i + "(null); f" + i + " }\n" +
+                "}\n";
+            files[i] = env.getWorkspace().getRoot().getFile(env.addGroovyClass(pack, "C" + i, contents));
+        }
+        return files;
+    }
+
+    private String indexSerially(IFile[] files) throws Exception {
+        RecordingRequestor requestor = new RecordingRequestor();
+        IndexingParser parser = createParser(requestor);
+        for (IFile file : files) {
+            parse(parser, file, null);
+        }
+        return requestor.take();
+    }
+
+    private static CompilationUnitDeclaration parse(IndexingParser parser, IFile file, String contents) throws Exception {
+        if (contents == null) {
+            contents = String.valueOf(Util.getResourceContentsAsCharArray(file));
+        }
+        return parse(parser, file.getFullPath().toString(), contents);
+    }
+
+    private static CompilationUnitDeclaration parse(IndexingParser parser, String path, String contents) {
+        return parser.parseCompilationUnit(new BasicCompilationUnit(contents.toCharArray(), null, path), true, null);
+    }
+
+    private static void assertElements(String recorded, String... expected) {
+        for (String element : expected) {
+            assertTrue("Should have indexed " + element + " in:\n" + recorded, recorded.contains(element + "\n"));
+        }
+    }
+
+    private static boolean isScript(CompilationUnitDeclaration cud) {
+        return (Boolean) ReflectionUtils.getPrivateField(GroovyCompilationUnitDeclaration.class, "isScript", cud);
+    }
+
+    private List<String> findTypeNames() throws Exception {
+        final List<String> names = new ArrayList<String>();
+        new SearchEngine().searchAllTypeNames(null, SearchPattern.R_PATTERN_MATCH, "*".toCharArray(), SearchPattern.R_PATTERN_MATCH,
+                IJavaSearchConstants.TYPE, SearchEngine.createJavaSearchScope(new IJavaElement[] {JavaCore.create(project)}),
+                new TypeNameRequestor() {
+                    @Override
+                    public void acceptType(int modifiers, char[] packageName, char[] simpleTypeName, char[][] enclosingTypeNames, String path) {
+                        if (path.endsWith(".groovy")) {
+                            names.add(String.valueOf(simpleTypeName));
+                        }
+                    }
+                }, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Records the declarations that the indexing parser reports.
+     */
+    static class RecordingRequestor extends SourceElementRequestorAdapter {
+        final StringBuilder elements = new StringBuilder();
+
+        @Override
+        public void enterType(TypeInfo typeInfo) {
+            elements.append("type ").append(typeInfo.name).append('\n');
+        }
+
+        @Override
+        public void enterField(FieldInfo fieldInfo) {
+            elements.append("field ").append(fieldInfo.name).append('\n');
+        }
+
+        @Override
+        public void enterMethod(MethodInfo methodInfo) {
+            elements.append("method ").append(methodInfo.name).append('\n');
+        }
+
+        @Override
+        public void acceptTypeReference(char[] typeName, int sourcePosition) {
+            elements.append("type reference ").append(typeName).append(" at ").append(sourcePosition).append('\n');
+        }
+
+        @Override
+        public void acceptMethodReference(char[] methodName, int argCount, int sourcePosition) {
+            elements.append("method reference ").append(methodName).append(" at ").append(sourcePosition).append('\n');
+        }
+
+        @Override
+        public void acceptFieldReference(char[] fieldName, int sourcePosition) {
+            elements.append("field reference ").append(fieldName).append(" at ").append(sourcePosition).append('\n');
+        }
+
+        String take() {
+            String recorded = elements.toString();
+            elements.setLength(0);
+            return recorded;
+        }
+    }
+
+    /**
+     * Collects what the indexing parser traces, which it may do from the indexing thread.
+     */
+    static class RecordingLogger implements IGroovyLogger {
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+
+        public void log(TraceCategory category, String message) {
+            messages.add(message);
+        }
+
+        public boolean isCategoryEnabled(TraceCategory category) {
+            return category == TraceCategory.COMPILER;
+        }
+
+        int count(String text) {
+            int count = 0;
+            synchronized (messages) {
+                for (String message : messages) {
+                    if (message.contains(text)) {
+                        count += 1;
+                    }
+                }
+            }
+            return count;
+        }
+
+        void clear() {
+            messages.clear();
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(messages);
+        }
+    }
+}
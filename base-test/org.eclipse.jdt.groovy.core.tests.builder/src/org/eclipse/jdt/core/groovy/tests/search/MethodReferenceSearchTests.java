@@ -15,14 +15,18 @@
  */
 package org.eclipse.jdt.core.groovy.tests.search;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import junit.framework.Test;
 
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.SearchEngine;
@@ -306,6 +310,93 @@ public class MethodReferenceSearchTests extends AbstractGroovySearchTest {
         assertEquals("Should have found 4 matches in Other.groovy", 4, otherCnt);
     }
 
+    private static final String GROOVY_USER_CONTENTS =
+            "package p\n" +
+            "class GroovyUser {\n" +
+            "    void put(String s) { }\n" +
+            "    void use() { put('x') }\n" +
+            "}\n";
+
+    private static final String JAVA_BOX_CONTENTS =
+            "package p;\n" +
+            "public class JavaBox<T> {\n" +
+            "    public void put(T value) { }\n" +
+            "    void use() { new GroovyUser().put(\"x\"); }\n" +
+            "}\n";
+
+    public void testMixedReferencesResolvedForJavaNodeSet() throws Exception {
+        // the pattern need not be resolved, but the generic declaration in JavaBox makes its node set resolve
+        createUnit("p", "GroovyUser", GROOVY_USER_CONTENTS);
+        createJavaUnit("p", "JavaBox", JAVA_BOX_CONTENTS);
+        fullBuild(project.getFullPath());
+        waitForIndexer(JavaCore.create(project));
+
+        SearchPattern pattern = SearchPattern.createPattern("put(String)", IJavaSearchConstants.METHOD,
+                IJavaSearchConstants.ALL_OCCURRENCES, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+        assertMixedMatches(searchProject(pattern));
+    }
+
+    public void testMixedReferencesForResolvedPattern() throws Exception {
+        GroovyCompilationUnit groovyUnit = createUnit("p", "GroovyUser", GROOVY_USER_CONTENTS);
+        createJavaUnit("p", "JavaBox", JAVA_BOX_CONTENTS);
+        fullBuild(project.getFullPath());
+        waitForIndexer(JavaCore.create(project));
+
+        IMethod put = groovyUnit.getType("GroovyUser").getMethod("put", new String[] {"QString;"});
+        assertMixedMatches(searchProject(SearchPattern.createPattern(put, IJavaSearchConstants.ALL_OCCURRENCES)));
+    }
+
+    public void testSearchLeavesWorkingCopyModuleAlone() throws Exception {
+        GroovyCompilationUnit groovyUnit = createUnit("p", "GroovyUser", GROOVY_USER_CONTENTS);
+        createJavaUnit("p", "JavaBox", JAVA_BOX_CONTENTS);
+        fullBuild(project.getFullPath());
+        waitForIndexer(JavaCore.create(project));
+
+        groovyUnit.becomeWorkingCopy(null);
+        try {
+            ModuleNode module = groovyUnit.getModuleNode();
+            List<ClassNode> classes = new ArrayList<ClassNode>(module.getClasses());
+            int errorCount = module.getContext().getErrorCollector().getErrorCount();
+
+            IMethod put = groovyUnit.getType("GroovyUser").getMethod("put", new String[] {"QString;"});
+            assertMixedMatches(searchProject(SearchPattern.createPattern(put, IJavaSearchConstants.ALL_OCCURRENCES)));
+
+            assertSame("Working copy should keep its module", module, groovyUnit.getModuleNode());
+            assertEquals(classes, module.getClasses());
+            assertEquals(errorCount, module.getContext().getErrorCollector().getErrorCount());
+        } finally {
+            groovyUnit.discardWorkingCopy();
+        }
+    }
+
+    private List<SearchMatch> searchProject(SearchPattern pattern) throws Exception {
+        MockSearchRequestor requestor = new MockSearchRequestor();
+        new SearchEngine().search(pattern,
+                new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() },
+                SearchEngine.createJavaSearchScope(new IJavaElement[] { JavaCore.create(project) }),
+                requestor, new NullProgressMonitor());
+        return requestor.matches;
+    }
+
+    private void assertMixedMatches(List<SearchMatch> matches) {
+        List<SearchMatch> groovyMatches = new ArrayList<SearchMatch>();
+        SearchMatch javaReference = null;
+        for (SearchMatch match : matches) {
+            String fileName = match.getResource().getName();
+            if (fileName.equals("GroovyUser.groovy")) {
+                groovyMatches.add(match);
+            } else if (fileName.equals("JavaBox.java") && match.getOffset() == JAVA_BOX_CONTENTS.indexOf("put(\"x\")")) {
+                javaReference = match;
+            }
+        }
+        // each match in the Groovy unit is reported once, by the delegated search
+        assertEquals("Incorrect matches in GroovyUser.groovy:\n" + matches, 2, groovyMatches.size());
+        assertEquals(GROOVY_USER_CONTENTS.indexOf("put"), groovyMatches.get(0).getOffset());
+        assertEquals(GROOVY_USER_CONTENTS.lastIndexOf("put"), groovyMatches.get(1).getOffset());
+        assertNotNull("No match for the reference in JavaBox.java:\n" + matches, javaReference);
+        assertEquals("Reference in JavaBox.java should be resolved", SearchMatch.A_ACCURATE, javaReference.getAccuracy());
+    }
+
     private void doTestForTwoMethodReferencesInScript(String secondContents) throws JavaModelException {
         doTestForTwoMethodReferences(FIRST_CONTENTS_CLASS_FOR_METHODS, secondContents, true, 3, "xxx");
     }
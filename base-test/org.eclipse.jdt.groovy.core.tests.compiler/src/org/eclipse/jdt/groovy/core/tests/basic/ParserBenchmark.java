@@ -0,0 +1,111 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core.tests.basic;
+
+import junit.framework.TestCase;
+
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.ParserPluginFactory;
+import org.codehaus.groovy.control.Phases;
+
+/**
+ * Measures parse throughput (source to module node) over a fixed, generated
+ * corpus.  Not part of the regular suites; run it directly.  The default front
+ * end is always measured; set <code>-Dgreclipse.parserPluginFactory</code> to
+ * the name of a {@link ParserPluginFactory} to measure it alongside.
+ */
+public final class ParserBenchmark extends TestCase {
+
+    private static final int FILES = 200;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    public ParserBenchmark(String name) {
+        super(name);
+    }
+
+    public void testParseThroughput() throws Exception {
+        String[] corpus = createCorpus();
+
+        report("default", corpus, ParserPluginFactory.newInstance());
+
+        String factoryName = System.getProperty("greclipse.parserPluginFactory");
+        if (factoryName != null && factoryName.trim().length() > 0) {
+            ParserPluginFactory factory = (ParserPluginFactory) Class.forName(factoryName.trim()).newInstance();
+            report(factoryName, corpus, factory);
+        }
+    }
+
+    private static void report(String label, String[] corpus, ParserPluginFactory factory) {
+        for (int i = 0; i < WARMUP_ROUNDS; i += 1) {
+            parse(corpus, factory);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i += 1) {
+            long start = System.nanoTime();
+            parse(corpus, factory);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.println(String.format("%s: %d files in %.1f ms (%.0f files/sec)",
+            label, corpus.length, best / 1e6, corpus.length / (best / 1e9)));
+    }
+
+    private static void parse(String[] corpus, ParserPluginFactory factory) {
+        CompilerConfiguration config = new CompilerConfiguration();
+        config.setPluginFactory(factory);
+        CompilationUnit unit = new CompilationUnit(config);
+        for (int i = 0; i < corpus.length; i += 1) {
+            unit.addSource("p/Type" + i + ".groovy", corpus[i]);
+        }
+        unit.compile(Phases.CONVERSION);
+    }
+
+    /**
+     * The same sources on every run: classes with fields, properties, methods,
+     * closures, GStrings and generics, in roughly the proportions of typical code.
+     */
+    private static String[] createCorpus() {
+        String[] corpus = new String[FILES];
+        for (int i = 0; i < FILES; i += 1) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("package p\n\n");
+            sb.append("import java.util.concurrent.ConcurrentHashMap\n\n");
+            sb.append("/**\n * Type number ").append(i).append("\n */\n");
+            sb.append("class Type").append(i).append(" implements Comparable<Type").append(i).append("> {\n");
+            sb.append("    private final Map<String, List<Integer>> cache = new ConcurrentHashMap<String, List<Integer>>()\n");
+            sb.append("    String name = 'type").append(i).append("'\n");
+            sb.append("    int count\n\n");
+            for (int j = 0; j < 10; j += 1) {
+                sb.append("    def method").append(j).append("(String s, int n = ").append(j).append(") {\n");
+                sb.append("        def list = (1..n).collect { it * ").append(j).append(" }.findAll { it % 2 == 0 }\n");
+                sb.append("        if (s?.size() > n) {\n");
+                sb.append("            count += list.sum() ?: 0\n");
+                sb.append("        } else {\n");
+                sb.append("            for (int k = 0; k < n; k += 1) { cache[s + k] = list }\n");
+                sb.append("        }\n");
+                sb.append("        return \"${name}: ${s.toUpperCase()} -> $count\"\n");
+                sb.append("    }\n\n");
+            }
+            sb.append("    int compareTo(Type").append(i).append(" that) {\n");
+            sb.append("        count <=> that.count\n");
+            sb.append("    }\n");
+            sb.append("}\n");
+            corpus[i] = sb.toString();
+        }
+        return corpus;
+    }
+}
@@ -15,9 +15,6 @@
  */
 package org.codehaus.groovy.antlr;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * A simple buffer that provides line/col access to chunks of source code
  * held within itself.
@@ -28,27 +25,54 @@ import java.util.List;
  * @version $Revision: 7922 $
  */
 public class SourceBuffer {
-    private final List<StringBuilder> lines;
-    private StringBuilder current;
-    // GRECLIPSE: start
-    private final List<Integer> lineEndings;
-
-    // GRECLIPSE-805 Support for unicode escape sequences
-    private UnicodeEscapingReader unescaper;
-    // end
+    // GRECLIPSE edit -- one growable buffer and primitive line tables instead of a StringBuilder per line and boxed line endings
+    private char[] chars = new char[1024];
+    private int size;
+    // offset in chars of the start of each line
+    private int[] lineStarts = new int[64];
+    // offset in the source of the start of each line; differs from lineStarts after unicode escapes
+    private int[] lineEndings = new int[64];
+    private int lineCount = 1;
+    private boolean prevWasCarriageReturn;
+    // GRECLIPSE-805: Support for unicode escape sequences
+    private UnicodeEscapingReader unescaper = new NoEscaper();
+    // when reading from a char[], the characters and line separators come from the source
+    private int[] lineSeparators;
+    // GRECLIPSE end
 
     public SourceBuffer() {
-        lines = new ArrayList<StringBuilder>();
-        //lines.add(new StringBuffer()); // dummy row for position [0] in the List
-        // GRECLIPSE: start
-        lineEndings = new ArrayList<Integer>();
-        lineEndings.add(0);
-        unescaper = new NoEscaper();
-        // end
-        current = new StringBuilder();
-        lines.add(current);
+    }
+
+    // GRECLIPSE add
+    /**
+     * Creates a buffer over the contents of the given source.  Unless the
+     * source contains unicode escapes, its characters and line separators
+     * are used directly and nothing is copied as the source is read.
+     */
+    public SourceBuffer(CharArrayReaderSource source) {
+        if (!source.hasUnicodeEscapes()) {
+            chars = source.getChars();
+            size = chars.length;
+            lineSeparators = source.getLineSeparators();
+            lineCount = lineSeparators.length + 1;
+        }
     }
 
+    /**
+     * @return offset in the buffer of the start of the given (0 based) line,
+     *         or of the end of the buffer for <code>index == lineCount</code>
+     */
+    private int getLineStart(int index) {
+        if (index >= lineCount) {
+            return size;
+        }
+        if (lineSeparators != null) {
+            return index == 0 ? 0 : lineSeparators[index - 1] + 1;
+        }
+        return lineStarts[index];
+    }
+    // GRECLIPSE end
+
     /**
      * Obtains a snippet of the source code within the bounds specified
      * @param start (inclusive line/ inclusive column)
@@ -59,7 +83,7 @@ public class SourceBuffer {
         // preconditions
         if (start == null || end == null) { return null; } // no text to return
         if (start.equals(end)) { return null; } // no text to return
-        if (lines.size() == 1 && current.length() == 0) { return null; } // buffer hasn't been filled yet
+        if (size == 0) { return null; } // buffer hasn't been filled yet
 
         // working variables
         int startLine = start.getLine();
@@ -72,35 +96,40 @@ public class SourceBuffer {
         if (endLine < 1) { endLine = 1;}
         if (startColumn < 1) { startColumn = 1;}
         if (endColumn < 1) { endColumn = 1;}
-        if (startLine > lines.size()) { startLine = lines.size(); }
-        if (endLine > lines.size()) { endLine = lines.size(); }
+        if (startLine > lineCount) { startLine = lineCount; }
+        if (endLine > lineCount) { endLine = lineCount; }
 
-        // obtain the snippet from the buffer within specified bounds
-        StringBuffer snippet = new StringBuffer();
-        for (int i = startLine - 1; i < endLine;i++) {
-            String line = (lines.get(i)).toString();
+        // GRECLIPSE edit -- copy straight from the buffer rather than through substrings of each line
+        StringBuilder snippet = new StringBuilder();
+        for (int i = startLine - 1; i < endLine; i += 1) {
+            int offset = getLineStart(i);
+            int length = getLineStart(i + 1) - offset;
             if (startLine == endLine) {
                 // reset any out of bounds requests (again)
-                if (startColumn > line.length()) { startColumn = line.length();}
+                if (startColumn > length) { startColumn = length;}
                 if (startColumn < 1) { startColumn = 1;}
-                if (endColumn > line.length()) { endColumn = line.length() + 1;}
+                if (endColumn > length) { endColumn = length + 1;}
                 if (endColumn < 1) { endColumn = 1;}
+                if (endColumn < startColumn) { endColumn = startColumn;}
 
-                line = line.substring(startColumn - 1, endColumn - 1);
+                offset += startColumn - 1;
+                length = endColumn - startColumn;
             } else {
                 if (i == startLine - 1) {
-                    if (startColumn - 1 < line.length()) {
-                        line = line.substring(startColumn - 1);
+                    if (startColumn - 1 < length) {
+                        offset += startColumn - 1;
+                        length -= startColumn - 1;
                     }
                 }
                 if (i == endLine - 1) {
-                    if (endColumn - 1 < line.length()) {
-                        line = line.substring(0,endColumn - 1);
+                    if (endColumn - 1 < length) {
+                        length = endColumn - 1;
                     }
                 }
             }
-            snippet.append(line);
+            snippet.append(chars, offset, length);
         }
+        // GRECLIPSE end
         return snippet.toString();
     }
 
@@ -108,64 +137,54 @@ public class SourceBuffer {
      * Writes the specified character into the buffer
      * @param c
      */
-    // GRECLIPSE: start
-    /*{
     public void write(int c) {
-        if (c != -1) {
-            current.append((char)c);
+        // GRECLIPSE edit
+        if (lineSeparators != null) {
+            return; // the contents are already known
         }
-        if (c == '\n') {
-            current = new StringBuffer();
-            lines.add(current);
-        }
-    } 
-    }*/
-    // newcode:
-    public void setUnescaper(UnicodeEscapingReader unicodeEscapingReader) {
-        this.unescaper = unicodeEscapingReader;
-    }
-    
-    private boolean prevWasCarriageReturn = false;
-    private int col = 0;
-    // FIXASC tidy this up, looks slow
-    public void write(int c) {
         if (c != -1) {
-        	col++;
-            current.append((char)c);
-        }
-        if (c == '\n') {
-        	if (!prevWasCarriageReturn) {
-	            current = new StringBuilder();
-	            lines.add(current);
-	            lineEndings.add(col + unescaper.getUnescapedUnicodeOffsetCount());
-        	} else {
-        		// \r\n was found
-        		// back out previous line and add a \n to the line
-        		current = new StringBuilder();
-        		lines.get(lines.size()-1).append('\n');
-        		lineEndings.remove(lineEndings.size()-1);
-        		lineEndings.add(col + unescaper.getUnescapedUnicodeOffsetCount());
-        	}
+            if (size == chars.length) {
+                char[] grown = new char[size * 2];
+                System.arraycopy(chars, 0, grown, 0, size);
+                chars = grown;
+            }
+            chars[size++] = (char) c;
         }
-        // handle carriage returns as well as newlines
-        if (c == '\r') {
-        	current = new StringBuilder();
-        	lines.add(current);
-        	lineEndings.add(col + unescaper.getUnescapedUnicodeOffsetCount());
-        	// this may be a \r\n, but may not be
-        	prevWasCarriageReturn = true;
-        } else {
-        	prevWasCarriageReturn = false;
+        if (c == '\n' && prevWasCarriageReturn) {
+            // \r\n was found; the line starts after the \n instead of the \r
+            lineStarts[lineCount - 1] = size;
+            lineEndings[lineCount - 1] = size + unescaper.getUnescapedUnicodeOffsetCount();
+        } else if (c == '\n' || c == '\r') {
+            if (lineCount == lineStarts.length) {
+                int[] grown = new int[lineCount * 2];
+                System.arraycopy(lineStarts, 0, grown, 0, lineCount);
+                lineStarts = grown;
+                grown = new int[lineCount * 2];
+                System.arraycopy(lineEndings, 0, grown, 0, lineCount);
+                lineEndings = grown;
+            }
+            lineStarts[lineCount] = size;
+            lineEndings[lineCount] = size + unescaper.getUnescapedUnicodeOffsetCount();
+            lineCount += 1;
         }
+        // this may be a \r\n, but may not be
+        prevWasCarriageReturn = (c == '\r');
+        // GRECLIPSE end
     }
-    
+
+    // GRECLIPSE add
     public LocationSupport getLocationSupport() {
-    	lineEndings.add(col + unescaper.getUnescapedUnicodeOffsetCount()); // last line ends where the data runs out
-    	int[] lineEndingsArray = new int[lineEndings.size()];
-    	for (int i=0,max=lineEndings.size();i<max;i++) {
-    		lineEndingsArray[i] = lineEndings.get(i).intValue();
-    	}
-    	return new LocationSupport(lineEndingsArray);
+        if (lineSeparators != null) {
+            return new LocationSupport(lineSeparators, size);
+        }
+        int[] lineEndingsArray = new int[lineCount + 1];
+        System.arraycopy(lineEndings, 0, lineEndingsArray, 0, lineCount);
+        lineEndingsArray[lineCount] = size + unescaper.getUnescapedUnicodeOffsetCount(); // last line ends where the data runs out
+        return new LocationSupport(lineEndingsArray);
+    }
+
+    public void setUnescaper(UnicodeEscapingReader unicodeEscapingReader) {
+        this.unescaper = unicodeEscapingReader;
     }
-    // end
+    // GRECLIPSE end
 }
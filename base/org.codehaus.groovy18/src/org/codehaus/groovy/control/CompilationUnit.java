@@ -522,6 +522,25 @@ public class CompilationUnit extends ProcessingUnit {
     	return this.listener;
     }
 
+    /**
+     * Told how long each phase operation took on each source unit, and how long and how much memory each AST
+     * transform took, for build reports. The allocated bytes are -1 where the VM does not count them.
+     */
+    public interface OperationTimer {
+        void operationComplete(int phase, Object operation, SourceUnit source, long nanos);
+        void transformComplete(Object transform, SourceUnit source, long nanos, long allocatedBytes);
+    }
+
+    private OperationTimer operationTimer;
+
+    public OperationTimer getOperationTimer() {
+        return this.operationTimer;
+    }
+
+    public void setOperationTimer(OperationTimer operationTimer) {
+        this.operationTimer = operationTimer;
+    }
+
     public void setProgressListener(ProgressListener listener) {
     	this.listener = listener;
     }
@@ -936,7 +955,15 @@ public class CompilationUnit extends ProcessingUnit {
             SourceUnit source = sources.get(name);
             if ((source.phase < phase) || (source.phase == phase && !source.phaseComplete)) {
                 try {
+                    // GRECLIPSE add
+                    long start = (operationTimer != null ? System.nanoTime() : 0);
+                    // GRECLIPSE end
                     body.call(source);
+                    // GRECLIPSE add
+                    if (operationTimer != null) {
+                        operationTimer.operationComplete(phase, body, source, System.nanoTime() - start);
+                    }
+                    // GRECLIPSE end
                     // GRECLIPSE: start
                     if (phase==Phases.CONVERSION && getProgressListener()!=null && body==phaseOperations[phase].getLast()) {
                     	getProgressListener().parseComplete(phase,name);
@@ -1120,7 +1147,15 @@ public class CompilationUnit extends ProcessingUnit {
                         iterator.next();
                         offset++;
                     }
+                    // GRECLIPSE add
+                    long start = (operationTimer != null ? System.nanoTime() : 0);
+                    // GRECLIPSE end
                     body.call(context, new GeneratorContext(this.ast, offset), classNode);
+                    // GRECLIPSE add
+                    if (operationTimer != null) {
+                        operationTimer.operationComplete(phase, body, context, System.nanoTime() - start);
+                    }
+                    // GRECLIPSE end
                 }
             } catch (CompilationFailedException e) {
                 // fall through, getErrorReporter().failIfErrors() will trigger
@@ -31,6 +31,9 @@ import groovy.lang.GroovyClassLoader;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.*;
 
@@ -133,6 +136,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     // GRECLIPSE add
                 	try {
                 		long stime = System.nanoTime();
+                		long sbytes = allocatedBytes(compUnit);
                 		boolean okToSet = source!=null && source.getErrorCollector()!=null;
                 		try {
                 			if (okToSet) {
@@ -147,9 +151,10 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 			}
                 		}
                 		long etime = System.nanoTime(); 
+                		long bytes = transformComplete(compUnit, snt, source, etime - stime, sbytes);
                 		if (GroovyLogManager.manager.hasLoggers()) {
                 			try {
-	                			GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Local transform "+snt.getClass().getName()+" on "+classNode.getName()+":"+node[1]+" = "+((etime-stime)/1000000)+"ms");
+	                			GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Local transform "+snt.getClass().getName()+" on "+classNode.getName()+":"+node[1]+" = "+((etime-stime)/1000000)+"ms"+describeAllocation(bytes));
 	            			} catch (Throwable t) {
 	            				t.printStackTrace();
 	            			}
@@ -402,6 +407,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                         	try { 
                               // end
                             long stime = System.nanoTime();
+                            long sbytes = allocatedBytes(compUnit);
                             boolean okToSet = source!=null && source.getErrorCollector()!=null;
 
                     		try {
@@ -415,11 +421,12 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     			}
                     		}
                             long etime = System.nanoTime(); 
+                            long bytes = transformComplete(compUnit, instance, source, etime - stime, sbytes);
                     		if (GroovyLogManager.manager.hasLoggers()) {
                     			long timetaken = (etime-stime)/1000000;
                     			if (timetaken>0) {
 	                    			try {
-	                    				GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Global transform "+instance.getClass().getName()+" on "+source.getName()+" = "+timetaken+"ms");
+	                    				GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Global transform "+instance.getClass().getName()+" on "+source.getName()+" = "+timetaken+"ms"+describeAllocation(bytes));
 	                    			} catch (Throwable t) {
 	                    				t.printStackTrace();
 	                    			}
@@ -462,5 +469,72 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
             }
         }
     }
+
+    // GRECLIPSE add
+    /**
+     * @return the bytes the current thread has allocated so far, or -1 if no one is timing transforms or the VM does not count them
+     */
+    private static long allocatedBytes(CompilationUnit compilationUnit) {
+        if (compilationUnit == null || (compilationUnit.getOperationTimer() == null && !GroovyLogManager.manager.hasLoggers())) {
+            return -1;
+        }
+        return AllocationCounter.currentThread();
+    }
+
+    /**
+     * Tells the compilation unit's timer how long a transform ran and how much it allocated.
+     *
+     * @return the bytes allocated by the transform, or -1 if not known
+     */
+    private static long transformComplete(CompilationUnit compilationUnit, ASTTransformation transform, SourceUnit source, long nanos, long startBytes) {
+        long bytes = (startBytes < 0 ? -1 : allocatedBytes(compilationUnit));
+        if (bytes >= 0) {
+            bytes -= startBytes;
+        }
+        CompilationUnit.OperationTimer timer = (compilationUnit != null ? compilationUnit.getOperationTimer() : null);
+        if (timer != null) {
+            timer.transformComplete(transform, source, nanos, bytes);
+        }
+        return bytes;
+    }
+
+    private static String describeAllocation(long bytes) {
+        return (bytes < 0 ? "" : ", " + (bytes / 1024) + "KB allocated");
+    }
+
+    /**
+     * Per-thread allocation counts come from an extension of {@link ThreadMXBean} that HotSpot and OpenJ9 have but that is
+     * not part of the Java SE API, so it is looked up reflectively, and only once someone is timing transforms.
+     */
+    private static class AllocationCounter {
+        private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        private static final Method getThreadAllocatedBytes = findMethod();
+
+        private static Method findMethod() {
+            try {
+                Class<?> type = Class.forName("com.sun.management.ThreadMXBean", false, threadBean.getClass().getClassLoader());
+                if (type.isInstance(threadBean)) {
+                    return type.getMethod("getThreadAllocatedBytes", long.class);
+                }
+            } catch (Exception e) {
+                // not available
+            } catch (LinkageError e) {
+                // not available
+            }
+            return null;
+        }
+
+        static long currentThread() {
+            if (getThreadAllocatedBytes != null) {
+                try {
+                    return (Long) getThreadAllocatedBytes.invoke(threadBean, Thread.currentThread().getId());
+                } catch (Exception e) {
+                    // fall through
+                }
+            }
+            return -1;
+        }
+    }
+    // GRECLIPSE end
 }
 
@@ -189,7 +189,11 @@ public class AntlrParserPlugin extends ASTHelper implements ParserPlugin, Groovy
 
 
     public /*final*/ Reduction parseCST(final SourceUnit sourceUnit, Reader reader) throws CompilationFailedException {
-        final SourceBuffer sourceBuffer = new SourceBuffer();
+        // GRECLIPSE: start
+        //final SourceBuffer sourceBuffer = new SourceBuffer();
+        final SourceBuffer sourceBuffer = sourceUnit.getSource() instanceof CharArrayReaderSource
+                ? new SourceBuffer((CharArrayReaderSource) sourceUnit.getSource()) : new SourceBuffer();
+        // GRECLIPSE: end
         transformCSTIntoAST(sourceUnit, reader, sourceBuffer);
         processAST();
         return outputAST(sourceUnit,sourceBuffer);
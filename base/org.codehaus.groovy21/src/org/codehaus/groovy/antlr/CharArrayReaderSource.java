@@ -0,0 +1,157 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.antlr;
+
+import java.io.Reader;
+import java.net.URI;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.io.AbstractReaderSource;
+
+/**
+ * A {@link org.codehaus.groovy.control.io.ReaderSource ReaderSource} over a
+ * <code>char[]</code> (typically the contents of a JDT compilation unit) that
+ * is read in place instead of being copied into a <code>String</code>.
+ * <p>
+ * Line separators are located once, in the same form as JDT's
+ * <code>CompilationResult.lineSeparatorPositions</code> (the offset of each
+ * '\n' or lone '\r'), so that the same array can back the parser's
+ * {@link LocationSupport}.
+ */
+public class CharArrayReaderSource extends AbstractReaderSource {
+
+    private final char[] chars;
+    private int[] lineSeparators;
+    private boolean unicodeEscapes;
+
+    public CharArrayReaderSource(char[] chars, CompilerConfiguration configuration) {
+        super(configuration);
+        this.chars = chars;
+        scan();
+    }
+
+    public Reader getReader() {
+        return new CharArrayReader(chars);
+    }
+
+    public URI getURI() {
+        // like an InputStreamReaderSource, the source does not know where it is from
+        return null;
+    }
+
+    /**
+     * Returns the source characters; callers must not modify them.
+     */
+    public char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * Returns the offset of each line separator ('\n' for "\r\n").
+     */
+    public int[] getLineSeparators() {
+        return lineSeparators;
+    }
+
+    /**
+     * Returns <code>true</code> if the source contains a backslash followed by
+     * 'u', in which case the parser sees different offsets than are in the array.
+     */
+    public boolean hasUnicodeEscapes() {
+        return unicodeEscapes;
+    }
+
+    private void scan() {
+        int[] separators = new int[Math.max(16, chars.length / 32)];
+        int count = 0;
+        boolean escapes = false;
+        for (int i = 0, n = chars.length; i < n; i += 1) {
+            char c = chars[i];
+            if (c == '\r') {
+                if (i + 1 < n && chars[i + 1] == '\n') {
+                    i += 1; // the position of the \n
+                }
+            } else if (c != '\n') {
+                if (c == '\\' && i + 1 < n && chars[i + 1] == 'u') {
+                    escapes = true;
+                }
+                continue;
+            }
+            if (count == separators.length) {
+                int[] grown = new int[count * 2];
+                System.arraycopy(separators, 0, grown, 0, count);
+                separators = grown;
+            }
+            separators[count++] = i;
+        }
+        if (count != separators.length) {
+            int[] trimmed = new int[count];
+            System.arraycopy(separators, 0, trimmed, 0, count);
+            separators = trimmed;
+        }
+        unicodeEscapes = escapes;
+        lineSeparators = separators;
+    }
+
+    /**
+     * Finds the line separators in the given source.
+     *
+     * @see #getLineSeparators()
+     */
+    public static int[] getLineSeparators(char[] chars) {
+        return new CharArrayReaderSource(chars, CompilerConfiguration.DEFAULT).getLineSeparators();
+    }
+
+    /**
+     * Like {@link java.io.CharArrayReader}, but without copying or locking,
+     * since the parser reads from a single thread one character at a time.
+     */
+    private static class CharArrayReader extends Reader {
+        private final char[] chars;
+        private int pos;
+
+        CharArrayReader(char[] chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int read() {
+            return pos < chars.length ? chars[pos++] : -1;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (pos >= chars.length) {
+                return -1;
+            }
+            int n = Math.min(len, chars.length - pos);
+            System.arraycopy(chars, pos, cbuf, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, chars.length - pos));
+            pos += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
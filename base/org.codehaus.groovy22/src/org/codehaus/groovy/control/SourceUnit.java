@@ -91,6 +91,8 @@ public class SourceUnit extends ProcessingUnit {
     
     // GRECLIPSE - start - provides ability to tell if this source unit was created during a reconciling compile
     public boolean isReconcile;
+    /** Identifies a reconciled source among those of all projects: the project and the path of the source. */
+    public String reconcileKey;
     // GRECLIPSE - end
 
     // GRECLIPSE start - temp fix whilst groovy guys sort it out
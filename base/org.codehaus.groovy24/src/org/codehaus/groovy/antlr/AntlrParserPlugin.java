@@ -109,7 +109,11 @@ public class AntlrParserPlugin extends ASTHelper implements ParserPlugin, Groovy
     // GRECLIPSE end
 
     public /*final*/ Reduction parseCST(final SourceUnit sourceUnit, Reader reader) throws CompilationFailedException {
-        final SourceBuffer sourceBuffer = new SourceBuffer();
+        // GRECLIPSE edit
+        //final SourceBuffer sourceBuffer = new SourceBuffer();
+        final SourceBuffer sourceBuffer = sourceUnit.getSource() instanceof CharArrayReaderSource
+                ? new SourceBuffer((CharArrayReaderSource) sourceUnit.getSource()) : new SourceBuffer();
+        // GRECLIPSE end
         transformCSTIntoAST(sourceUnit, reader, sourceBuffer);
         processAST();
         return outputAST(sourceUnit, sourceBuffer);
@@ -2800,10 +2804,12 @@ public class AntlrParserPlugin extends ASTHelper implements ParserPlugin, Groovy
         int keywordLength = (special == ClassNode.SUPER ? 5 : 4);
         GroovySourceAST ctorCallNode = (GroovySourceAST) methodCallNode;
         // locate the keyword relative to the method call expression; assume no spaces
-        ctorCallNode.setColumn(Math.max(1, ctorCallNode.getColumn() - keywordLength));
+        int column = ctorCallNode.getColumn();
+        ctorCallNode.setColumn(Math.max(1, column - keywordLength));
         // GRECLIPSE end
         configureAST(expression, methodCallNode);
         // GRECLIPSE add
+        ctorCallNode.setColumn(column); // leave the CST as parsed so that it can be built again
         expression.setNameStart(expression.getStart());
         expression.setNameEnd(expression.getStart() + keywordLength - 1);
         // GRECLIPSE end
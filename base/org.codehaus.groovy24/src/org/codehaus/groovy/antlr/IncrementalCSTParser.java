@@ -0,0 +1,368 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.antlr;
+
+import java.io.CharArrayReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.antlr.parser.GroovyLexer;
+import org.codehaus.groovy.antlr.parser.GroovyRecognizer;
+import org.codehaus.groovy.antlr.parser.GroovyTokenTypes;
+import org.codehaus.groovy.ast.Comment;
+
+/**
+ * Keeps the CST of the last error-free reconcile parse of each source unit so
+ * that, when the next reconcile follows an edit confined to the body of one
+ * method, only that body is lexed and parsed again.  The new body is spliced
+ * into the previous tree and the nodes and comments after it are moved to
+ * their new lines and columns; the tree is then built into a module as if the
+ * whole source had been parsed.
+ * <p>
+ * Edits elsewhere, including in constructor bodies and script statements, are
+ * parsed in full, as are sources with unicode escapes (their columns do not
+ * match the source offsets) and bodies that do not parse without errors.
+ */
+final class IncrementalCSTParser {
+
+    private IncrementalCSTParser() {
+    }
+
+    /**
+     * The CST, comments and contents of a parsed source unit.
+     */
+    static final class ParsedSource {
+        final char[] contents;
+        final int[] lineSeparators;
+        final GroovySourceAST cst;
+        final List<Comment> comments;
+
+        ParsedSource(char[] contents, int[] lineSeparators, GroovySourceAST cst, List<Comment> comments) {
+            this.contents = contents;
+            this.lineSeparators = lineSeparators;
+            this.cst = cst;
+            this.comments = comments;
+        }
+    }
+
+    /**
+     * Keyed by {@link org.codehaus.groovy.control.SourceUnit#reconcileKey}, the project and path of a source.
+     * Enough for the sources open in editors; older entries are discarded first.
+     */
+    private static final int MAX_SOURCES = 8;
+
+    private static final Map<String, ParsedSource> parsedSources = new LinkedHashMap<String, ParsedSource>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParsedSource> eldest) {
+            return size() > MAX_SOURCES;
+        }
+    };
+
+    /** The header that makes a method body parse as a script on its own. */
+    private static final char[] METHOD_HEADER = "void m()".toCharArray();
+
+    /**
+     * Records the CST of a source unit for the next reconcile.  The tree must
+     * not be modified after this; a later {@link #reparse} takes it back.
+     */
+    static void keep(String key, ParsedSource source) {
+        synchronized (parsedSources) {
+            parsedSources.put(key, source);
+        }
+    }
+
+    /**
+     * Builds the CST of the given contents from the previous parse of the
+     * source unit.  The previous parse is removed, so a tree is never used by
+     * two parses at a time.
+     *
+     * @return the new CST, comments and contents (which the caller should
+     *         {@link #keep} once the module is built), or <code>null</code> if
+     *         the source has to be parsed in full
+     */
+    static ParsedSource reparse(String key, CharArrayReaderSource source) {
+        ParsedSource previous;
+        synchronized (parsedSources) {
+            previous = parsedSources.remove(key);
+        }
+        if (previous == null || source.hasUnicodeEscapes()) {
+            return null;
+        }
+        char[] oldContents = previous.contents, newContents = source.getChars();
+        int oldLength = oldContents.length, newLength = newContents.length;
+
+        int prefix = 0, limit = Math.min(oldLength, newLength);
+        while (prefix < limit && oldContents[prefix] == newContents[prefix]) {
+            prefix += 1;
+        }
+        if (prefix == oldLength && prefix == newLength) {
+            // unchanged since the previous parse (each reconcile parses more than once)
+            return new ParsedSource(newContents, previous.lineSeparators, previous.cst, copyComments(previous.comments, null));
+        }
+        int suffix = 0;
+        limit -= prefix;
+        while (suffix < limit && oldContents[oldLength - 1 - suffix] == newContents[newLength - 1 - suffix]) {
+            suffix += 1;
+        }
+        int oldEnd = oldLength - suffix, newEnd = newLength - suffix;
+
+        // find the innermost method body that encloses the edit
+        GroovySourceAST methodDef = null, body = null, beforeBody = null;
+        int bodyStart = -1, bodyEnd = -1;
+        List<GroovySourceAST> stack = new ArrayList<GroovySourceAST>();
+        stack.add(previous.cst);
+        while (!stack.isEmpty()) {
+            GroovySourceAST node = stack.remove(stack.size() - 1);
+            for (; node != null; node = (GroovySourceAST) node.getNextSibling()) {
+                GroovySourceAST prev = null;
+                for (GroovySourceAST child = (GroovySourceAST) node.getFirstChild(); child != null;
+                        prev = child, child = (GroovySourceAST) child.getNextSibling()) {
+                    if (node.getType() == GroovyTokenTypes.METHOD_DEF && child.getType() == GroovyTokenTypes.SLIST) {
+                        int start = toOffset(previous.lineSeparators, child.getLine(), child.getColumn());
+                        if (start < prefix && start > bodyStart) {
+                            int end = closingBrace(oldContents, previous.lineSeparators, child);
+                            if (end >= oldEnd) {
+                                methodDef = node; body = child; beforeBody = prev;
+                                bodyStart = start; bodyEnd = end;
+                            }
+                        }
+                    }
+                }
+                if (node.getFirstChild() != null) {
+                    stack.add((GroovySourceAST) node.getFirstChild());
+                }
+            }
+        }
+        if (body == null || oldContents[bodyStart] != '{') {
+            return null;
+        }
+
+        int[] newSeparators = source.getLineSeparators();
+        ParsedBody newBody = parseBody(newContents, bodyStart, bodyEnd + (newLength - oldLength));
+        if (newBody == null) {
+            return null;
+        }
+        List<Comment> bodyComments = newBody.comments;
+
+        int[] oldEndPosition = toLineColumn(previous.lineSeparators, oldEnd);
+        int[] newEndPosition = toLineColumn(newSeparators, newEnd);
+        Shift shift = new Shift(oldEndPosition[0], oldEndPosition[1], newEndPosition[0], newEndPosition[1]);
+
+        // like the old body, the new one ends where the token after it starts
+        GroovySourceAST slist = newBody.cst;
+        slist.setNextSibling(body.getNextSibling());
+        slist.setLineLast(shift.line(body.getLineLast(), body.getColumnLast()));
+        slist.setColumnLast(shift.column(body.getLineLast(), body.getColumnLast()));
+        if (beforeBody == null) {
+            methodDef.setFirstChild(slist);
+        } else {
+            beforeBody.setNextSibling(slist);
+        }
+        shiftNodes(previous.cst, slist, shift);
+
+        // comments before the body, in the body and after the body
+        List<Comment> comments = new ArrayList<Comment>(previous.comments.size() + bodyComments.size());
+        int[] bodyStartPosition = toLineColumn(previous.lineSeparators, bodyStart);
+        int[] bodyEndPosition = toLineColumn(previous.lineSeparators, bodyEnd);
+        for (Comment comment : previous.comments) {
+            if (isBefore(comment.eline, comment.ecol, bodyStartPosition)) {
+                comments.add(copyComment(comment, null));
+            }
+        }
+        comments.addAll(bodyComments);
+        for (Comment comment : previous.comments) {
+            if (!isBefore(comment.sline, comment.scol, bodyEndPosition)) {
+                comments.add(copyComment(comment, shift));
+            }
+        }
+
+        return new ParsedSource(newContents, newSeparators, previous.cst, comments);
+    }
+
+    /**
+     * Parses the body of a method on its own, at its own lines and columns,
+     * by blanking out the rest of the source and putting a method header in
+     * front of the body.
+     *
+     * @return the body's SLIST node and comments, or <code>null</code> if the
+     *         body does not parse (or does not end where it did before)
+     */
+    private static ParsedBody parseBody(char[] contents, int bodyStart, int bodyEnd) {
+        if (bodyStart < METHOD_HEADER.length || bodyEnd >= contents.length || contents[bodyEnd] != '}') {
+            return null;
+        }
+        char[] blanked = new char[contents.length];
+        for (int i = 0, n = contents.length; i < n; i += 1) {
+            char c = contents[i];
+            blanked[i] = (c == '\n' || c == '\r' || (i >= bodyStart && i <= bodyEnd) ? c : ' ');
+        }
+        for (int i = 0, j = bodyStart - METHOD_HEADER.length; i < METHOD_HEADER.length; i += 1, j += 1) {
+            if (blanked[j] != ' ') {
+                return null; // the header would change the lines
+            }
+            blanked[j] = METHOD_HEADER[i];
+        }
+
+        SourceBuffer sourceBuffer = new SourceBuffer();
+        UnicodeEscapingReader unicodeReader = new UnicodeEscapingReader(new CharArrayReader(blanked), sourceBuffer);
+        GroovyLexer lexer = new GroovyLexer(new UnicodeLexerSharedInputState(unicodeReader));
+        unicodeReader.setLexer(lexer);
+        GroovyRecognizer parser = GroovyRecognizer.make(lexer);
+        parser.setSourceBuffer(sourceBuffer);
+        try {
+            parser.compilationUnit();
+        } catch (Exception e) {
+            return null;
+        }
+        GroovySourceAST method = (GroovySourceAST) parser.getAST();
+        if (!parser.getErrorList().isEmpty() || method == null || method.getType() != GroovyTokenTypes.METHOD_DEF ||
+                method.getNextSibling() != null) {
+            return null;
+        }
+        GroovySourceAST slist = null;
+        for (GroovySourceAST child = (GroovySourceAST) method.getFirstChild(); child != null;
+                child = (GroovySourceAST) child.getNextSibling()) {
+            slist = child;
+        }
+        if (slist == null || slist.getType() != GroovyTokenTypes.SLIST ||
+                toOffset(CharArrayReaderSource.getLineSeparators(blanked), slist.getLine(), slist.getColumn()) != bodyStart) {
+            return null;
+        }
+        return new ParsedBody(slist, parser.getComments());
+    }
+
+    private static final class ParsedBody {
+        final GroovySourceAST cst;
+        final List<Comment> comments;
+
+        ParsedBody(GroovySourceAST cst, List<Comment> comments) {
+            this.cst = cst;
+            this.comments = comments;
+        }
+    }
+
+    /**
+     * Moves the lines and columns at or after the end of an edit.
+     */
+    private static final class Shift {
+        private final int oldLine, oldColumn, newLine, newColumn;
+
+        Shift(int oldLine, int oldColumn, int newLine, int newColumn) {
+            this.oldLine = oldLine;
+            this.oldColumn = oldColumn;
+            this.newLine = newLine;
+            this.newColumn = newColumn;
+        }
+
+        int line(int line, int column) {
+            if (line > oldLine) {
+                return line + (newLine - oldLine);
+            }
+            if (line == oldLine && column >= oldColumn) {
+                return newLine;
+            }
+            return line;
+        }
+
+        int column(int line, int column) {
+            if (line == oldLine && column >= oldColumn) {
+                return column + (newColumn - oldColumn);
+            }
+            return column;
+        }
+    }
+
+    private static void shiftNodes(GroovySourceAST root, GroovySourceAST skip, Shift shift) {
+        List<GroovySourceAST> stack = new ArrayList<GroovySourceAST>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            for (GroovySourceAST node = stack.remove(stack.size() - 1); node != null; node = (GroovySourceAST) node.getNextSibling()) {
+                if (node == skip) {
+                    continue; // the new body is at its new lines and columns already
+                }
+                int line = node.getLine(), column = node.getColumn();
+                node.setLine(shift.line(line, column));
+                node.setColumn(shift.column(line, column));
+                line = node.getLineLast();
+                column = node.getColumnLast();
+                node.setLineLast(shift.line(line, column));
+                node.setColumnLast(shift.column(line, column));
+                if (node.getFirstChild() != null) {
+                    stack.add((GroovySourceAST) node.getFirstChild());
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies comments so that those of the previous parse are not shared
+     * (their {@link Comment#usedUp} flags are set as they are used).
+     */
+    private static List<Comment> copyComments(List<Comment> comments, Shift shift) {
+        List<Comment> copies = new ArrayList<Comment>(comments.size());
+        for (Comment comment : comments) {
+            copies.add(copyComment(comment, shift));
+        }
+        return copies;
+    }
+
+    private static Comment copyComment(Comment comment, Shift shift) {
+        int sline = comment.sline, scol = comment.scol, eline = comment.eline, ecol = comment.ecol;
+        if (shift != null) {
+            sline = shift.line(comment.sline, comment.scol);
+            scol = shift.column(comment.sline, comment.scol);
+            eline = shift.line(comment.eline, comment.ecol);
+            ecol = shift.column(comment.eline, comment.ecol);
+        }
+        String text = comment.toString();
+        return text.startsWith("//") ? Comment.makeSingleLineComment(sline, scol, eline, ecol, text)
+                                     : Comment.makeMultiLineComment(sline, scol, eline, ecol, text);
+    }
+
+    /**
+     * @return the offset of the '}' that ends the given block, or -1
+     */
+    private static int closingBrace(char[] contents, int[] lineSeparators, GroovySourceAST block) {
+        // the block ends at the start of the token after it
+        int offset = toOffset(lineSeparators, block.getLineLast(), block.getColumnLast()) - 1;
+        while (offset >= 0 && offset < contents.length && Character.isWhitespace(contents[offset])) {
+            offset -= 1;
+        }
+        return offset >= 0 && offset < contents.length && contents[offset] == '}' ? offset : -1;
+    }
+
+    private static boolean isBefore(int line, int column, int[] position) {
+        return line < position[0] || (line == position[0] && column <= position[1]);
+    }
+
+    private static int toOffset(int[] lineSeparators, int line, int column) {
+        if (line < 1 || line > lineSeparators.length + 1) {
+            return -1;
+        }
+        return (line == 1 ? 0 : lineSeparators[line - 2] + 1) + column - 1;
+    }
+
+    private static int[] toLineColumn(int[] lineSeparators, int offset) {
+        int line = 0;
+        while (line < lineSeparators.length && lineSeparators[line] < offset) {
+            line += 1;
+        }
+        int lineStart = (line == 0 ? 0 : lineSeparators[line - 1] + 1);
+        return new int[] {line + 1, offset - lineStart + 1};
+    }
+}
@@ -27,8 +27,11 @@ import java.util.Map;
 
 import org.codehaus.groovy.antlr.parser.GroovyLexer;
 import org.codehaus.groovy.antlr.parser.GroovyRecognizer;
+import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.syntax.ParserException;
+import org.codehaus.groovy.syntax.Reduction;
 import org.codehaus.groovy.syntax.SyntaxException;
 
 /**
@@ -39,6 +42,9 @@ import org.codehaus.groovy.syntax.SyntaxException;
  */
 public class ErrorRecoveredCSTParserPlugin extends AntlrParserPlugin {
     private final ICSTReporter reporter;
+    // the CST of a reconcile, to be kept for the next reconcile once the module is built
+    private String reconcileKey;
+    private IncrementalCSTParser.ParsedSource reconcileSource;
 
     ErrorRecoveredCSTParserPlugin(ICSTReporter reporter) {
         this.reporter = reporter;
@@ -50,6 +56,26 @@ public class ErrorRecoveredCSTParserPlugin extends AntlrParserPlugin {
 
         setController(sourceUnit);
 
+        reconcileKey = null;
+        reconcileSource = null;
+        if (sourceUnit.isReconcile && sourceUnit.reconcileKey != null && sourceUnit.getSource() instanceof CharArrayReaderSource &&
+                !((CharArrayReaderSource) sourceUnit.getSource()).hasUnicodeEscapes()) {
+            reconcileKey = sourceUnit.reconcileKey;
+            IncrementalCSTParser.ParsedSource parsed =
+                IncrementalCSTParser.reparse(reconcileKey, (CharArrayReaderSource) sourceUnit.getSource());
+            if (parsed != null) {
+                configureLocationSupport(sourceBuffer);
+                super.tokenNames = GroovyRecognizer._tokenNames;
+                super.ast = parsed.cst;
+                sourceUnit.setComments(parsed.comments);
+                if (reporter != null) {
+                    reporter.generatedCST(sourceUnit.getName(), parsed.cst);
+                }
+                reconcileSource = parsed;
+                return;
+            }
+        }
+
         // GRECLIPSE-805 Support for unicode escape sequences
         UnicodeEscapingReader unicodeReader = new UnicodeEscapingReader(reader, sourceBuffer);
         GroovyLexer lexer = new GroovyLexer(new UnicodeLexerSharedInputState(unicodeReader));
@@ -112,6 +138,23 @@ public class ErrorRecoveredCSTParserPlugin extends AntlrParserPlugin {
 
         sourceUnit.setComments(parser.getComments());
         reportCST(sourceUnit, parser);
+
+        if (reconcileKey != null && super.ast != null && !sourceUnit.getErrorCollector().hasErrors()) {
+            CharArrayReaderSource source = (CharArrayReaderSource) sourceUnit.getSource();
+            reconcileSource = new IncrementalCSTParser.ParsedSource(source.getChars(), source.getLineSeparators(),
+                (GroovySourceAST) super.ast, parser.getComments());
+        }
+    }
+
+    @Override
+    public ModuleNode buildAST(SourceUnit sourceUnit, ClassLoader classLoader, Reduction cst) throws ParserException {
+        ModuleNode module = super.buildAST(sourceUnit, classLoader, cst);
+        if (reconcileSource != null) {
+            // building the module does not change the CST, so the next reconcile can start from it
+            IncrementalCSTParser.keep(reconcileKey, reconcileSource);
+            reconcileSource = null;
+        }
+        return module;
     }
 
     private void reportCST(final SourceUnit sourceUnit, final GroovyRecognizer parser) {
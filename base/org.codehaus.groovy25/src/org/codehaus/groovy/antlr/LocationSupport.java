@@ -41,6 +41,9 @@ public class LocationSupport {
 
     private final int[] lineEndings;
 
+    private int[] lineSeparators;
+    private int length;
+
     public LocationSupport() {
         lineEndings = NO_LINE_ENDINGS;
     }
@@ -49,6 +52,20 @@ public class LocationSupport {
         this.lineEndings = lineEndings;
     }
 
+    /**
+     * Shares the line separator positions of a {@link CharArrayReaderSource}
+     * (also used for JDT's <code>CompilationResult.lineSeparatorPositions</code>)
+     * rather than building a separate table.
+     *
+     * @param lineSeparators offset of each '\n' or lone '\r'
+     * @param length length of the document
+     */
+    public LocationSupport(int[] lineSeparators, int length) {
+        this.lineEndings = null;
+        this.lineSeparators = lineSeparators;
+        this.length = length;
+    }
+
     public LocationSupport(List<StringBuffer> lines) {
         if (lines != null) {
             lineEndings = processLineEndings(lines);
@@ -69,38 +86,67 @@ public class LocationSupport {
 
     // TODO: Maybe should throw exception if out of bounds?
     public int findOffset(int row, int col) {
-        return row <= lineEndings.length && row > 0 ? lineEndings[row - 1] + col - 1 : 0;
+        return row <= size() && row > 0 ? lineEnding(row - 1) + col - 1 : 0;
     }
 
     public int getEnd() {
-        return lineEndings.length > 0 ? lineEndings[lineEndings.length - 1] : 0;
+        int n = size();
+        return n > 0 ? lineEnding(n - 1) : 0;
     }
 
     public int getEndColumn() {
-        if (lineEndings.length > 1) {
-            return lineEndings[lineEndings.length - 1] - lineEndings[lineEndings.length - 2];
-        } else if (lineEndings.length > 0) {
-            return lineEndings[0];
+        int n = size();
+        if (n > 1) {
+            return lineEnding(n - 1) - lineEnding(n - 2);
+        } else if (n > 0) {
+            return lineEnding(0);
         } else {
             return 0;
         }
     }
 
     public int getEndLine() {
-        return lineEndings.length > 0 ? lineEndings.length - 1 : 0;  // last index contains length of document
+        int n = size();
+        return n > 0 ? n - 1 : 0;  // last index contains length of document
     }
 
     public int[] getRowCol(int offset) {
-        for (int i = 1, n = lineEndings.length; i < n; i += 1) {
-            if (lineEndings[i] > offset) {
-                return new int[] {i, offset - lineEndings[i - 1] + 1};
+        // binary search for the first line that ends after offset
+        int lo = 1, hi = size() - 1;
+        if (hi < lo || lineEnding(hi) <= offset) {
+            // after end of document
+            throw new RuntimeException("Location is after end of document.  Offset : " + offset);
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (lineEnding(mid) > offset) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
             }
         }
-        // after end of document
-        throw new RuntimeException("Location is after end of document.  Offset : " + offset);
+        return new int[] {lo, offset - lineEnding(lo - 1) + 1};
     }
 
     public boolean isPopulated() {
-        return lineEndings.length > 0;
+        return size() > 0;
+    }
+
+    private int size() {
+        return lineSeparators != null ? lineSeparators.length + 2 : lineEndings.length;
+    }
+
+    /**
+     * @return offset of the start of the given (0 based) line, or of the end of
+     *         the document for the last index
+     */
+    private int lineEnding(int index) {
+        if (lineSeparators == null) {
+            return lineEndings[index];
+        }
+        if (index == 0) {
+            return 0;
+        }
+        return index <= lineSeparators.length ? lineSeparators[index - 1] + 1 : length;
     }
 }
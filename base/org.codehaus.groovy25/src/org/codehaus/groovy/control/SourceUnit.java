@@ -87,6 +87,8 @@ public class SourceUnit extends ProcessingUnit {
 
     // GRECLIPSE add
     public boolean isReconcile;
+    /** Identifies a reconciled source among those of all projects: the project and the path of the source. */
+    public String reconcileKey;
 
     private List<Comment> comments;
     public List<Comment> getComments() {
@@ -17,6 +17,7 @@ package org.codehaus.jdt.groovy.control;
 
 import groovy.lang.GroovyClassLoader;
 
+import org.codehaus.groovy.antlr.CharArrayReaderSource;
 import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.ErrorCollector;
@@ -43,6 +44,17 @@ public class EclipseSourceUnit extends SourceUnit {
         this.resolver = resolver;
     }
 
+    /**
+     * Reads the source from the given JDT contents in place; the parser shares
+     * the source's line separators rather than computing its own.
+     */
+    public EclipseSourceUnit(IFile resource, String filepath, CharArrayReaderSource source, CompilerConfiguration groovyCompilerConfig,
+            GroovyClassLoader classLoader, ErrorCollector errorCollector, JDTResolver resolver) {
+        super(filepath, source, groovyCompilerConfig, classLoader, errorCollector);
+        this.file = resource;
+        this.resolver = resolver;
+    }
+
     /**
      * Will be null if workspace is closed (ie- batch compilation mode)
      */
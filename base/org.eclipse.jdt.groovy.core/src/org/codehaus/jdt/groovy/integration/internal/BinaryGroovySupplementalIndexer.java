@@ -22,6 +22,7 @@ import org.codehaus.jdt.groovy.integration.ISupplementalIndexer;
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.util.HashtableOfObject;
 
 /**
  * @author Andrew Eisenberg
@@ -33,6 +34,8 @@ public class BinaryGroovySupplementalIndexer implements ISupplementalIndexer {
         int[] constantPoolOffsets = reader.getConstantPoolOffsets();
         int constantPoolCount = constantPoolOffsets.length;
         List<char[]> refs = new ArrayList<char[]>();
+        // the same names show up in many constants (descriptors, call site names, qualified names)
+        HashtableOfObject seen = new HashtableOfObject();
         for (int i = 1; i < constantPoolCount; i++) {
             int tag = reader.u1At(constantPoolOffsets[i]);
             switch (tag) {
@@ -41,7 +44,10 @@ public class BinaryGroovySupplementalIndexer implements ISupplementalIndexer {
                     if (isValidId(strConst)) {
                         char[][] splits = CharOperation.splitOn('.', strConst);
                         for (char[] split : splits) {
-                            refs.add(split);
+                            if (split.length > 0 && !seen.containsKey(split)) {
+                                seen.put(split, split);
+                                refs.add(split);
+                            }
                         }
                     }
             }
@@ -21,6 +21,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.codehaus.groovy.antlr.CharArrayReaderSource;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.ErrorCollector;
 import org.codehaus.groovy.control.Phases;
@@ -45,7 +46,6 @@ import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.groovy.core.util.ContentTypeUtils;
-import org.eclipse.jdt.groovy.core.util.GroovyUtils;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
 import org.eclipse.jdt.groovy.search.ITypeRequestor;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
@@ -142,16 +142,16 @@ public class GroovyLanguageSupport implements LanguageSupport {
         if (ContentTypeUtils.isGroovyLikeFileName(compilationResult.getFileName())) {
             CompilerConfiguration groovyCompilerConfig = new CompilerConfiguration();
             ErrorCollector errorCollector = new GroovyErrorCollectorForJDT(groovyCompilerConfig);
+            CharArrayReaderSource source = new CharArrayReaderSource(unit.getContents(), groovyCompilerConfig);
             SourceUnit groovySourceUnit = new SourceUnit(
-                    new String(compilationResult.getFileName()), new String(unit.getContents()), groovyCompilerConfig, null, errorCollector);
+                    new String(compilationResult.getFileName()), source, groovyCompilerConfig, null, errorCollector);
 
             // FIXASC missing the classloader configuration (eg. to include transformers)
             org.codehaus.groovy.control.CompilationUnit groovyCU = new org.codehaus.groovy.control.CompilationUnit(groovyCompilerConfig);
             JDTResolver resolver = new JDTResolver(groovyCU);
             groovyCU.setResolveVisitor(resolver);
 
-            // TODO groovy get this from the Antlr parser
-            compilationResult.lineSeparatorPositions = GroovyUtils.getSourceLineSeparatorsIn(unit.getContents());
+            compilationResult.lineSeparatorPositions = source.getLineSeparators();
 
             groovyCU.addSource(groovySourceUnit);
             GroovyCompilationUnitDeclaration gcuDeclaration = new GroovyCompilationUnitDeclaration(
@@ -196,6 +196,12 @@ public class GroovyLanguageSupport implements LanguageSupport {
             if (typeRequestor != null) {
                 TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(possibleMatch);
                 visitor.visitCompilationUnit(typeRequestor);
+                // MatchLocator may need the unit's bindings; see MultiplexingMatchLocatorParser.  Only a module
+                // that was parsed for this search is handed over: one that is still cached for a working copy
+                // must not become part of the search's lookup environment and have its bindings built from it
+                if (possibleMatch.openable instanceof GroovyCompilationUnit && !((GroovyCompilationUnit) possibleMatch.openable).isWorkingCopy()) {
+                    possibleMatch.groovyModuleNode = visitor.getModuleNode();
+                }
                 return true;
             }
         }
@@ -16,13 +16,39 @@
 package org.codehaus.jdt.groovy.integration.internal;
 
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import groovy.lang.GroovyClassLoader;
+
+import org.codehaus.groovy.antlr.CharArrayReaderSource;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyErrorCollectorForJDT;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.groovy.core.util.ContentTypeUtils;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
+import org.eclipse.jdt.internal.compiler.DefaultErrorHandlingPolicies;
 import org.eclipse.jdt.internal.compiler.IProblemFactory;
 import org.eclipse.jdt.internal.compiler.ISourceElementRequestor;
 import org.eclipse.jdt.internal.compiler.SourceElementNotifier;
@@ -33,8 +59,10 @@ import org.eclipse.jdt.internal.compiler.ast.FieldDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.env.ICompilationUnit;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
 import org.eclipse.jdt.internal.compiler.util.HashtableOfObjectToInt;
 import org.eclipse.jdt.internal.core.search.indexing.IndexingParser;
+import org.eclipse.jdt.internal.core.util.Util;
 
 /**
  * @author Andrew Eisenberg
@@ -45,6 +73,27 @@ public class MultiplexingIndexingParser extends IndexingParser {
     boolean groovyReportReferenceInfo;
     ISourceElementRequestor requestor;
 
+    // indexing parsers are created per project, so these are shared by all files of a project
+    private CompilerConfiguration groovyConfig;
+    private GroovyClassLoader groovyLoader;
+
+    /** Number of threads that parse Groovy files ahead of the indexer. */
+    private static final int PARSE_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    /** Maximum number of files parsed ahead of the indexer, which bounds the memory held by parsed units. */
+    private static final int PARSE_AHEAD = PARSE_THREADS * 4;
+
+    private static ExecutorService parseExecutor;
+
+    // files queued by aboutToIndex that have not been submitted yet and those that have, in indexing order;
+    // both are only accessed from the indexing thread
+    private final LinkedList<IFile> queuedFiles = new LinkedList<IFile>();
+    private final LinkedHashMap<String, Future<ParsedUnit>> parsedFiles = new LinkedHashMap<String, Future<ParsedUnit>>();
+
+    private String batchProject;
+    private int batchCount;
+    private long batchStart;
+
     public MultiplexingIndexingParser(ISourceElementRequestor requestor, IProblemFactory problemFactory, CompilerOptions options,
             boolean reportLocalDeclarations, boolean optimizeStringLiterals, boolean useSourceJavadocParser) {
         super(requestor, problemFactory, options, reportLocalDeclarations, optimizeStringLiterals, useSourceJavadocParser);
@@ -59,6 +108,29 @@ public class MultiplexingIndexingParser extends IndexingParser {
         this.requestor = requestor;
     }
 
+    /**
+     * Starts parsing the Groovy files among those queued for indexing on a small thread pool.  Parsing
+     * is independent per file; {@link #parseCompilationUnit} picks up the results on the indexing thread,
+     * so everything that writes to the index stays serialized.
+     */
+    @Override
+    public void aboutToIndex(IFile[] files) {
+        for (IFile file : files) {
+            if (ContentTypeUtils.isGroovyLikeFileName(file.getName())) {
+                queuedFiles.add(file);
+            }
+        }
+        if (!queuedFiles.isEmpty()) {
+            if (batchProject == null) {
+                batchProject = files[0].getProject().getName();
+                batchCount = 0;
+                batchStart = System.currentTimeMillis();
+            }
+            initGroovy(batchProject);
+            parseAhead();
+        }
+    }
+
     @Override
     public CompilationUnitDeclaration parseCompilationUnit(ICompilationUnit unit, boolean fullParse, IProgressMonitor pm) {
         if (ContentTypeUtils.isGroovyLikeFileName(unit.getFileName())) {
@@ -68,25 +140,197 @@ public class MultiplexingIndexingParser extends IndexingParser {
             // 2) parsing is for the entire CU (ie- from character 0, to unit.getContents().length)
             // 3) nodesToCategories map is not necessary. I think it has something to do with JavaDoc, but not sure
 
-            CompilationResult compilationResult = new CompilationResult(unit, 0, 0, this.options.maxProblemsPerUnit);
-
-            // FIXASC Is it ok to use a new parser here everytime? If we don't we sometimes recurse back into the first one
-            GroovyCompilationUnitDeclaration cud = (GroovyCompilationUnitDeclaration) new GroovyParser(this.options,
-                    problemReporter, false, true).dietParse(unit, compilationResult);
+            char[] contents = unit.getContents();
+            if (contents == null) {
+                contents = CharOperation.NO_CHAR;
+            }
+            GroovyCompilationUnitDeclaration cud = takeParsedUnit(unit, contents);
+            if (cud == null) {
+                CompilationResult compilationResult = new CompilationResult(unit, 0, 0, this.options.maxProblemsPerUnit);
+                initGroovy(new Path(String.valueOf(unit.getFileName())).segment(0));
+                cud = parseStructure(unit.getFileName(), contents, compilationResult, problemReporter);
+            }
 
-            // CompilationUnitDeclaration cud groovyParser.dietParse(sourceUnit, compilationResult);
             HashtableOfObjectToInt sourceEnds = createSourceEnds(cud);
             GroovyIndexingVisitor visitor = new GroovyIndexingVisitor(requestor);
             visitor.doVisit(cud.getModuleNode(), cud.currentPackage);
 
-            notifier.notifySourceElementRequestor(cud, 0, unit.getContents().length, groovyReportReferenceInfo, sourceEnds,
+            notifier.notifySourceElementRequestor(cud, 0, contents.length, groovyReportReferenceInfo, sourceEnds,
             /* We don't care about the @category tag, so pass empty map */Collections.EMPTY_MAP);
+
+            if (batchProject != null) {
+                batchCount += 1;
+                if (queuedFiles.isEmpty() && parsedFiles.isEmpty()) {
+                    logThroughput();
+                }
+            }
             return cud;
         } else {
             return super.parseCompilationUnit(unit, fullParse, pm);
         }
     }
 
+    /**
+     * @param projectName the project of the files being indexed, which selects the parser plugin factory if the options do not
+     */
+    private void initGroovy(String projectName) {
+        if (groovyConfig == null) {
+            groovyConfig = new CompilerConfiguration();
+            if (this.options.groovyProjectName == null) {
+                this.options.groovyProjectName = projectName;
+            }
+            GroovyParser.setParserPluginFactory(groovyConfig, this.options);
+            // the default factory is otherwise created lazily by whichever parsing thread asks for it first; from here on the
+            // configuration is only read
+            groovyConfig.getPluginFactory();
+            groovyLoader = new GroovyClassLoader(getClass().getClassLoader(), groovyConfig);
+        }
+    }
+
+    /**
+     * Parses and converts the given unit, which is all that {@link GroovyIndexingVisitor} and the
+     * notifier need.  Unlike {@link org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser#dietParse
+     * GroovyParser.dietParse} there is no Groovy compilation unit, so no class loaders, customizers or
+     * transforms are set up, and the configuration (with the project's parser plugin factory) and loader
+     * are shared by all files of the project.  Apart from those, nothing is shared, so this may be called
+     * from any thread.  As with {@link GroovyParser}, a file in one of the project's script folders is
+     * tagged as a script.
+     */
+    private GroovyCompilationUnitDeclaration parseStructure(char[] fileName, char[] contents, CompilationResult compilationResult,
+            ProblemReporter problemReporter) {
+        CharArrayReaderSource source = new CharArrayReaderSource(contents, groovyConfig);
+        SourceUnit groovySourceUnit = new SourceUnit(new String(fileName), source, groovyConfig, groovyLoader,
+                new GroovyErrorCollectorForJDT(groovyConfig));
+        compilationResult.lineSeparatorPositions = source.getLineSeparators();
+
+        GroovyCompilationUnitDeclaration cud = new GroovyCompilationUnitDeclaration(problemReporter, compilationResult,
+                contents.length, null, groovySourceUnit, this.options);
+        try {
+            groovySourceUnit.parse();
+            groovySourceUnit.completePhase();
+            groovySourceUnit.convert();
+        } catch (CompilationFailedException e) {
+            // index whatever was recovered
+        }
+        if (cud.getModuleNode() != null) {
+            cud.populateCompilationUnitDeclaration();
+        }
+        Path path = new Path(String.valueOf(fileName));
+        if (this.options.groovyProjectName != null && path.segmentCount() >= 2 && ResourcesPlugin.getPlugin() != null) {
+            IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile(path);
+            if (GroovyParser.isScript(this.options.groovyProjectName, file)) {
+                cud.tagAsScript();
+            }
+        }
+        return cud;
+    }
+
+    private static class ParsedUnit {
+        final char[] contents;
+        final GroovyCompilationUnitDeclaration cud;
+
+        ParsedUnit(char[] contents, GroovyCompilationUnitDeclaration cud) {
+            this.contents = contents;
+            this.cud = cud;
+        }
+    }
+
+    private void parseAhead() {
+        final IProblemFactory problemFactory = problemReporter.problemFactory;
+        while (parsedFiles.size() < PARSE_AHEAD && !queuedFiles.isEmpty()) {
+            final IFile file = queuedFiles.removeFirst();
+            final String path = file.getFullPath().toString();
+            parsedFiles.put(path, getParseExecutor().submit(new Callable<ParsedUnit>() {
+                public ParsedUnit call() throws JavaModelException {
+                    char[] contents = Util.getResourceContentsAsCharArray(file);
+                    CompilationResult compilationResult = new CompilationResult(path.toCharArray(), 0, 0, options.maxProblemsPerUnit);
+                    // the parser's problem reporter is not thread-safe
+                    ProblemReporter reporter = new ProblemReporter(DefaultErrorHandlingPolicies.proceedWithAllProblems(), options,
+                            problemFactory);
+                    return new ParsedUnit(contents, parseStructure(path.toCharArray(), contents, compilationResult, reporter));
+                }
+            }));
+        }
+    }
+
+    /**
+     * @return the unit parsed ahead of time, or <code>null</code> if it was not, failed or has changed since
+     */
+    private GroovyCompilationUnitDeclaration takeParsedUnit(ICompilationUnit unit, char[] contents) {
+        String path = String.valueOf(unit.getFileName());
+        if (!parsedFiles.containsKey(path)) {
+            // not parsed ahead yet (or not queued at all); make sure it will not be parsed again later
+            for (Iterator<IFile> it = queuedFiles.iterator(); it.hasNext();) {
+                if (it.next().getFullPath().toString().equals(path)) {
+                    it.remove();
+                    trace("Indexing parser: " + path + " was indexed before it was parsed ahead, parsing it now");
+                    break;
+                }
+            }
+            return null;
+        }
+        // files are indexed in the order they were queued, so any ahead of this one were not indexed
+        Future<ParsedUnit> future = null;
+        for (Iterator<Map.Entry<String, Future<ParsedUnit>>> it = parsedFiles.entrySet().iterator(); future == null;) {
+            Map.Entry<String, Future<ParsedUnit>> entry = it.next();
+            it.remove();
+            if (entry.getKey().equals(path)) {
+                future = entry.getValue();
+            } else {
+                entry.getValue().cancel(false);
+                trace("Indexing parser: " + entry.getKey() + " was parsed ahead but not indexed before " + path + ", discarding it");
+            }
+        }
+        parseAhead();
+
+        ParsedUnit parsed;
+        try {
+            parsed = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            // parse again on this thread, so that failures are reported as before
+            trace("Indexing parser: parsing " + path + " ahead failed with " + e.getCause() + ", parsing it again");
+            return null;
+        }
+        if (!CharOperation.equals(parsed.contents, contents)) {
+            trace("Indexing parser: " + path + " has changed since it was parsed ahead, parsing it again");
+            return null;
+        }
+        parsed.cud.compilationResult.compilationUnit = unit;
+        return parsed.cud;
+    }
+
+    private void logThroughput() {
+        if (GroovyLogManager.manager.hasLoggers()) {
+            long millis = Math.max(1, System.currentTimeMillis() - batchStart);
+            GroovyLogManager.manager.log(TraceCategory.COMPILER, String.format("Indexed %d Groovy files of %s in %dms (%.1f files/sec, %d parse threads)",
+                    batchCount, batchProject, millis, batchCount * 1000.0 / millis, PARSE_THREADS));
+        }
+        batchProject = null;
+    }
+
+    private static void trace(String message) {
+        if (GroovyLogManager.manager.hasLoggers()) {
+            GroovyLogManager.manager.log(TraceCategory.COMPILER, message);
+        }
+    }
+
+    private static synchronized ExecutorService getParseExecutor() {
+        if (parseExecutor == null) {
+            parseExecutor = Executors.newFixedThreadPool(PARSE_THREADS, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Groovy indexing parser " + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return parseExecutor;
+    }
+
     // FIXASC this code is copied from MultiplexingSourceElementParser. Should combine
     // FIXASC This should be calculated in GroovyCompilationUnitDeclaration
     private HashtableOfObjectToInt createSourceEnds(CompilationUnitDeclaration cDecl) {
@@ -15,7 +15,10 @@
  */
 package org.codehaus.jdt.groovy.integration.internal;
 
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
+import org.eclipse.jdt.groovy.core.util.GroovyUtils;
 import org.eclipse.jdt.groovy.core.util.ContentTypeUtils;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
@@ -40,6 +43,9 @@ public class MultiplexingMatchLocatorParser extends MatchLocatorParser {
 
     @Override
     public CompilationUnitDeclaration dietParse(ICompilationUnit sourceUnit, CompilationResult compilationResult) {
+        if (sourceUnit instanceof PossibleMatch && ((PossibleMatch) sourceUnit).groovyModuleNode != null) {
+            return declarationFor((ModuleNode) ((PossibleMatch) sourceUnit).groovyModuleNode, sourceUnit, compilationResult);
+        }
         if (sourceUnit instanceof PossibleMatch ? ((PossibleMatch) sourceUnit).isInterestingSourceFile() : ContentTypeUtils
                 .isGroovyLikeFileName(sourceUnit.getFileName())) {
             // FIXASC Is it ok to use a new parser here everytime? If we don't we sometimes recurse back into the first one
@@ -51,4 +57,17 @@ public class MultiplexingMatchLocatorParser extends MatchLocatorParser {
             return super.dietParse(sourceUnit, compilationResult);
         }
     }
+
+    /**
+     * Builds the declaration of a unit from the module node that its delegated search has parsed (and
+     * resolved) already; the bindings built from it are all that {@link MatchLocator} needs of a Groovy unit.
+     */
+    private CompilationUnitDeclaration declarationFor(ModuleNode module, ICompilationUnit sourceUnit, CompilationResult compilationResult) {
+        char[] contents = sourceUnit.getContents();
+        compilationResult.lineSeparatorPositions = GroovyUtils.getSourceLineSeparatorsIn(contents);
+        GroovyCompilationUnitDeclaration cud = new GroovyCompilationUnitDeclaration(this.groovyParser.problemReporter,
+                compilationResult, contents.length, null, module.getContext(), this.groovyParser.getCompilerOptions());
+        cud.populateCompilationUnitDeclaration();
+        return cud;
+    }
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+
+/**
+ * Where the time of the Groovy compiles of a build goes: per phase, per source unit, per phase operation that the project
+ * adds (like compilation customizers and Grails injectors) and per AST transform, local or global, along with the number of
+ * classes generated and how often the resolver found the class node of a type already built. For transforms the report also
+ * has the bytes they allocated, where the VM counts the allocations of each thread. A report covers all the compiles of a
+ * build, so the later rounds of an incremental build add to it.
+ * <p>
+ * The report of a workspace build is written to <code>build-report.txt</code> in the project's working location after each
+ * compile. The batch compiler prints the report of each compile to its output writer, along with its other messages, if the
+ * system property <code>greclipse.buildReport</code> is <code>true</code>.
+ *
+ * @see CompilationUnit#setOperationTimer
+ */
+public class BuildReport implements CompilationUnit.OperationTimer {
+
+    public static final String FILE_NAME = "build-report.txt";
+
+    private static final int MAX_SOURCES = 50;
+
+    private static final Map<Object, BuildReport> reports = new WeakHashMap<Object, BuildReport>();
+
+    /**
+     * @param build an object that lives as long as the build and no longer, like the image builder of a workspace build
+     * @return the report of the build, created on first request
+     */
+    static synchronized BuildReport forBuild(Object build, String projectName) {
+        BuildReport report = reports.get(build);
+        if (report == null) {
+            report = new BuildReport(projectName);
+            reports.put(build, report);
+        }
+        return report;
+    }
+
+    static boolean isBatchReportEnabled() {
+        return Boolean.getBoolean("greclipse.buildReport");
+    }
+
+    private static class Timing {
+        long nanos;
+        int count;
+        long[] phaseNanos;
+        long allocatedBytes; // -1 once any run was not counted
+    }
+
+    private final String projectName;
+    private final long startTime = System.currentTimeMillis();
+    private int compiles;
+    private final long[] phaseNanos = new long[Phases.ALL + 1];
+    private final Map<String, Timing> sources = new HashMap<String, Timing>();
+    private final Map<String, Timing> operations = new HashMap<String, Timing>();
+    private final Map<String, Timing> transforms = new HashMap<String, Timing>();
+    private int classesGenerated;
+    private int cacheHits, cacheMisses;
+
+    BuildReport(String projectName) {
+        this.projectName = projectName;
+    }
+
+    public synchronized void operationComplete(int phase, Object operation, SourceUnit source, long nanos) {
+        if (phase >= 0 && phase < phaseNanos.length) {
+            phaseNanos[phase] += nanos;
+        }
+
+        String sourceName = (source != null ? source.getName() : "(no source unit)");
+        Timing timing = getTiming(sources, sourceName);
+        timing.nanos += nanos;
+        if (timing.phaseNanos == null) {
+            timing.phaseNanos = new long[Phases.ALL + 1];
+        }
+        if (phase >= 0 && phase < timing.phaseNanos.length) {
+            timing.phaseNanos[phase] += nanos;
+        }
+
+        // the operations of the compiler itself are anonymous classes; those that are not come from the project's configuration
+        if (!operation.getClass().isAnonymousClass()) {
+            timing = getTiming(operations, operation.getClass().getName());
+            timing.nanos += nanos;
+            timing.count += 1;
+        }
+    }
+
+    public synchronized void transformComplete(Object transform, SourceUnit source, long nanos, long allocatedBytes) {
+        Timing timing = getTiming(transforms, transform.getClass().getName());
+        timing.nanos += nanos;
+        timing.count += 1;
+        if (allocatedBytes < 0) {
+            timing.allocatedBytes = -1;
+        } else if (timing.allocatedBytes >= 0) {
+            timing.allocatedBytes += allocatedBytes;
+        }
+    }
+
+    private static Timing getTiming(Map<String, Timing> timings, String name) {
+        Timing timing = timings.get(name);
+        if (timing == null) {
+            timing = new Timing();
+            timings.put(name, timing);
+        }
+        return timing;
+    }
+
+    /**
+     * Adds the classes generated and the resolver cache use of a compile that has completed.
+     */
+    synchronized void compileComplete(CompilationUnit compilationUnit, JDTResolver resolver) {
+        compiles += 1;
+        classesGenerated += compilationUnit.getClasses().size();
+        if (resolver != null) {
+            cacheHits += resolver.cacheHits;
+            cacheMisses += resolver.cacheMisses;
+        }
+    }
+
+    void write(File file) {
+        file.getParentFile().mkdirs();
+        try {
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+            try {
+                writer.print(toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            // the report is not worth failing the build for
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringWriter out = new StringWriter();
+        PrintWriter writer = new PrintWriter(out);
+
+        long total = 0;
+        for (long nanos : phaseNanos) {
+            total += nanos;
+        }
+        writer.println("Groovy build report" + (projectName != null ? " for " + projectName : "") + ", " + new Date(startTime));
+        writer.println();
+        writer.println("Compiles:             " + compiles);
+        writer.println("Elapsed time:         " + (System.currentTimeMillis() - startTime) + " ms");
+        writer.println("Groovy phase time:    " + millis(total) + " ms");
+        writer.println("Source units:         " + sources.size());
+        writer.println("Classes generated:    " + classesGenerated);
+        int lookups = cacheHits + cacheMisses;
+        writer.println("Resolver class nodes: " + lookups + " lookups, " + cacheHits + " cached (" + percent(cacheHits, lookups) +
+                "), " + cacheMisses + " created (" + percent(cacheMisses, lookups) + ")");
+
+        writer.println();
+        writer.println("Time per phase");
+        for (int phase = Phases.CONVERSION; phase <= Phases.CLASS_GENERATION; phase += 1) {
+            writer.println(String.format("  %-24s%10s ms", Phases.getDescription(phase), millis(phaseNanos[phase])));
+        }
+
+        List<Map.Entry<String, Timing>> slowest = sortByTime(sources);
+        writer.println();
+        writer.println("Time per source unit" + (slowest.size() > MAX_SOURCES ? " (the slowest " + MAX_SOURCES + ")" : ""));
+        for (Map.Entry<String, Timing> entry : slowest.subList(0, Math.min(MAX_SOURCES, slowest.size()))) {
+            StringBuilder phases = new StringBuilder();
+            for (int phase = Phases.CONVERSION; phase <= Phases.CLASS_GENERATION; phase += 1) {
+                phases.append(phases.length() == 0 ? "" : ", ").append(Phases.getDescription(phase)).append(' ')
+                        .append(millis(entry.getValue().phaseNanos[phase]));
+            }
+            writer.println(String.format("  %10s ms  %s (%s)", millis(entry.getValue().nanos), entry.getKey(), phases));
+        }
+
+        if (!operations.isEmpty()) {
+            writer.println();
+            writer.println("Time per project phase operation");
+            for (Map.Entry<String, Timing> entry : sortByTime(operations)) {
+                writer.println(String.format("  %10s ms %7d calls  %s", millis(entry.getValue().nanos), entry.getValue().count, entry.getKey()));
+            }
+        }
+
+        if (!transforms.isEmpty()) {
+            writer.println();
+            writer.println("Time per AST transform");
+            for (Map.Entry<String, Timing> entry : sortByTime(transforms)) {
+                long bytes = entry.getValue().allocatedBytes;
+                writer.println(String.format("  %10s ms %7d calls %10s KB allocated  %s", millis(entry.getValue().nanos), entry.getValue().count,
+                        bytes < 0 ? "-" : String.valueOf(bytes / 1024), entry.getKey()));
+            }
+        }
+
+        writer.flush();
+        return out.toString();
+    }
+
+    private static List<Map.Entry<String, Timing>> sortByTime(Map<String, Timing> timings) {
+        List<Map.Entry<String, Timing>> entries = new ArrayList<Map.Entry<String, Timing>>(timings.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, Timing>>() {
+            public int compare(Map.Entry<String, Timing> one, Map.Entry<String, Timing> two) {
+                long difference = two.getValue().nanos - one.getValue().nanos;
+                return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+            }
+        });
+        return entries;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1000000.0);
+    }
+
+    private static String percent(int part, int whole) {
+        return whole == 0 ? "-" : String.format("%.0f%%", part * 100.0 / whole);
+    }
+}
@@ -192,6 +192,10 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
      * @return true if clean processing, false otherwise
      */
     public boolean processToPhase(int phase) {
+        if (groovyCompilationUnit == null) {
+            // populated from a module that is not part of a compilation unit; nothing more can be done with it
+            return !groovySourceUnit.getErrorCollector().hasErrors();
+        }
         // GRECLIPSE-1776 start
         // Try to discard cached class loaders for traits
         if (phase == Phases.CANONICALIZATION) {
@@ -399,6 +403,9 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
                         byte[] classbytes = clazz.getBytes();
                         String path = clazz.getName().replace('.', '/');
                         GroovyClassFile classFile = new GroovyClassFile(classname, classbytes, binding, path);
+                        // closures and inner classes are nested types, so that the builder treats a new one as a change to its outer
+                        // class (which is checked for structural changes as usual) rather than as a new type its dependents may need
+                        classFile.isNestedType = (classnode instanceof InnerClassNode);
                         char[] classNameChars = classname.toCharArray();
                         if (binding == null) {
                             // GRECLIPSE-1653 this type likely added by AST transform and is synthetic
@@ -21,7 +21,9 @@ import java.util.List;
 import java.util.StringTokenizer;
 
 import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ModuleNode;
 import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.compiler.CompilationResult;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.ImportReference;
 import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
@@ -186,6 +188,23 @@ public class GroovyCompilationUnitScope extends CompilationUnitScope {
         return new GroovyClassScope(parent, typeDecl);
     }
 
+    /**
+     * Records, besides the types that the unit refers to, the names of the members that it refers to and the supertypes of its
+     * classes, with which the incremental builder recompiles only the dependents that may reach the changed members of a type.
+     */
+    @Override
+    public void storeDependencyInfo() {
+        super.storeDependencyInfo();
+        ModuleNode module = ((GroovyCompilationUnitDeclaration) referenceContext).getModuleNode();
+        CompilationResult result = referenceContext.compilationResult;
+        if (module != null && !result.hasErrors()) {
+            result.memberReferences = MemberReferenceCollector.getMemberReferences(module);
+            if (result.memberReferences != null) {
+                result.superTypeReferences = MemberReferenceCollector.getSuperTypeReferences(module);
+            }
+        }
+    }
+
     /**
      * Called after the type hierarchy is built for all types involved - allows glObject to be inserted
      */
@@ -16,11 +16,18 @@
 package org.codehaus.jdt.groovy.internal.compiler.ast;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
@@ -30,12 +37,14 @@ import java.util.jar.JarFile;
 import groovy.lang.GroovyClassLoader;
 
 import org.apache.xbean.classloader.NonLockingJarFileClassLoader;
+import org.codehaus.groovy.antlr.CharArrayReaderSource;
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilationUnit.PrimaryClassNodeOperation;
 import org.codehaus.groovy.control.CompilationUnit.ProgressListener;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.ErrorCollector;
+import org.codehaus.groovy.control.ParserPluginFactory;
 import org.codehaus.groovy.control.Phases;
 import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.control.customizers.CompilationCustomizer;
@@ -43,12 +52,13 @@ import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.jdt.groovy.control.EclipseSourceUnit;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.util.CompilerUtils;
-import org.eclipse.jdt.groovy.core.util.GroovyUtils;
+import org.eclipse.jdt.groovy.core.Activator;
 import org.eclipse.jdt.groovy.core.util.ScriptFolderSelector;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
@@ -60,8 +70,10 @@ import org.eclipse.jdt.internal.compiler.env.INameEnvironment;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.jdt.internal.compiler.lookup.LookupEnvironment;
 import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
+import org.eclipse.jdt.internal.core.builder.AbstractImageBuilder;
 import org.eclipse.jdt.internal.core.builder.BatchImageBuilder;
 import org.eclipse.jdt.internal.core.builder.BuildNotifier;
+import org.eclipse.jdt.internal.core.util.Util;
 
 /**
  * The mapping layer between the groovy parser and the JDT. This class communicates with the groovy parser and translates results
@@ -79,6 +91,9 @@ public class GroovyParser {
     private String gclClasspath;
     private CompilationUnit compilationUnit;
     private CompilerOptions compilerOptions;
+    private GroovyClassLoader transformLoader;
+    private GrapeAwareGroovyClassLoader grabbyLoader;
+    private BuildReport buildReport;
 
     public CompilerOptions getCompilerOptions() {
         return compilerOptions;
@@ -95,6 +110,91 @@ public class GroovyParser {
     private static Map<String, PathLoaderPair> projectToLoaderCache = new ConcurrentHashMap<String, PathLoaderPair>();
     private static Map<String, ScriptFolderSelector> scriptFolderSelectorCache = new ConcurrentHashMap<String, ScriptFolderSelector>();
 
+    /*
+     * Each project also has a parser context: the customizer and parser plugin factory classes, loaded once for the project's
+     * compilation units. A context is keyed by a fingerprint of the groovy compiler options (which include the classpath) and the
+     * transform loader; if either has changed when a parser needs the context, a new one replaces it, in the same way as for the
+     * loader cache above. Each compilation unit still gets a CompilerConfiguration and customizers of its own, since a customizer
+     * may keep state for the unit it was given (ASTTransformationCustomizer applies its transform only once). Parsers themselves
+     * are not kept: a groovy CompilationUnit cannot be emptied for reuse, so an idle parser would only hold on to a unit that
+     * the next parse has to replace anyway.
+     */
+
+    private static Map<String, ParserContext> projectToParserContext = new ConcurrentHashMap<String, ParserContext>();
+
+    static class ParserContext {
+        final String fingerprint;
+        final GroovyClassLoader transformLoader;
+        final List<Class<?>> customizerClasses;
+        final Class<?> pluginFactoryClass;
+
+        ParserContext(String fingerprint, GroovyClassLoader transformLoader, List<Class<?>> customizerClasses, Class<?> pluginFactoryClass) {
+            this.fingerprint = fingerprint;
+            this.transformLoader = transformLoader;
+            this.customizerClasses = customizerClasses;
+            this.pluginFactoryClass = pluginFactoryClass;
+        }
+    }
+
+    private static String fingerprint(CompilerOptions options) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(options.groovyClassLoaderPath).append('|');
+        sb.append(options.groovyCustomizerClassesList).append('|');
+        sb.append(options.groovyTransformsToRunOnReconcile).append('|');
+        sb.append(options.groovyExcludeGlobalASTScan).append('|');
+        sb.append(options.groovyExtraImports).append('|');
+        sb.append(options.groovyFlags).append('|');
+        sb.append(getParserPluginFactoryName(options));
+        return sb.toString();
+    }
+
+    /**
+     * Returns the name of the {@link ParserPluginFactory} selected by the compiler
+     * options or, failing that, by the project (or workspace) preferences.  The
+     * preferences are read once; the name found there (or an empty name for the
+     * default) is kept in the options for the parsers that share them.
+     *
+     * @return class name or <code>null</code> to use groovy's default front end
+     */
+    static String getParserPluginFactoryName(CompilerOptions options) {
+        String name = options.groovyParserPluginFactory;
+        if (name == null) {
+            if (options.groovyProjectName != null && Activator.getDefault() != null && ResourcesPlugin.getPlugin() != null) {
+                IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(options.groovyProjectName);
+                Activator activator = Activator.getDefault();
+                name = activator.getStringPreference(activator.getProjectOrWorkspacePreferences(project), Activator.GROOVY_PARSER_PLUGIN_FACTORY, null);
+            }
+            options.groovyParserPluginFactory = name = (name != null ? name.trim() : "");
+        }
+        name = name.trim();
+        return (name.length() > 0 ? name : null);
+    }
+
+    /**
+     * Sets the {@link ParserPluginFactory} selected by the compiler options, if any, on a configuration that is not made by a
+     * parser, such as the one shared by the files of a project while they are indexed.  The factory is loaded by the transform
+     * loader of the project if a build has made one, as it is for the project's parsers, or else by this bundle's loader.
+     */
+    public static void setParserPluginFactory(CompilerConfiguration compilerConfiguration, CompilerOptions options) {
+        PathLoaderPair pathAndLoader = (options.groovyProjectName != null ? projectToLoaderCache.get(options.groovyProjectName) : null);
+        Class<?> pluginFactoryClass = loadPluginFactoryClass(options, pathAndLoader != null ? pathAndLoader.groovyClassLoader : null);
+        if (pluginFactoryClass != null) {
+            compilerConfiguration.setPluginFactory(createPluginFactory(pluginFactoryClass));
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the file is in one of the script folders of the project, so that no class file is written for it
+     */
+    public static boolean isScript(String projectName, IFile file) {
+        ScriptFolderSelector scriptFolderSelector = scriptFolderSelectorCache.get(projectName);
+        if (scriptFolderSelector == null) {
+            scriptFolderSelector = new ScriptFolderSelector(ResourcesPlugin.getWorkspace().getRoot().getProject(projectName));
+            scriptFolderSelectorCache.put(projectName, scriptFolderSelector);
+        }
+        return scriptFolderSelector.isScript(file);
+    }
+
     static class PathLoaderPair {
         String classpath;
         GroovyClassLoader groovyClassLoader;
@@ -141,6 +241,7 @@ public class GroovyParser {
     public static void tidyCache(String projectName) {
         // This will orphan the loader on the heap
         projectToLoaderCache.remove(projectName);
+        projectToParserContext.remove(projectName);
         scriptFolderSelectorCache.remove(projectName);
     }
 
@@ -156,6 +257,106 @@ public class GroovyParser {
      */
     static void tidyCache() {
         projectToLoaderCache.clear();
+        projectToParserContext.clear();
+    }
+
+    /*
+     * Batch compiles that run in the same JVM at the same time, as when Maven builds modules in parallel, share a loader for
+     * the jars at the start of their classpaths, up to the first directory, if the jars and their time stamps and sizes are the
+     * same, which also holds for compiles of different projects in one compiler daemon. The rest of a classpath, from its first
+     * directory on, is given to a loader of each compile's own, below the shared one, so that classes and resources are still
+     * found in classpath order: a directory such as target/classes comes before any jar that follows it. A shared loader is
+     * only weakly held here, so it lives as long as the compiles that use it. The global transforms of a batch compile are
+     * looked for in its directories and in those of its jars that the TransformJarIndex knows to register any.
+     */
+
+    private static final Map<String, WeakReference<URLClassLoader>> batchJarLoaders = new HashMap<String, WeakReference<URLClassLoader>>();
+
+    private static GroovyClassLoader createBatchLoader(Classpath[] classpaths) {
+        ClassLoader parent = Thread.currentThread().getContextClassLoader();
+        List<File> entries = new ArrayList<File>();
+        List<URL> sharedJars = new ArrayList<URL>();
+        StringBuilder key = new StringBuilder();
+        int sharedCount = 0;
+        for (Classpath classpath : classpaths) {
+            File file = new File(classpath.getPath());
+            if (sharedCount == entries.size() && !file.isDirectory()) {
+                addNewURL(file.getPath(), sharedJars);
+                key.append(file.getAbsolutePath()).append('@').append(file.lastModified()).append('#').append(file.length()).append(File.pathSeparatorChar);
+                sharedCount += 1;
+            }
+            entries.add(file);
+        }
+
+        URLClassLoader jarLoader;
+        synchronized (batchJarLoaders) {
+            WeakReference<URLClassLoader> reference = batchJarLoaders.get(key.toString());
+            jarLoader = (reference != null ? reference.get() : null);
+            if (jarLoader == null || jarLoader.getParent() != parent) {
+                for (Iterator<WeakReference<URLClassLoader>> it = batchJarLoaders.values().iterator(); it.hasNext();) {
+                    if (it.next().get() == null) {
+                        it.remove();
+                    }
+                }
+                jarLoader = createLoader(sharedJars.toArray(new URL[sharedJars.size()]), parent);
+                batchJarLoaders.put(key.toString(), new WeakReference<URLClassLoader>(jarLoader));
+            }
+        }
+
+        GroovyClassLoader gcl = new BatchGroovyClassLoader(jarLoader, entries);
+        for (File file : entries.subList(sharedCount, entries.size())) {
+            gcl.addClasspath(file.getPath());
+        }
+        return gcl;
+    }
+
+    static class BatchGroovyClassLoader extends GroovyClassLoader {
+
+        private final List<URL> transformServices = new ArrayList<URL>();
+
+        /**
+         * @param entries the whole classpath, in order, of which the jar loader has the leading jars
+         */
+        BatchGroovyClassLoader(URLClassLoader jarLoader, List<File> entries) {
+            super(jarLoader);
+            List<File> jars = new ArrayList<File>();
+            for (File entry : entries) {
+                if (!entry.isDirectory()) {
+                    jars.add(entry);
+                }
+            }
+            List<File> transformJars = TransformJarIndex.selectTransformJars(jars);
+            for (File entry : entries) {
+                try {
+                    if (entry.isDirectory()) {
+                        File services = new File(entry, TransformJarIndex.GLOBAL_TRANSFORMS);
+                        if (services.isFile()) {
+                            transformServices.add(services.toURI().toURL());
+                        }
+                    } else if (transformJars.contains(entry)) {
+                        transformServices.add(new URL("jar:" + entry.toURI().toURL() + "!/" + TransformJarIndex.GLOBAL_TRANSFORMS));
+                    }
+                } catch (MalformedURLException e) {
+                    // not an entry that could be loaded from anyway
+                }
+            }
+        }
+
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException {
+            if (!TransformJarIndex.GLOBAL_TRANSFORMS.equals(name)) {
+                return super.getResources(name);
+            }
+            // the loaders above the jar loader, then the classpath in its order; this is the default order, except that jars known
+            // not to register any transforms are not opened
+            List<URL> services = new ArrayList<URL>();
+            ClassLoader jarLoaderParent = getParent().getParent();
+            if (jarLoaderParent != null) {
+                services.addAll(Collections.list(jarLoaderParent.getResources(name)));
+            }
+            services.addAll(transformServices);
+            return Collections.enumeration(services);
+        }
     }
 
     private GroovyClassLoader gclForBatch = null;
@@ -177,13 +378,8 @@ public class GroovyParser {
                                     Field f = FileSystem.class.getDeclaredField("classpaths");
                                     if (f != null) {
                                         f.setAccessible(true);
-                                        gclForBatch = new GroovyClassLoader();
                                         Classpath[] classpaths = (Classpath[]) f.get(fileSystem);
-                                        if (classpaths != null) {
-                                            for (int i = 0; i < classpaths.length; i++) {
-                                                gclForBatch.addClasspath(classpaths[i].getPath());
-                                            }
-                                        }
+                                        gclForBatch = createBatchLoader(classpaths != null ? classpaths : new Classpath[0]);
                                     } else {
                                         System.err.println("Cannot find classpaths field on FileSystem class");
                                     }
@@ -242,7 +438,7 @@ public class GroovyParser {
         this.projectName = options.groovyProjectName;
         this.gclClasspath = (options == null ? null : options.groovyClassLoaderPath);
 
-        GroovyClassLoader gcl = getLoaderFor(this.gclClasspath);
+        this.transformLoader = getLoaderFor(this.gclClasspath);
         // ---
         // Status of transforms and reconciling: Oct-18-2011
         // Prior to 2.6.0 all transforms were turned OFF for reconciling, and by turned off that meant no phase
@@ -255,18 +451,82 @@ public class GroovyParser {
         // Basic grab support: the design here is that a special classloader is created that will be augmented
         // with URLs when grab processing is running. This classloader is used as a last resort when resolving
         // types and is *only* called if a grab has occurred somewhere during compilation.
-        // Currently it is not cached but created each time - we'll have to decide if there is a need to cache
-        GrapeAwareGroovyClassLoader grabbyLoader = new GrapeAwareGroovyClassLoader(gcl);
-        this.compilationUnit = makeCompilationUnit(grabbyLoader, gcl, isReconcile, allowTransforms);
+        // It is created for each parser and kept by reset() for as long as no grab has augmented it.
+        this.grabbyLoader = new GrapeAwareGroovyClassLoader(this.transformLoader);
+        this.buildReport = getBuildReport(requestor);
+        this.compilationUnit = makeCompilationUnit(this.grabbyLoader, this.transformLoader, isReconcile, allowTransforms);
         this.compilationUnit.removeOutputPhaseOperation();
     }
 
+    /**
+     * Returns the parser to a clean state: a new compilation unit and resolver that share the project's configuration and, if
+     * nothing was grabbed, the class loaders of the previous compilation unit.
+     */
     public void reset() {
         GroovyClassLoader gcl = getLoaderFor(gclClasspath);
+        if (gcl != this.transformLoader || this.grabbyLoader.grabbed) {
+            this.transformLoader = gcl;
+            this.grabbyLoader = new GrapeAwareGroovyClassLoader(gcl);
+        }
         this.compilationUnit = makeCompilationUnit(
-            new GrapeAwareGroovyClassLoader(gcl), gcl,
+            this.grabbyLoader, gcl,
             this.compilationUnit.isReconcile,
             this.compilationUnit.allowTransforms);
+        this.compilationUnit.removeOutputPhaseOperation();
+    }
+
+    /**
+     * Adds the compile that has just completed to the report of its build, if it has one, and writes the report out.
+     */
+    public void compileComplete() {
+        if (buildReport == null) {
+            return;
+        }
+        buildReport.compileComplete(compilationUnit, resolver);
+        if (projectName == null) {
+            PrintWriter out = getBatchOut();
+            out.print(buildReport);
+            out.flush();
+        } else if (ResourcesPlugin.getPlugin() != null) {
+            IPath location = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName).getWorkingLocation(Activator.PLUGIN_ID);
+            if (location != null) {
+                buildReport.write(location.append(BuildReport.FILE_NAME).toFile());
+            }
+        }
+    }
+
+    /**
+     * Returns the writer that the batch compiler prints its messages other than problems to, such as its statistics, so that the
+     * report ends up wherever the caller of the batch compiler sends its output.
+     */
+    private PrintWriter getBatchOut() {
+        if (requestor instanceof org.eclipse.jdt.internal.compiler.Compiler) {
+            try {
+                Field f = org.eclipse.jdt.internal.compiler.Compiler.class.getDeclaredField("out");
+                f.setAccessible(true);
+                PrintWriter out = (PrintWriter) f.get(requestor);
+                if (out != null) {
+                    return out;
+                }
+            } catch (Exception e) {
+                // not the compiler we know; fall back to the console
+            }
+        }
+        return new PrintWriter(System.out);
+    }
+
+    /**
+     * Returns the report of the build the requestor is compiling for: a workspace build or, if the report is enabled, a batch
+     * compile. Reconciles and the like have none.
+     */
+    private BuildReport getBuildReport(Object requestor) {
+        if (requestor instanceof org.eclipse.jdt.internal.compiler.Compiler) {
+            Object build = ((org.eclipse.jdt.internal.compiler.Compiler) requestor).requestor;
+            if (projectName != null ? build instanceof AbstractImageBuilder : BuildReport.isBatchReportEnabled()) {
+                return BuildReport.forBuild(build, projectName);
+            }
+        }
+        return null;
     }
 
     static class GrapeAwareGroovyClassLoader extends GroovyClassLoader {
@@ -385,13 +645,18 @@ public class GroovyParser {
             }
         }
 
-        SourceUnit groovySourceUnit = new EclipseSourceUnit(eclipseFile, filepath, new String(sourceCode),
+        // the parser reads sourceCode in place and shares its line separators with the compilation result
+        CharArrayReaderSource source = new CharArrayReaderSource(sourceCode, compilationUnit.getConfiguration());
+        SourceUnit groovySourceUnit = new EclipseSourceUnit(eclipseFile, filepath, source,
                 compilationUnit.getConfiguration(), compilationUnit.getClassLoader(), errorCollector, this.resolver);
         groovySourceUnit.isReconcile = compilationUnit.isReconcile;
+        if (compilationUnit.isReconcile && projectName != null) {
+            // the file name is the path of the source, which a file linked into several projects can share
+            groovySourceUnit.reconcileKey = projectName + ':' + new String(fileName);
+        }
         GroovyCompilationUnitDeclaration gcuDeclaration = new GroovyCompilationUnitDeclaration(problemReporter, compilationResult,
                 sourceCode.length, compilationUnit, groovySourceUnit, compilerOptions);
-        // FIXASC get this from the Antlr parser
-        compilationResult.lineSeparatorPositions = GroovyUtils.getSourceLineSeparatorsIn(sourceCode);
+        compilationResult.lineSeparatorPositions = source.getLineSeparators();
         compilationUnit.addSource(groovySourceUnit);
 
         // Check if it is worth plugging in a callback listener for parse/generation
@@ -418,15 +683,8 @@ public class GroovyParser {
         // Is this a script?
         // If allowTransforms is TRUE then this is a 'full build' and we should remember which are scripts so that
         // .class file output can be suppressed
-        if (projectName != null && eclipseFile != null) {
-            ScriptFolderSelector scriptFolderSelector = scriptFolderSelectorCache.get(projectName);
-            if (scriptFolderSelector == null) {
-                scriptFolderSelector = new ScriptFolderSelector(ResourcesPlugin.getWorkspace().getRoot().getProject(projectName));
-                scriptFolderSelectorCache.put(projectName, scriptFolderSelector);
-            }
-            if (scriptFolderSelector.isScript(eclipseFile)) {
-                gcuDeclaration.tagAsScript();
-            }
+        if (projectName != null && eclipseFile != null && isScript(projectName, eclipseFile)) {
+            gcuDeclaration.tagAsScript();
         }
         if (debugRequestor != null) {
             debugRequestor.acceptCompilationUnitDeclaration(gcuDeclaration);
@@ -483,36 +741,101 @@ public class GroovyParser {
         }
     }
 
-    private CompilationUnit makeCompilationUnit(GroovyClassLoader loader, GroovyClassLoader transformLoader, boolean isReconcile, boolean allowTransforms) {
+    /**
+     * Returns the parser context of this parser's project. Its customizer and parser plugin factory classes are loaded once per
+     * context rather than for each compilation unit.
+     */
+    private ParserContext getParserContext(GroovyClassLoader transformLoader) {
+        String fingerprint = fingerprint(compilerOptions);
+        ParserContext context = projectToParserContext.get(projectName);
+        if (context == null || context.transformLoader != transformLoader || !context.fingerprint.equals(fingerprint)) {
+            context = new ParserContext(fingerprint, transformLoader, loadCustomizerClasses(transformLoader), loadPluginFactoryClass(compilerOptions, transformLoader));
+            projectToParserContext.put(projectName, context);
+        }
+        return context;
+    }
 
+    private List<Class<?>> loadCustomizerClasses(GroovyClassLoader transformLoader) {
+        List<Class<?>> customizerClasses = new ArrayList<Class<?>>();
+        if (compilerOptions.groovyCustomizerClassesList != null && transformLoader != null) {
+            StringTokenizer tokenizer = new StringTokenizer(compilerOptions.groovyCustomizerClassesList, ",");
+            while (tokenizer.hasMoreTokens()) {
+                String classname = tokenizer.nextToken();
+                try {
+                    customizerClasses.add(transformLoader.loadClass(classname));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return customizerClasses;
+    }
+
+    /**
+     * @return the factory class, or <code>null</code> for the default front end (which is also used if the selected
+     *         factory cannot be loaded or created)
+     */
+    private static Class<?> loadPluginFactoryClass(CompilerOptions options, GroovyClassLoader transformLoader) {
+        String factoryName = getParserPluginFactoryName(options);
+        if (factoryName != null) {
+            try {
+                ClassLoader loader = (transformLoader != null ? transformLoader : GroovyParser.class.getClassLoader());
+                Class<?> pluginFactoryClass = loader.loadClass(factoryName);
+                // check once here that the factory can be created, rather than for every compilation unit
+                if (ParserPluginFactory.class.isInstance(pluginFactoryClass.newInstance())) {
+                    return pluginFactoryClass;
+                }
+                Util.log(null, "Parser plugin factory '" + factoryName + "' is not a ParserPluginFactory, using the default parser");
+            } catch (Throwable t) {
+                Util.log(t, "Unable to load parser plugin factory '" + factoryName + "', using the default parser");
+            }
+        }
+        return null;
+    }
+
+    private static ParserPluginFactory createPluginFactory(Class<?> pluginFactoryClass) {
+        try {
+            return (ParserPluginFactory) pluginFactoryClass.newInstance();
+        } catch (Exception e) {
+            Util.log(e, "Unable to create parser plugin factory '" + pluginFactoryClass.getName() + "', using the default parser");
+            return null;
+        }
+    }
+
+    /**
+     * Creates the configuration of a single compilation unit, with new instances of the given customizer classes.
+     */
+    private static CompilerConfiguration createConfiguration(GroovyClassLoader transformLoader, List<Class<?>> customizerClasses, Class<?> pluginFactoryClass) {
         // FIXASC (M3) need our own tweaked subclass of CompilerConfiguration?
         CompilerConfiguration compilerConfiguration = new CompilerConfiguration();
-        if (compilerOptions.groovyCustomizerClassesList != null && transformLoader != null) {
+        if (!customizerClasses.isEmpty()) {
             List<CompilationCustomizer> customizers = new ArrayList<CompilationCustomizer>();
-            if (loader != null) {
-                StringTokenizer tokenizer = new StringTokenizer(compilerOptions.groovyCustomizerClassesList, ",");
-                ClassLoader savedLoader = Thread.currentThread().getContextClassLoader();
-                try {
-                    Thread.currentThread().setContextClassLoader(transformLoader);
-                    while (tokenizer.hasMoreTokens()) {
-                        String classname = tokenizer.nextToken();
-                        try {
-                            Class<?> clazz = transformLoader.loadClass(classname);
-                            CompilationCustomizer cc = (CompilationCustomizer) clazz.newInstance();
-                            customizers.add(cc);
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
+            ClassLoader savedLoader = Thread.currentThread().getContextClassLoader();
+            try {
+                Thread.currentThread().setContextClassLoader(transformLoader);
+                for (Class<?> clazz : customizerClasses) {
+                    try {
+                        customizers.add((CompilationCustomizer) clazz.newInstance());
+                    } catch (Exception e) {
+                        e.printStackTrace();
                     }
-                } finally {
-                    Thread.currentThread().setContextClassLoader(savedLoader);
                 }
-                compilerConfiguration.addCompilationCustomizers(customizers.toArray(new CompilationCustomizer[customizers.size()]));
+            } finally {
+                Thread.currentThread().setContextClassLoader(savedLoader);
             }
+            compilerConfiguration.addCompilationCustomizers(customizers.toArray(new CompilationCustomizer[customizers.size()]));
         }
+        if (pluginFactoryClass != null) {
+            compilerConfiguration.setPluginFactory(createPluginFactory(pluginFactoryClass));
+        }
+        return compilerConfiguration;
+    }
 
+    private CompilationUnit makeCompilationUnit(GroovyClassLoader loader, GroovyClassLoader transformLoader, boolean isReconcile, boolean allowTransforms) {
+        ParserContext context = (projectName != null ? getParserContext(transformLoader) : null);
         CompilationUnit cu = new CompilationUnit(
-            compilerConfiguration,
+            context != null ? createConfiguration(transformLoader, context.customizerClasses, context.pluginFactoryClass) :
+                createConfiguration(transformLoader, loadCustomizerClasses(transformLoader), loadPluginFactoryClass(compilerOptions, transformLoader)),
             null, // CodeSource
             loader,
             transformLoader,
@@ -521,6 +844,7 @@ public class GroovyParser {
             compilerOptions.groovyExcludeGlobalASTScan);
         this.resolver = new JDTResolver(cu);
         cu.setResolveVisitor(resolver);
+        cu.setOperationTimer(buildReport);
         cu.tweak(isReconcile);
 
         // Grails add
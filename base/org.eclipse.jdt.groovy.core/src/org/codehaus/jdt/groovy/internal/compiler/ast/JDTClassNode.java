@@ -16,8 +16,11 @@
 package org.codehaus.jdt.groovy.internal.compiler.ast;
 
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.codehaus.groovy.GroovyBugError;
@@ -65,6 +68,7 @@ import org.eclipse.jdt.internal.compiler.lookup.ReferenceBinding;
 import org.eclipse.jdt.internal.compiler.lookup.SourceTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.SyntheticMethodBinding;
 import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
+import org.eclipse.jdt.internal.compiler.lookup.TypeConstants;
 import org.eclipse.jdt.internal.compiler.lookup.TypeVariableBinding;
 
 /**
@@ -72,6 +76,12 @@ import org.eclipse.jdt.internal.compiler.lookup.TypeVariableBinding;
  * required (as groovy references to java files are resolved). They remain
  * uninitialized until groovy starts digging into them - at that time the details
  * are filled in (eg. members).
+ * <p>
+ * The methods of binary types are filled in by name where possible: looking up the
+ * methods of one name converts only the bindings of that name, and all of them are
+ * converted when something asks for all the methods. The supertypes and annotations
+ * can be had without any members. Constructors and fields are converted when the
+ * class is initialized, since ClassNode reads them directly through its redirects.
  */
 public class JDTClassNode extends ClassNode implements JDTNode {
 
@@ -81,8 +91,22 @@ public class JDTClassNode extends ClassNode implements JDTNode {
     // The binding which this JDTClassNode represents
     ReferenceBinding jdtBinding;
 
+    // only read and written while holding the lazy init lock, so a thread that finds it set is the one initializing this node;
+    // any other thread waits for the lock, and so for the initialization to finish
     private boolean beingInitialized = false;
 
+    private boolean supertypesInitialized = false;
+
+    private boolean methodsInitialized = false;
+
+    // the node whose annotations the current thread is reading; ClassNode would initialize its members first, but the
+    // annotations do not depend on them
+    private static final ThreadLocal<JDTClassNode> readingAnnotations = new ThreadLocal<JDTClassNode>();
+
+    // members converted by name before all of them are; see getDeclaredMethods(String) and getDeclaredField(String)
+    private Map<String, List<MethodNode>> methodsByName;
+    private Map<String, FieldNode> fieldsByName;
+
     private boolean anyGenericsInitialized = false;
 
     // The resolver instance involved at the moment
@@ -153,7 +177,8 @@ public class JDTClassNode extends ClassNode implements JDTNode {
     @Override
     public void lazyClassInit() {
         synchronized (lazyInitLock) {
-            if (lazyInitDone) {
+            // a call made while converting this node's own supertypes or members, or while reading its annotations, must not mark it done
+            if (lazyInitDone || beingInitialized || readingAnnotations.get() == this) {
                 return;
             }
             initialize();
@@ -205,33 +230,42 @@ public class JDTClassNode extends ClassNode implements JDTNode {
      */
     // FIXASC confusing (and problematic?) that the superclass is setup after the generics information
     void initialize() {
-        if (beingInitialized) {
-            return;
+        synchronized (lazyInitLock) {
+            if (beingInitialized) {
+                return;
+            }
+            try {
+                beingInitialized = true;
+                initializeSupertypes();
+                initializeMembers();
+            } finally {
+                beingInitialized = false;
+            }
         }
-        try {
-            beingInitialized = true;
+    }
 
-            if (!jdtBinding.isInterface()) {
-                ReferenceBinding superClass = jdtBinding.superclass();
-                if (superClass != null) {
-                    setUnresolvedSuperClass(resolver.convertToClassNode(superClass));
-                }
+    private void initializeSupertypes() {
+        if (supertypesInitialized) {
+            return;
+        }
+        if (!jdtBinding.isInterface()) {
+            ReferenceBinding superClass = jdtBinding.superclass();
+            if (superClass != null) {
+                setUnresolvedSuperClass(resolver.convertToClassNode(superClass));
             }
+        }
 
-            ReferenceBinding[] superInterfaceBindings = jdtBinding.superInterfaces();
-            superInterfaceBindings = superInterfaceBindings == null ? Binding.NO_SUPERINTERFACES : superInterfaceBindings;
-            ClassNode[] interfaces = new ClassNode[superInterfaceBindings.length];
-            for (int i = 0; i < superInterfaceBindings.length; i++) {
-                interfaces[i] = resolver.convertToClassNode(superInterfaceBindings[i]);
-            }
-            setInterfaces(interfaces);
-            initializeMembers();
-        } finally {
-            beingInitialized = false;
+        ReferenceBinding[] superInterfaceBindings = jdtBinding.superInterfaces();
+        superInterfaceBindings = superInterfaceBindings == null ? Binding.NO_SUPERINTERFACES : superInterfaceBindings;
+        ClassNode[] interfaces = new ClassNode[superInterfaceBindings.length];
+        for (int i = 0; i < superInterfaceBindings.length; i++) {
+            interfaces[i] = resolver.convertToClassNode(superInterfaceBindings[i]);
         }
+        setInterfaces(interfaces);
+        supertypesInitialized = true;
     }
 
-    private void initializeMembers() {
+    private void initializeGroovyDecl() {
         if (jdtBinding instanceof SourceTypeBinding) {
             SourceTypeBinding sourceType = (SourceTypeBinding) jdtBinding;
             if (sourceType.scope != null) {
@@ -241,6 +275,14 @@ public class JDTClassNode extends ClassNode implements JDTNode {
                 }
             }
         }
+    }
+
+    /**
+     * Converts the constructors and fields, which ClassNode reads directly once {@link #lazyClassInit()} has run, and the methods
+     * unless they are converted on demand (see {@link #isConvertingMethodsOnDemand()}).
+     */
+    private void initializeMembers() {
+        initializeGroovyDecl();
 
         // We do this here rather than at the start of the method because
         // the preceding code sets 'groovyDecl', later used to 'initializeProperties'.
@@ -256,19 +298,55 @@ public class JDTClassNode extends ClassNode implements JDTNode {
             return;
         }
 
-        MethodBinding[] bindings = null;
+        if (isConvertingMethodsOnDemand()) {
+            addConstructors(getMemberDeclaringBinding().getMethods(TypeConstants.INIT));
+            if (jdtBinding instanceof BinaryTypeBinding) {
+                addConstructors(((BinaryTypeBinding) jdtBinding).infraMethods());
+            }
+        } else {
+            initializeMethods(true);
+        }
+
+        FieldBinding[] fieldBindings = null;
         if (jdtBinding instanceof ParameterizedTypeBinding) {
-            ReferenceBinding genericType = ((ParameterizedTypeBinding) jdtBinding).genericType();
-            bindings = genericType.methods();
+            fieldBindings = ((ParameterizedTypeBinding) jdtBinding).genericType().fields();
         } else {
-            bindings = jdtBinding.methods();
+            fieldBindings = jdtBinding.fields();
+        }
+        if (fieldBindings != null) {
+            for (int i = 0; i < fieldBindings.length; i++) {
+                if (fieldsByName == null || !fieldsByName.containsKey(String.valueOf(fieldBindings[i].name))) {
+                    FieldNode fNode = fieldBindingToFieldNode(fieldBindings[i], groovyDecl);
+                    addField(fNode);
+                }
+            }
+        }
+        // from now on ClassNode holds all the fields
+        fieldsByName = null;
+    }
+
+    private void addConstructors(MethodBinding[] bindings) {
+        for (int i = 0; i < bindings.length; i++) {
+            if (bindings[i].isConstructor()) {
+                ConstructorNode cNode = constructorBindingToConstructorNode(bindings[i]);
+                addConstructor(cNode);
+            }
         }
+    }
+
+    /**
+     * Converts all the methods, and the constructors too if requested, skipping the methods already converted by name.
+     */
+    private void initializeMethods(boolean withConstructors) {
+        MethodBinding[] bindings = getMemberDeclaringBinding().methods();
         if (bindings != null) {
             for (int i = 0; i < bindings.length; i++) {
                 if (bindings[i].isConstructor()) {
-                    ConstructorNode cNode = constructorBindingToConstructorNode(bindings[i]);
-                    addConstructor(cNode);
-                } else {
+                    if (withConstructors) {
+                        ConstructorNode cNode = constructorBindingToConstructorNode(bindings[i]);
+                        addConstructor(cNode);
+                    }
+                } else if (!isConvertedByName(bindings[i])) {
                     MethodNode mNode = methodBindingToMethodNode(bindings[i]);
                     addMethod(mNode);
                 }
@@ -278,9 +356,11 @@ public class JDTClassNode extends ClassNode implements JDTNode {
             MethodBinding[] infraBindings = ((BinaryTypeBinding) jdtBinding).infraMethods();
             for (int i = 0; i < infraBindings.length; i++) {
                 if (infraBindings[i].isConstructor()) {
-                    ConstructorNode cNode = constructorBindingToConstructorNode(infraBindings[i]);
-                    addConstructor(cNode);
-                } else {
+                    if (withConstructors) {
+                        ConstructorNode cNode = constructorBindingToConstructorNode(infraBindings[i]);
+                        addConstructor(cNode);
+                    }
+                } else if (!isConvertedByName(infraBindings[i])) {
                     MethodNode mNode = methodBindingToMethodNode(infraBindings[i]);
                     addMethod(mNode);
                 }
@@ -302,30 +382,186 @@ public class JDTClassNode extends ClassNode implements JDTNode {
             if (syntheticMethodBindings != null) {
                 for (int i = 0; i < syntheticMethodBindings.length; i++) {
                     if (syntheticMethodBindings[i].isConstructor()) {
-                        ConstructorNode cNode = constructorBindingToConstructorNode(bindings[i]);
-                        addConstructor(cNode);
-                    } else {
+                        if (withConstructors) {
+                            ConstructorNode cNode = constructorBindingToConstructorNode(bindings[i]);
+                            addConstructor(cNode);
+                        }
+                    } else if (!isConvertedByName(syntheticMethodBindings[i])) {
                         MethodNode mNode = methodBindingToMethodNode(syntheticMethodBindings[i]);
                         addMethod(mNode);
                     }
                 }
             }
         }
+        // from now on ClassNode holds all the methods
+        methodsByName = null;
+        methodsInitialized = true;
+    }
 
-        FieldBinding[] fieldBindings = null;
+    /**
+     * The methods of a binary type are converted when asked for, by name if possible. Those of a source type are converted with
+     * the other members, since its synthetic methods are only known once all its methods have been verified.
+     */
+    private boolean isConvertingMethodsOnDemand() {
+        return getMemberDeclaringBinding() instanceof BinaryTypeBinding;
+    }
+
+    private boolean isConvertedByName(MethodBinding methodBinding) {
+        return methodsByName != null && methodsByName.containsKey(String.valueOf(methodBinding.selector));
+    }
+
+    private ReferenceBinding getMemberDeclaringBinding() {
         if (jdtBinding instanceof ParameterizedTypeBinding) {
-            fieldBindings = ((ParameterizedTypeBinding) jdtBinding).genericType().fields();
-        } else {
-            fieldBindings = jdtBinding.fields();
+            return ((ParameterizedTypeBinding) jdtBinding).genericType();
         }
-        if (fieldBindings != null) {
-            for (int i = 0; i < fieldBindings.length; i++) {
-                FieldNode fNode = fieldBindingToFieldNode(fieldBindings[i], groovyDecl);
-                addField(fNode);
+        return jdtBinding;
+    }
+
+    private void ensureMethodsInitialized() {
+        synchronized (lazyInitLock) {
+            if (!methodsInitialized && !beingInitialized && redirect == null) {
+                try {
+                    beingInitialized = true;
+                    initializeMethods(false);
+                } finally {
+                    beingInitialized = false;
+                }
             }
         }
     }
 
+    /**
+     * Converts the methods of the given name, the same ones that {@link #initializeMethods(boolean)} would. The caller holds the
+     * lazy init lock.
+     */
+    private List<MethodNode> initializeMethods(String name) {
+        if (methodsByName == null) {
+            methodsByName = new HashMap<String, List<MethodNode>>();
+        }
+        List<MethodNode> methodNodes = methodsByName.get(name);
+        if (methodNodes == null) {
+            methodNodes = new ArrayList<MethodNode>(2);
+            char[] selector = name.toCharArray();
+            addMethods(getMemberDeclaringBinding().getMethods(selector), selector, methodNodes);
+            if (jdtBinding instanceof BinaryTypeBinding) {
+                addMethods(((BinaryTypeBinding) jdtBinding).infraMethods(), selector, methodNodes);
+            }
+            methodsByName.put(name, methodNodes);
+        }
+        return methodNodes;
+    }
+
+    private void addMethods(MethodBinding[] bindings, char[] selector, List<MethodNode> methodNodes) {
+        for (int i = 0; i < bindings.length; i++) {
+            if (!bindings[i].isConstructor() && CharOperation.equals(bindings[i].selector, selector)) {
+                MethodNode mNode = methodBindingToMethodNode(bindings[i]);
+                addMethod(mNode);
+                methodNodes.add(mNode);
+            }
+        }
+    }
+
+    /**
+     * Converts the field of the given name, as {@link #initializeMembers()} would. The caller holds the lazy init lock.
+     */
+    private FieldNode initializeField(String name) {
+        if (fieldsByName == null) {
+            fieldsByName = new HashMap<String, FieldNode>();
+        }
+        if (fieldsByName.containsKey(name)) {
+            return fieldsByName.get(name);
+        }
+        initializeGroovyDecl();
+        FieldNode fNode = null;
+        FieldBinding fieldBinding = getMemberDeclaringBinding().getField(name.toCharArray(), true);
+        if (fieldBinding != null) {
+            fNode = fieldBindingToFieldNode(fieldBinding, groovyDecl);
+            addField(fNode);
+        }
+        fieldsByName.put(name, fNode);
+        return fNode;
+    }
+
+    @Override
+    public List<MethodNode> getMethods() {
+        if (redirect == null && isConvertingMethodsOnDemand()) {
+            ensureMethodsInitialized();
+        }
+        return super.getMethods();
+    }
+
+    /**
+     * Only the methods of this name are converted, unless all the methods already have been.
+     */
+    @Override
+    public List<MethodNode> getDeclaredMethods(String name) {
+        if (redirect == null && isConvertingMethodsOnDemand()) {
+            synchronized (lazyInitLock) {
+                if (!methodsInitialized && !beingInitialized) {
+                    return initializeMethods(name);
+                }
+            }
+        }
+        return super.getDeclaredMethods(name);
+    }
+
+    /**
+     * Only the field of this name is converted, unless all the fields already have been.
+     */
+    @Override
+    public FieldNode getDeclaredField(String name) {
+        if (redirect == null) {
+            synchronized (lazyInitLock) {
+                if (!lazyInitDone && !beingInitialized) {
+                    return initializeField(name);
+                }
+            }
+        }
+        return super.getDeclaredField(name);
+    }
+
+    // the supertypes are available without converting any members, so that looking up members by name through the hierarchy
+    // (as getMethods(String) and getField(String) do) converts no more than those members
+
+    private void ensureSupertypesInitialized() {
+        synchronized (lazyInitLock) {
+            if (!supertypesInitialized && !beingInitialized) {
+                try {
+                    beingInitialized = true;
+                    initializeSupertypes();
+                } finally {
+                    beingInitialized = false;
+                }
+            }
+        }
+    }
+
+    @Override
+    public ClassNode getUnresolvedSuperClass(boolean useRedirect) {
+        if (useRedirect && redirect == null) {
+            ensureSupertypesInitialized();
+            return super.getUnresolvedSuperClass(false);
+        }
+        return super.getUnresolvedSuperClass(useRedirect);
+    }
+
+    @Override
+    public ClassNode[] getUnresolvedInterfaces(boolean useRedirect) {
+        if (useRedirect && redirect == null) {
+            ensureSupertypesInitialized();
+            return super.getUnresolvedInterfaces(false);
+        }
+        return super.getUnresolvedInterfaces(useRedirect);
+    }
+
+    @Override
+    public ClassNode[] getInterfaces() {
+        if (redirect == null) {
+            return getUnresolvedInterfaces(true);
+        }
+        return super.getInterfaces();
+    }
+
     @Override
     public boolean mightHaveInners() {
         // return super.hasInnerClasses();
@@ -510,13 +746,33 @@ public class JDTClassNode extends ClassNode implements JDTNode {
     @Override
     public List<AnnotationNode> getAnnotations() {
         ensureAnnotationsInitialized();
-        return super.getAnnotations();
+        JDTClassNode reading = readingAnnotations.get();
+        try {
+            readingAnnotations.set(this);
+            return super.getAnnotations();
+        } finally {
+            if (reading != null) {
+                readingAnnotations.set(reading);
+            } else {
+                readingAnnotations.remove();
+            }
+        }
     }
 
     @Override
     public List<AnnotationNode> getAnnotations(ClassNode type) {
         ensureAnnotationsInitialized();
-        return super.getAnnotations(type);
+        JDTClassNode reading = readingAnnotations.get();
+        try {
+            readingAnnotations.set(this);
+            return super.getAnnotations(type);
+        } finally {
+            if (reading != null) {
+                readingAnnotations.set(reading);
+            } else {
+                readingAnnotations.remove();
+            }
+        }
     }
 
     private synchronized void ensureAnnotationsInitialized() {
@@ -541,10 +797,10 @@ public class JDTClassNode extends ClassNode implements JDTNode {
 
     protected synchronized void initializeProperties() {
         if ((bits & PROPERTIES_INITIALIZED) == 0) {
-            lazyClassInit();
             // getX methods
             // make it behave like groovy - no property nodes unless it is groovy source
-            if (groovyDecl != null) {
+            if (mayHaveProperties()) {
+                lazyClassInit();
                 Set<String> existing = new HashSet<String>();
                 for (MethodNode methodNode : getMethods()) {
                     if (isGetter(methodNode)) {
@@ -568,6 +824,19 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         }
     }
 
+    /**
+     * Only a type declared in Groovy source has property nodes; for other types there is no need to convert any members to find
+     * that out.
+     */
+    private boolean mayHaveProperties() {
+        synchronized (lazyInitLock) {
+            if (groovyDecl == null) {
+                initializeGroovyDecl();
+            }
+            return groovyDecl != null;
+        }
+    }
+
     private PropertyNode createPropertyNodeForMethodNode(MethodNode methodNode, String propertyName) {
         ClassNode propertyType = methodNode.getReturnType();
 
@@ -638,12 +907,18 @@ public class JDTClassNode extends ClassNode implements JDTNode {
 
     @Override
     public PropertyNode getProperty(String name) {
+        if (!mayHaveProperties()) {
+            return null;
+        }
         ensurePropertiesInitialized();
         return super.getProperty(name);
     }
 
     @Override
     public boolean hasProperty(String name) {
+        if (!mayHaveProperties()) {
+            return false;
+        }
         ensurePropertiesInitialized();
         return super.hasProperty(name);
     }
@@ -134,6 +134,9 @@ public class JDTResolver extends ResolveVisitor {
 
     private Set<ClassNode> resolvedClassNodes = new HashSet<ClassNode>();
 
+    // How often a binding's JDTClassNode was found in the caches above or had to be created; see BuildReport
+    int cacheHits, cacheMisses;
+
     public JDTResolver(CompilationUnit groovyCompilationUnit) {
         super(groovyCompilationUnit);
         if (recordInstances) {
@@ -440,7 +443,10 @@ public class JDTResolver extends ResolveVisitor {
         if (node == null) {
             node = nodeCache.get(jdtBinding);
         }
-        if (node != null) {
+        if (node == null) {
+            cacheMisses += 1;
+        } else {
+            cacheHits += 1;
             assert Arrays.equals(jdtBinding.readableName(), node.jdtBinding.readableName());
         }
         return node;
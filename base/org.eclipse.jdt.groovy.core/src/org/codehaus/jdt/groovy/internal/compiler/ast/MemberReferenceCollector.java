@@ -0,0 +1,226 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.expr.AttributeExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.FieldExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.MethodPointerExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+
+/**
+ * Collects what the incremental builder needs to know about a module so that a change to some members of a type recompiles
+ * only the files that may reach them: the names of the members that its code refers to and the supertypes of its classes.
+ * <p>
+ * A name counts whatever the type of its receiver, which for a dynamic call or property access is not known, so a file
+ * refers to the members of that name on every type.  A property also refers to its accessors, and an accessor to its
+ * property.  A file whose code computes names, or that has local AST transforms, which may generate code from the members
+ * of other types, may reach any member; so may a file that has errors, or a Java file, for which nothing is collected.
+ */
+class MemberReferenceCollector extends ClassCodeVisitorSupport {
+
+    // the members that Groovy calls for operators, conversions and the meta-object protocol, which code need not name
+    private static final String[] IMPLICIT_MEMBERS = {
+        "<init>", "<clinit>", "and", "asBoolean", "asType", "bitwiseNegate", "call", "compareTo", "div", "equals", "getAt",
+        "getMetaClass", "getProperty", "hashCode", "intdiv", "invokeMethod", "isCase", "iterator", "leftShift", "methodMissing",
+        "minus", "mod", "multiply", "negative", "next", "or", "plus", "positive", "power", "previous", "propertyMissing", "putAt",
+        "rightShift", "rightShiftUnsigned", "setMetaClass", "setProperty", "toString", "xor"};
+
+    // the local transforms that only check and compile the code they are applied to
+    private static final Set<String> CODE_TRANSFORMS = new HashSet<String>(Arrays.asList(
+        "org.codehaus.groovy.transform.StaticTypesTransformation", "org.codehaus.groovy.transform.sc.StaticCompileTransformation"));
+
+    /**
+     * @return the names of the members that the module refers to, or <code>null</code> if it may reach any member
+     */
+    static char[][] getMemberReferences(ModuleNode module) {
+        MemberReferenceCollector collector = new MemberReferenceCollector(module.getContext());
+        for (ClassNode classNode : module.getClasses()) {
+            if (hasLocalTransforms(classNode)) {
+                return null;
+            }
+            collector.visitClass(classNode);
+            if (collector.computedNames) {
+                return null;
+            }
+        }
+        return toCharArrays(collector.names);
+    }
+
+    /**
+     * @return the names of the supertypes of the classes of the module, direct or not, in the form <code>p/X$Y</code>
+     */
+    static char[][] getSuperTypeReferences(ModuleNode module) {
+        Set<String> superTypes = new TreeSet<String>();
+        for (ClassNode classNode : module.getClasses()) {
+            addSuperTypes(classNode, superTypes);
+        }
+        return toCharArrays(superTypes);
+    }
+
+    private static boolean hasLocalTransforms(ClassNode classNode) {
+        for (CompilePhase phase : CompilePhase.values()) {
+            for (Class<?> transform : classNode.getTransforms(phase).keySet()) {
+                if (!CODE_TRANSFORMS.contains(transform.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void addSuperTypes(ClassNode classNode, Set<String> superTypes) {
+        ClassNode superClass = classNode.getSuperClass();
+        if (superClass != null && superTypes.add(superClass.getName().replace('.', '/'))) {
+            addSuperTypes(superClass, superTypes);
+        }
+        for (ClassNode superInterface : classNode.getInterfaces()) {
+            if (superTypes.add(superInterface.getName().replace('.', '/'))) {
+                addSuperTypes(superInterface, superTypes);
+            }
+        }
+    }
+
+    private static char[][] toCharArrays(Set<String> strings) {
+        char[][] chars = new char[strings.size()][];
+        int i = 0;
+        for (String string : strings) {
+            chars[i++] = string.toCharArray();
+        }
+        return chars;
+    }
+
+    //--------------------------------------------------------------------------
+
+    private final SourceUnit sourceUnit;
+    private final Set<String> names = new TreeSet<String>(Arrays.asList(IMPLICIT_MEMBERS));
+    private boolean computedNames;
+
+    private MemberReferenceCollector(SourceUnit sourceUnit) {
+        this.sourceUnit = sourceUnit;
+    }
+
+    @Override
+    protected SourceUnit getSourceUnit() {
+        return sourceUnit;
+    }
+
+    @Override
+    public void visitMethodCallExpression(MethodCallExpression call) {
+        addMethodName(call.getMethodAsString());
+        super.visitMethodCallExpression(call);
+    }
+
+    @Override
+    public void visitStaticMethodCallExpression(StaticMethodCallExpression call) {
+        addMethodName(call.getMethod());
+        super.visitStaticMethodCallExpression(call);
+    }
+
+    @Override
+    public void visitMethodPointerExpression(MethodPointerExpression expression) {
+        addMethodName(expression.getMethodName() instanceof ConstantExpression ? expression.getMethodName().getText() : null);
+        super.visitMethodPointerExpression(expression);
+    }
+
+    @Override
+    public void visitPropertyExpression(PropertyExpression expression) {
+        addPropertyName(expression.getPropertyAsString());
+        super.visitPropertyExpression(expression);
+    }
+
+    @Override
+    public void visitAttributeExpression(AttributeExpression expression) {
+        addPropertyName(expression.getPropertyAsString());
+        super.visitAttributeExpression(expression);
+    }
+
+    @Override
+    public void visitFieldExpression(FieldExpression expression) {
+        addPropertyName(expression.getFieldName());
+        super.visitFieldExpression(expression);
+    }
+
+    @Override
+    public void visitVariableExpression(VariableExpression expression) {
+        // may be a property of this, of a closure's delegate or of a static import
+        addPropertyName(expression.getName());
+        super.visitVariableExpression(expression);
+    }
+
+    @Override
+    public void visitConstantExpression(ConstantExpression expression) {
+        // may name a member for a map constructor, the meta-object protocol or reflection
+        Object value = expression.getValue();
+        if (value instanceof String && isIdentifier((String) value)) {
+            addPropertyName((String) value);
+        }
+        super.visitConstantExpression(expression);
+    }
+
+    private void addMethodName(String name) {
+        if (name == null) {
+            computedNames = true;
+            return;
+        }
+        names.add(name);
+        // an accessor may be called for its property
+        for (String prefix : new String[] {"get", "set", "is"}) {
+            if (name.length() > prefix.length() && name.startsWith(prefix)) {
+                names.add(Character.toLowerCase(name.charAt(prefix.length())) + name.substring(prefix.length() + 1));
+            }
+        }
+    }
+
+    private void addPropertyName(String name) {
+        if (name == null) {
+            computedNames = true;
+            return;
+        }
+        names.add(name);
+        if (name.length() > 0) {
+            String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            names.add("get" + capitalized);
+            names.add("set" + capitalized);
+            names.add("is" + capitalized);
+        }
+    }
+
+    private static boolean isIdentifier(String string) {
+        if (string.length() == 0 || !Character.isJavaIdentifierStart(string.charAt(0))) {
+            return false;
+        }
+        for (int i = 1, n = string.length(); i < n; i += 1) {
+            if (!Character.isJavaIdentifierPart(string.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+/**
+ * Records which jars register global AST transforms, so that the transform loader of a batch compile need not open every jar on
+ * its classpath to look for them. What is recorded for a jar holds for as long as its size and time stamp are unchanged. The
+ * index is kept in <code>~/.groovy/greclipse/transform-jars.index</code> for later compiles, including those of other JVMs.
+ *
+ * @see GroovyParser
+ */
+class TransformJarIndex {
+
+    static final String GLOBAL_TRANSFORMS = "META-INF/services/org.codehaus.groovy.transform.ASTTransformation";
+
+    private static final String HEADER = "# greclipse transform jar index 1";
+
+    private static class Entry {
+        final long lastModified;
+        final long length;
+        final boolean hasTransforms;
+
+        Entry(long lastModified, long length, boolean hasTransforms) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.hasTransforms = hasTransforms;
+        }
+    }
+
+    private static Map<String, Entry> entries;
+
+    /**
+     * @return those of the given jars that register global transforms, in the same order
+     */
+    static synchronized List<File> selectTransformJars(List<File> jars) {
+        if (entries == null) {
+            entries = load(getIndexFile());
+        }
+        boolean changed = false;
+        List<File> transformJars = new ArrayList<File>();
+        for (File jar : jars) {
+            String path = jar.getAbsolutePath();
+            long lastModified = jar.lastModified(), length = jar.length();
+            Entry entry = entries.get(path);
+            if (entry == null || entry.lastModified != lastModified || entry.length != length) {
+                Boolean hasTransforms = scan(jar);
+                if (hasTransforms == null) {
+                    // unreadable; let the loader find out for itself
+                    transformJars.add(jar);
+                    continue;
+                }
+                entry = new Entry(lastModified, length, hasTransforms);
+                entries.put(path, entry);
+                changed = true;
+            }
+            if (entry.hasTransforms) {
+                transformJars.add(jar);
+            }
+        }
+        if (changed) {
+            save(getIndexFile());
+        }
+        return transformJars;
+    }
+
+    private static Boolean scan(File jar) {
+        try {
+            ZipFile zipFile = new ZipFile(jar);
+            try {
+                return zipFile.getEntry(GLOBAL_TRANSFORMS) != null;
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static File getIndexFile() {
+        String home = System.getProperty("user.home");
+        return home != null ? new File(home, ".groovy/greclipse/transform-jars.index") : null;
+    }
+
+    private static Map<String, Entry> load(File file) {
+        Map<String, Entry> entries = new HashMap<String, Entry>();
+        if (file != null && file.isFile()) {
+            try {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+                try {
+                    if (HEADER.equals(reader.readLine())) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            // <time stamp> <size> <0 or 1> <path>
+                            String[] fields = line.split(" ", 4);
+                            if (fields.length == 4) {
+                                entries.put(fields[3], new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]), "1".equals(fields[2])));
+                            }
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            } catch (IOException e) {
+                entries.clear();
+            } catch (NumberFormatException e) {
+                entries.clear();
+            }
+        }
+        return entries;
+    }
+
+    private static void save(File file) {
+        if (file == null) {
+            return;
+        }
+        for (Iterator<String> it = entries.keySet().iterator(); it.hasNext();) {
+            if (!new File(it.next()).isFile()) {
+                it.remove();
+            }
+        }
+        file.getParentFile().mkdirs();
+        File temp = null;
+        try {
+            temp = File.createTempFile("transform-jars", ".tmp", file.getParentFile());
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(temp), "UTF-8"));
+            try {
+                writer.println(HEADER);
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    Entry value = entry.getValue();
+                    writer.println(value.lastModified + " " + value.length + " " + (value.hasTransforms ? 1 : 0) + " " + entry.getKey());
+                }
+            } finally {
+                writer.close();
+            }
+            // written aside and renamed, so that compiles in other JVMs never read a partial index; the rename replaces the
+            // index atomically where the platform allows it (not on Windows, where the index is deleted first and a compile
+            // that looks in between finds none and scans its jars again)
+            if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+                temp.delete();
+            }
+        } catch (IOException e) {
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+    }
+}
@@ -56,6 +56,9 @@ public class Activator extends Plugin {
 
     public static final String GROOVY_COMPILER_LEVEL = "groovy.compiler.level";
 
+    // fully-qualified name of the ParserPluginFactory that creates the groovy front end; blank for the default
+    public static final String GROOVY_PARSER_PLUGIN_FACTORY = "groovy.parser.plugin.factory";
+
     public void start(BundleContext context) throws Exception {
         super.start(context);
         plugin = this;
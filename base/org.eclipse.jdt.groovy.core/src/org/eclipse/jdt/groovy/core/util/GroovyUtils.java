@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.codehaus.groovy.antlr.CharArrayReaderSource;
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.AnnotationNode;
 import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
@@ -58,26 +59,8 @@ public abstract class GroovyUtils {
         return null;
     }
 
-    // FIXASC don't use this any more?
     public static int[] getSourceLineSeparatorsIn(char[] code) {
-        List<Integer> lineSeparatorsCollection = new ArrayList<Integer>();
-        for (int i = 0, max = code.length; i < max; i++) {
-            if (code[i] == '\r') {
-                if ((i + 1) < max && code[i + 1] == '\n') {// \r\n
-                    lineSeparatorsCollection.add(i + 1); // add the position of the \n
-                    i++;
-                } else {
-                    lineSeparatorsCollection.add(i); // add the position of the \r
-                }
-            } else if (code[i] == '\n') {
-                lineSeparatorsCollection.add(i);
-            }
-        }
-        int[] lineSepPositions = new int[lineSeparatorsCollection.size()];
-        for (int i = 0; i < lineSeparatorsCollection.size(); i++) {
-            lineSepPositions[i] = lineSeparatorsCollection.get(i);
-        }
-        return lineSepPositions;
+        return CharArrayReaderSource.getLineSeparators(code);
     }
 
     /**
@@ -315,6 +315,13 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
         this.enclosingDeclarationNode = info != null ? info.module : null;
     }
 
+    /**
+     * @return the module node that this visitor visits, or <code>null</code> if none could be created
+     */
+    public ModuleNode getModuleNode() {
+        return enclosingDeclarationNode instanceof ModuleNode ? (ModuleNode) enclosingDeclarationNode : null;
+    }
+
     //--------------------------------------------------------------------------
 
     public void visitCompilationUnit(ITypeRequestor requestor) {
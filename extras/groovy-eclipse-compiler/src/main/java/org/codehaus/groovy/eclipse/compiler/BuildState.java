@@ -0,0 +1,256 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What the previous compile of an output folder produced: for each source file,
+ * its time stamp, the types it declared and the names it referenced.  It is kept
+ * in <code>target/groovy-eclipse-compiler</code> so that the next compile can be
+ * limited to the changed source files and the ones that depend on them.
+ * <p>
+ * This class must not reference any JDT classes; see {@link GroovyEclipseCompiler}.
+ */
+class BuildState {
+
+    private static final int VERSION = 1;
+
+    static class SourceInfo {
+        final String path;
+        long lastModified;
+        /** class file names (like <code>p/A$B</code>) of the types declared by the source */
+        String[] types = NO_STRINGS;
+        /** referenced qualified type and package names (like <code>java.util</code>) */
+        String[] qualifiedReferences = NO_STRINGS;
+        /** referenced simple names */
+        String[] simpleReferences = NO_STRINGS;
+
+        SourceInfo(String path) {
+            this.path = path;
+        }
+
+        /**
+         * Determines if this source refers to any of the given type and package names, in the
+         * same way as the JDT builder: both a simple name and its package must be referenced.
+         */
+        boolean references(Set<String> packageNames, Set<String> simpleNames) {
+            boolean simpleMatch = false;
+            for (String name : simpleReferences) {
+                if (simpleNames.contains(name)) {
+                    simpleMatch = true;
+                    break;
+                }
+            }
+            if (!simpleMatch) {
+                return false;
+            }
+            if (packageNames.contains("")) {
+                return true; // default package types are referenced by simple name
+            }
+            for (String name : qualifiedReferences) {
+                if (packageNames.contains(name)) {
+                    return true;
+                }
+            }
+            // like any single-segment name, a top-level package is recorded as a simple reference
+            for (String name : simpleReferences) {
+                if (packageNames.contains(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    static final String[] NO_STRINGS = new String[0];
+
+    final String fingerprint;
+    final Map<String, SourceInfo> sources = new LinkedHashMap<String, SourceInfo>();
+
+    BuildState(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @return the source files that reference any of the given types and are not excluded
+     */
+    Set<String> findDependents(Collection<String> types, Set<String> excluded) {
+        Set<String> packageNames = new HashSet<String>();
+        Set<String> simpleNames = new HashSet<String>();
+        for (String type : types) {
+            int slash = type.lastIndexOf('/');
+            String simpleName = type.substring(slash + 1);
+            int dollar = simpleName.indexOf('$');
+            if (dollar > 0) {
+                // member types are referenced through their top-level type
+                simpleName = simpleName.substring(0, dollar);
+            }
+            packageNames.add(slash < 0 ? "" : type.substring(0, slash).replace('/', '.'));
+            simpleNames.add(simpleName);
+        }
+        Set<String> dependents = new HashSet<String>();
+        for (SourceInfo info : sources.values()) {
+            if (!excluded.contains(info.path) && info.references(packageNames, simpleNames)) {
+                dependents.add(info.path);
+            }
+        }
+        return dependents;
+    }
+
+    //--------------------------------------------------------------------------
+
+    static File getStateFile(File buildDirectory, File outputDirectory) {
+        return new File(new File(buildDirectory, "groovy-eclipse-compiler"), outputDirectory.getName() + ".state");
+    }
+
+    /**
+     * Computes the fingerprint of a compile: the compiler arguments (other than the
+     * source files) and the time stamps of the classpath entries, so that a changed
+     * option or dependency makes the saved state unusable.
+     *
+     * @return a digest of the above
+     */
+    static String fingerprint(String[] args, List<String> classpathEntries, File outputDirectory) {
+        StringBuilder sb = new StringBuilder();
+        for (String arg : args) {
+            sb.append(arg).append('\n');
+        }
+        for (String entry : classpathEntries) {
+            File file = new File(entry);
+            if (file.getAbsoluteFile().equals(outputDirectory.getAbsoluteFile())) {
+                continue;
+            }
+            sb.append(entry).append('@').append(newestLastModified(file)).append('\n');
+        }
+        return digest(sb.toString());
+    }
+
+    /**
+     * @return the SHA-1 digest of the string, in hex
+     */
+    static String digest(String string) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(string.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long newestLastModified(File file) {
+        long newest = file.lastModified();
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                newest = Math.max(newest, newestLastModified(child));
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * @return the saved state or <code>null</code> if there is none or it was saved
+     *         for a different fingerprint
+     */
+    static BuildState read(File file, String fingerprint) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != VERSION || !in.readUTF().equals(fingerprint)) {
+                    return null;
+                }
+                BuildState state = new BuildState(fingerprint);
+                for (int i = 0, n = in.readInt(); i < n; i += 1) {
+                    SourceInfo info = new SourceInfo(in.readUTF());
+                    info.lastModified = in.readLong();
+                    info.types = readStrings(in);
+                    info.qualifiedReferences = readStrings(in);
+                    info.simpleReferences = readStrings(in);
+                    state.sources.put(info.path, info);
+                }
+                return state;
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    void write(File file) throws IOException {
+        file.getParentFile().mkdirs();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(VERSION);
+            out.writeUTF(fingerprint);
+            out.writeInt(sources.size());
+            for (SourceInfo info : sources.values()) {
+                out.writeUTF(info.path);
+                out.writeLong(info.lastModified);
+                writeStrings(out, info.types);
+                writeStrings(out, info.qualifiedReferences);
+                writeStrings(out, info.simpleReferences);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n == 0) {
+            return NO_STRINGS;
+        }
+        String[] strings = new String[n];
+        for (int i = 0; i < n; i += 1) {
+            strings[i] = in.readUTF();
+        }
+        return strings;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] strings) throws IOException {
+        out.writeInt(strings.length);
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.internal.compiler.batch.ClasspathJar;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem.Classpath;
+
+/**
+ * Classpath jars that are opened and indexed once for all the in-process compiles
+ * using them at the same time, as when Maven builds modules in parallel (-T) or a
+ * {@link CompilerDaemon} serves several builds.  A jar is keyed by its path, time
+ * stamp and size, so a rebuilt jar gets a new entry, and is closed when the last
+ * compile using it releases it.
+ */
+class ClasspathJarCache {
+
+    private static final Map<String, SharedJar> jars = new HashMap<String, SharedJar>();
+
+    private static class SharedJar extends ClasspathJar {
+        final String key;
+        int references;
+
+        SharedJar(File file, String key) {
+            super(file, true/* closeZipFileAtEnd */, null/* accessRuleSet */, null/* destinationPath */);
+            this.key = key;
+        }
+
+        @Override
+        public void reset() {
+            // other compiles may still be using the jar and its package index; see release
+        }
+
+        void close() {
+            super.reset();
+        }
+    }
+
+    /**
+     * @return the shared equivalent of the given jar, opened and indexed, or the jar
+     *         itself if it cannot be opened (the compiler reports that)
+     */
+    static synchronized Classpath acquire(ClasspathJar jar) {
+        File file = new File(jar.getPath());
+        String key = file.getAbsolutePath() + '@' + file.lastModified() + '#' + file.length();
+        SharedJar shared = jars.get(key);
+        if (shared == null) {
+            shared = new SharedJar(file, key);
+            try {
+                shared.initialize();
+                // build the package index before another compile can see the jar
+                shared.isPackage("");
+            } catch (IOException e) {
+                shared.close();
+                return jar;
+            }
+            jars.put(key, shared);
+        }
+        shared.references += 1;
+        return shared;
+    }
+
+    static synchronized void release(Classpath classpath) {
+        if (classpath instanceof SharedJar) {
+            SharedJar shared = (SharedJar) classpath;
+            shared.references -= 1;
+            if (shared.references == 0) {
+                jars.remove(shared.key);
+                shared.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A long-lived process that runs the batch compiler for {@link CompilerDaemonClient}s,
+ * so that forked compiles do not pay for JVM startup, class loading and JIT warm-up
+ * every time.  It accepts connections on the loopback interface only, from clients
+ * that present the token in its port file, and compiles one request at a time; the
+ * requests of modules that are built in parallel wait their turn.  It exits after the
+ * given number of seconds without a request.  From the time a request is accepted
+ * until its result is sent, the daemon sends heartbeats, so that a client can tell a
+ * long compile, or one waiting its turn, from a daemon that has stopped answering.
+ * <p>
+ * A daemon serves the modules of any project, so it runs in a directory of its own
+ * rather than in that of the module that started it.  Each request carries the working
+ * directory of its module, against which the relative paths among its arguments are
+ * resolved.  What the compiler keeps between compiles (the {@link ClasspathJarCache},
+ * the transform loaders of the jars at the start of a classpath and the index of the
+ * jars that register global transforms) is keyed by absolute path, time stamp and
+ * size, so compiles of different modules share only jars that are the same file.
+ * <p>
+ * Usage: <code>CompilerDaemon &lt;port file&gt; &lt;idle seconds&gt;</code>
+ */
+public class CompilerDaemon {
+
+    public static void main(String[] args) throws IOException {
+        File portFile = new File(args[0]);
+        int idleSeconds = Integer.parseInt(args[1]);
+
+        CompilerDaemonClient.createDaemonDirectory(portFile);
+        PrintStream log = new PrintStream(new FileOutputStream(CompilerDaemonClient.getLogFile(portFile), true), true);
+        System.setOut(log);
+        System.setErr(log);
+
+        new CompilerDaemon(portFile, idleSeconds).run();
+    }
+
+    private final File portFile;
+    private final int idleSeconds;
+    private final String token;
+    /** the number of requests that have been accepted and not yet answered */
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final Object compileLock = new Object();
+
+    CompilerDaemon(File portFile, int idleSeconds) {
+        this.portFile = portFile;
+        this.idleSeconds = idleSeconds;
+        this.token = Long.toHexString(new SecureRandom().nextLong()) + Long.toHexString(new SecureRandom().nextLong());
+    }
+
+    void run() throws IOException {
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getByName(null));
+        try {
+            server.setSoTimeout(idleSeconds * 1000);
+            writePortFile(server.getLocalPort());
+            System.out.println(new Date() + " compiler daemon listening on port " + server.getLocalPort());
+            while (true) {
+                final Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    if (activeRequests.get() > 0) {
+                        continue; // not idle while a compile runs, however long it takes
+                    }
+                    System.out.println(new Date() + " compiler daemon idle for " + idleSeconds + " seconds; exiting");
+                    break;
+                }
+                activeRequests.incrementAndGet();
+                Thread thread = new Thread("compiler daemon request") {
+                    @Override
+                    public void run() {
+                        try {
+                            serve(socket);
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        } finally {
+                            activeRequests.decrementAndGet();
+                            try {
+                                socket.close();
+                            } catch (IOException e) {
+                                // nothing more to send
+                            }
+                        }
+                    }
+                };
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } finally {
+            deletePortFile();
+            server.close();
+        }
+    }
+
+    private void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        if (!token.equals(CompilerDaemonClient.readString(in))) {
+            System.out.println(new Date() + " rejected a request without the token");
+            return;
+        }
+        File workingDirectory = new File(CompilerDaemonClient.readString(in));
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i += 1) {
+            args[i] = CompilerDaemonClient.readString(in);
+        }
+        args = resolveArguments(args, workingDirectory);
+
+        final DataOutputStream reply = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        Timer heartbeat = new Timer("compiler daemon heartbeat", true);
+        heartbeat.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                synchronized (reply) {
+                    try {
+                        reply.writeByte(CompilerDaemonClient.HEARTBEAT);
+                        reply.flush();
+                    } catch (IOException e) {
+                        cancel(); // the client has gone away; the reply will fail as well
+                    }
+                }
+            }
+        }, CompilerDaemonClient.HEARTBEAT_MILLIS, CompilerDaemonClient.HEARTBEAT_MILLIS);
+        StringWriter out = new StringWriter();
+        PrintWriter writer = new PrintWriter(out);
+        InternalCompiler.StructuredMain main = new InternalCompiler.StructuredMain(writer, null/* progress */);
+        boolean success;
+        try {
+            synchronized (compileLock) {
+                long start = System.currentTimeMillis();
+                try {
+                    success = main.compile(args);
+                } catch (RuntimeException e) {
+                    e.printStackTrace(writer);
+                    success = false;
+                }
+                System.out.println(new Date() + " compiled " + workingDirectory + " in " + (System.currentTimeMillis() - start) +
+                        "ms; success: " + success + "; problems: " + main.problems.size());
+            }
+        } finally {
+            heartbeat.cancel();
+        }
+        writer.flush();
+
+        synchronized (reply) {
+            reply.writeByte(CompilerDaemonClient.RESULT);
+            reply.writeInt(success ? 0 : 1);
+            reply.writeInt(main.problems.size());
+            for (CompilerProblem problem : main.problems) {
+                problem.write(reply);
+            }
+            CompilerDaemonClient.writeString(reply, out.toString());
+            reply.flush();
+        }
+    }
+
+    // the options of the batch compiler whose values are files, or lists of files
+    private static final Set<String> PATH_OPTIONS = new HashSet<String>(Arrays.asList(
+        "-d", "-s", "-cp", "-classpath", "-sourcepath", "-bootclasspath", "-extdirs", "-endorseddirs", "-processorpath", "-log"));
+
+    /**
+     * Makes the files among the arguments of a compile absolute, resolving relative ones against the working directory of the
+     * module that requested it, as a compiler forked in that directory would.  These are the values of {@link #PATH_OPTIONS} and
+     * the source files.
+     */
+    static String[] resolveArguments(String[] args, File workingDirectory) {
+        String[] resolved = new String[args.length];
+        for (int i = 0; i < args.length; i += 1) {
+            String arg = args[i];
+            if (i > 0 && PATH_OPTIONS.contains(args[i - 1])) {
+                if (args[i - 1].equals("-d") && arg.equals("none")) {
+                    resolved[i] = arg;
+                } else {
+                    StringBuilder paths = new StringBuilder();
+                    for (String path : arg.split(File.pathSeparator, -1)) {
+                        if (paths.length() > 0) {
+                            paths.append(File.pathSeparatorChar);
+                        }
+                        paths.append(resolvePath(path, workingDirectory));
+                    }
+                    resolved[i] = paths.toString();
+                }
+            } else if (arg.endsWith(".java") || arg.endsWith(".groovy")) {
+                resolved[i] = resolvePath(arg, workingDirectory);
+            } else {
+                resolved[i] = arg;
+            }
+        }
+        return resolved;
+    }
+
+    private static String resolvePath(String path, File workingDirectory) {
+        // a classpath entry may be followed by access rules in brackets
+        int rules = path.indexOf('[');
+        String file = (rules < 0 ? path : path.substring(0, rules));
+        if (file.length() == 0 || new File(file).isAbsolute()) {
+            return path;
+        }
+        return new File(workingDirectory, file).getPath() + (rules < 0 ? "" : path.substring(rules));
+    }
+
+    /**
+     * Writes the port file under a temporary name and renames it, so that clients never read a partial file.  Only the owner may
+     * read the token: the temporary file is restricted before the token is written, and is new, so nobody else has it open.
+     */
+    private void writePortFile(int port) throws IOException {
+        File temp = File.createTempFile(portFile.getName(), ".tmp", portFile.getParentFile());
+        try {
+            CompilerDaemonClient.setOwnerOnly(temp);
+            FileWriter writer = new FileWriter(temp);
+            try {
+                writer.write(port + " " + token + "\n");
+            } finally {
+                writer.close();
+            }
+            // renaming replaces the port file of an earlier daemon, except on Windows, where it must be deleted first
+            if (!temp.renameTo(portFile) && !(portFile.delete() && temp.renameTo(portFile))) {
+                throw new IOException("Unable to write " + portFile);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private void deletePortFile() {
+        // another daemon may have replaced this one's port file
+        String[] portAndToken = CompilerDaemonClient.readPortFile(portFile);
+        if (portAndToken != null && portAndToken[1].equals(token)) {
+            portFile.delete();
+        }
+    }
+}
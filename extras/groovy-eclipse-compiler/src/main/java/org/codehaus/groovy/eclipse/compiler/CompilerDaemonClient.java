@@ -0,0 +1,308 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.plexus.logging.Logger;
+
+/**
+ * Sends compile requests to a {@link CompilerDaemon}, starting one if none is
+ * running for the same java executable, JVM options and compiler jars.
+ * <p>
+ * A daemon announces itself in a port file under
+ * <code>${user.home}/.groovy-eclipse-compiler-daemon</code> that is named
+ * for a digest of those settings and holds its port and a token that every
+ * request must present.  Only the user may read that directory and file.
+ * <p>
+ * Until it replies, the daemon sends a {@link #HEARTBEAT} every few seconds,
+ * so a daemon that stops answering is told apart from a long compile.  The
+ * client then gives up on it and the caller compiles without it.
+ * <p>
+ * A request is the token, the working directory of the module and the compiler
+ * arguments; the daemon resolves relative paths against that directory, since
+ * it runs in the daemon directory rather than in the module's.
+ * <p>
+ * This class must not reference any JDT classes; see {@link GroovyEclipseCompiler}.
+ */
+class CompilerDaemonClient {
+
+    static class Result {
+        final int exitCode;
+        final List<CompilerProblem> problems;
+        /** whatever the compiler printed besides the problems */
+        final String output;
+
+        Result(int exitCode, List<CompilerProblem> problems, String output) {
+            this.exitCode = exitCode;
+            this.problems = problems;
+            this.output = output;
+        }
+    }
+
+    private static final long STARTUP_MILLIS = 30000;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    /** How often the daemon reports that it is still compiling. */
+    static final int HEARTBEAT_MILLIS = 5000;
+
+    /** How long the client waits for the daemon to report anything before it gives up. */
+    private static final int REPLY_TIMEOUT_MILLIS = HEARTBEAT_MILLIS * 12;
+
+    // what the daemon sends before its reply: any number of heartbeats, then the result
+    static final int HEARTBEAT = 0, RESULT = 1;
+
+    // by name, so that loading this class does not load the daemon, which refers to JDT
+    private static final String DAEMON_CLASS = "org.codehaus.groovy.eclipse.compiler.CompilerDaemon";
+
+    private final String executable;
+    private final List<String> jvmOptions;
+    private final String classpath;
+    private final int idleSeconds;
+    private final Logger logger;
+    private final File daemonDirectory;
+    private final int replyTimeoutMillis;
+
+    CompilerDaemonClient(String executable, List<String> jvmOptions, String classpath, int idleSeconds, Logger logger) {
+        this(executable, jvmOptions, classpath, idleSeconds, logger, getDaemonDirectory(), REPLY_TIMEOUT_MILLIS);
+    }
+
+    CompilerDaemonClient(String executable, List<String> jvmOptions, String classpath, int idleSeconds, Logger logger,
+            File daemonDirectory, int replyTimeoutMillis) {
+        this.executable = executable;
+        this.jvmOptions = jvmOptions;
+        this.classpath = classpath;
+        this.idleSeconds = idleSeconds;
+        this.logger = logger;
+        this.daemonDirectory = daemonDirectory;
+        this.replyTimeoutMillis = replyTimeoutMillis;
+    }
+
+    /**
+     * Compiles with the daemon, starting it first if necessary.
+     *
+     * @param workingDirectory the directory of the module, against which the daemon resolves relative paths in the arguments
+     * @return the result or <code>null</code> if no daemon could be reached
+     */
+    Result compile(File workingDirectory, String[] args) {
+        File portFile = getPortFile();
+        try {
+            Result result = request(portFile, workingDirectory, args);
+            if (result != null) {
+                return result;
+            }
+            portFile.delete();
+            if (!startDaemon(portFile)) {
+                return null;
+            }
+            return request(portFile, workingDirectory, args);
+        } catch (SocketTimeoutException e) {
+            logger.warn("Compiler daemon did not answer within " + replyTimeoutMillis / 1000.0 + " seconds; see " + getLogFile(portFile));
+            return null;
+        } catch (IOException e) {
+            logger.warn("Compiler daemon request failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the result or <code>null</code> if there is no daemon to connect to
+     */
+    private Result request(File portFile, File workingDirectory, String[] args) throws IOException {
+        String[] portAndToken = readPortFile(portFile);
+        if (portAndToken == null) {
+            return null;
+        }
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getByName(null), Integer.parseInt(portAndToken[0])), CONNECT_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            socket.close();
+            return null; // the daemon has gone away
+        }
+        try {
+            socket.setSoTimeout(replyTimeoutMillis);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            writeString(out, portAndToken[1]);
+            writeString(out, workingDirectory.getAbsolutePath());
+            out.writeInt(args.length);
+            for (String arg : args) {
+                writeString(out, arg);
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            int status;
+            try {
+                while ((status = in.readByte()) == HEARTBEAT) {
+                    // still compiling
+                }
+            } catch (SocketTimeoutException e) {
+                // so that the next compile starts a new daemon rather than waiting on this one again
+                String[] current = readPortFile(portFile);
+                if (current != null && current[1].equals(portAndToken[1])) {
+                    portFile.delete();
+                }
+                throw e;
+            }
+            if (status != RESULT) {
+                throw new IOException("Unexpected reply from the compiler daemon: " + status);
+            }
+            int exitCode = in.readInt();
+            List<CompilerProblem> problems = new ArrayList<CompilerProblem>();
+            for (int i = 0, n = in.readInt(); i < n; i += 1) {
+                problems.add(CompilerProblem.read(in));
+            }
+            return new Result(exitCode, problems, readString(in));
+        } finally {
+            socket.close();
+        }
+    }
+
+    private boolean startDaemon(File portFile) throws IOException {
+        List<String> command = new ArrayList<String>();
+        command.add(executable);
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(DAEMON_CLASS);
+        command.add(portFile.getAbsolutePath());
+        command.add(String.valueOf(idleSeconds));
+        logger.info("Starting compiler daemon: " + command);
+
+        // in a directory of its own, since it outlives the module that starts it and serves others
+        createDaemonDirectory(portFile);
+        Process process = new ProcessBuilder(command).directory(portFile.getParentFile()).redirectErrorStream(true).start();
+        // the daemon writes its output to a log file, not to these streams
+        process.getOutputStream().close();
+        process.getInputStream().close();
+
+        long deadline = System.currentTimeMillis() + STARTUP_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (readPortFile(portFile) != null) {
+                return true;
+            }
+            try {
+                process.exitValue();
+                logger.warn("Compiler daemon exited during startup; see " + getLogFile(portFile));
+                return false;
+            } catch (IllegalThreadStateException stillRunning) {
+                // keep waiting
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        logger.warn("Compiler daemon did not start within " + STARTUP_MILLIS / 1000 + " seconds");
+        process.destroy();
+        return false;
+    }
+
+    File getPortFile() {
+        StringBuilder key = new StringBuilder(executable);
+        for (String option : jvmOptions) {
+            key.append('\n').append(option);
+        }
+        for (String entry : classpath.split(File.pathSeparator)) {
+            key.append('\n').append(entry).append('@').append(new File(entry).lastModified());
+        }
+        return new File(daemonDirectory, BuildState.digest(key.toString()) + ".port");
+    }
+
+    private static File getDaemonDirectory() {
+        // in the user's home rather than the shared temp directory, which another user could have created the directory in
+        return new File(System.getProperty("user.home"), ".groovy-eclipse-compiler-daemon");
+    }
+
+    /**
+     * Creates the directory of the port file, if needed, so that only the user may list or open its files.
+     */
+    static void createDaemonDirectory(File portFile) throws IOException {
+        File directory = portFile.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        setOwnerOnly(directory);
+        directory.setExecutable(false, false);
+        directory.setExecutable(true, true);
+    }
+
+    static void setOwnerOnly(File file) {
+        file.setReadable(false, false);
+        file.setReadable(true, true);
+        file.setWritable(false, false);
+        file.setWritable(true, true);
+    }
+
+    static File getLogFile(File portFile) {
+        String name = portFile.getName();
+        return new File(portFile.getParentFile(), name.substring(0, name.lastIndexOf('.')) + ".log");
+    }
+
+    static String[] readPortFile(File portFile) {
+        if (!portFile.isFile()) {
+            return null;
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(portFile));
+            try {
+                String line = reader.readLine();
+                if (line != null) {
+                    String[] portAndToken = line.split(" ");
+                    if (portAndToken.length == 2) {
+                        return portAndToken;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            // fall through
+        }
+        return null;
+    }
+
+    // strings are written as UTF-8 with an int length, since DataOutput.writeUTF is limited to 64K (too small for a classpath)
+
+    static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.compiler;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A problem reported by the batch compiler, handed to {@link GroovyEclipseCompiler}
+ * as is rather than printed and parsed back.  Problems pass from a
+ * {@link CompilerDaemon} to its clients in the binary form of {@link #write}.
+ * <p>
+ * This class must not reference any JDT classes; see {@link GroovyEclipseCompiler}.
+ */
+class CompilerProblem {
+
+    static final int ERROR = 1;
+    static final int WARNING = 2;
+    static final int INFO = 3;
+
+    final int severity;
+    /** the source file or <code>null</code> if the problem is not about one */
+    final String file;
+    /** 1-based; 0 if unknown */
+    final int line;
+    /** 1-based and inclusive; 0 if unknown */
+    final int startColumn, endColumn;
+    final String message;
+
+    CompilerProblem(int severity, String file, int line, int startColumn, int endColumn, String message) {
+        this.severity = severity;
+        this.file = file;
+        this.line = line;
+        this.startColumn = startColumn;
+        this.endColumn = endColumn;
+        this.message = message;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeByte(severity);
+        CompilerDaemonClient.writeString(out, file != null ? file : "");
+        out.writeInt(line);
+        out.writeInt(startColumn);
+        out.writeInt(endColumn);
+        CompilerDaemonClient.writeString(out, message);
+    }
+
+    static CompilerProblem read(DataInputStream in) throws IOException {
+        int severity = in.readByte();
+        String file = CompilerDaemonClient.readString(in);
+        int line = in.readInt();
+        int startColumn = in.readInt();
+        int endColumn = in.readInt();
+        String message = CompilerDaemonClient.readString(in);
+        return new CompilerProblem(severity, file.length() > 0 ? file : null, line, startColumn, endColumn, message);
+    }
+}
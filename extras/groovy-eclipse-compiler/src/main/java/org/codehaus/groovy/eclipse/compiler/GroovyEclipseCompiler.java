@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +43,7 @@ import org.codehaus.plexus.compiler.CompilerResult;
 import org.codehaus.plexus.compiler.CompilerMessage.Kind;
 import org.codehaus.plexus.compiler.CompilerOutputStyle;
 import org.codehaus.plexus.compiler.util.scan.InclusionScanException;
+import org.codehaus.plexus.compiler.util.scan.SimpleSourceInclusionScanner;
 import org.codehaus.plexus.compiler.util.scan.SourceInclusionScanner;
 import org.codehaus.plexus.compiler.util.scan.StaleSourceScanner;
 import org.codehaus.plexus.compiler.util.scan.mapping.SourceMapping;
@@ -74,6 +76,11 @@ public class GroovyEclipseCompiler extends AbstractCompiler {
 
     private String javaAgentClass = "";
 
+    // compile in a long-lived daemon process rather than in a new process each time; the value is its idle timeout in seconds
+    private static final String COMPILER_DAEMON_PARAM_NAME = "-compilerDaemon";
+
+    private static final int DEFAULT_DAEMON_IDLE_SECONDS = 3 * 60 * 60;
+
     boolean verbose;
 
     public GroovyEclipseCompiler() {
@@ -105,6 +112,9 @@ public class GroovyEclipseCompiler extends AbstractCompiler {
     }
 
     private boolean internalCompile(CompilerConfiguration config, List<CompilerMessage> messages) throws CompilerException {
+        if (!config.isFork()) {
+            return incrementalCompile(config, messages);
+        }
 
         String[] args = createCommandLine(config);
         if (args.length == 0) {
@@ -126,22 +136,134 @@ public class GroovyEclipseCompiler extends AbstractCompiler {
             }
 
             String groovyEclipseLocation = getGroovyEclipseBatchLocation();
+            int daemonIdleSeconds = getDaemonIdleSeconds(config);
+            if (daemonIdleSeconds > 0) {
+                CompilerDaemonClient.Result result = compileWithDaemon(config, executable, groovyEclipseLocation, args, daemonIdleSeconds);
+                if (result != null) {
+                    messages.addAll(toMessages(result.problems, config.isShowWarnings()));
+                    try {
+                        messages.addAll(parseMessages(result.exitCode, result.output, config.isShowWarnings()));
+                    } catch (IOException e) {
+                        throw new CompilerException("Error while reading the compiler daemon's output.", e);
+                    }
+                    if (result.exitCode != 0 && messages.isEmpty()) {
+                        messages.add(new CompilerMessage("Failure executing groovy-eclipse compiler:" + EOL + result.output, Kind.ERROR));
+                    }
+                    return result.exitCode == 0;
+                }
+                // forked as without the daemon, so that the compile still runs in the module's directory and with its JVM options
+                getLogger().warn("Compiler daemon is not available; compiling in a forked process");
+            }
             success = compileOutOfProcess(config, executable, groovyEclipseLocation, args, messages);
         } else {
-            StringWriter out = new StringWriter();
-            Result result = InternalCompiler.doCompile(args, out, getLogger(), verbose);
-            success = result.success;
+            success = compileInProcess(config, args, messages);
+        }
+        return success;
+    }
+
+    private boolean compileInProcess(CompilerConfiguration config, String[] args, List<CompilerMessage> messages) {
+        StringWriter out = new StringWriter();
+        Result result = InternalCompiler.doCompile(args, out, getLogger(), verbose);
+        boolean success = result.success;
+        messages.addAll(toMessages(result.problems, config.isShowWarnings()));
+        try {
+            messages.addAll(parseMessages(success ? 0 : 1, out.getBuffer().toString(), config.isShowWarnings()));
+        } catch (IOException e) {
+            // the problems above are still reported
+        }
+
+        if (!success) {
+            messages.add(formatResult(success, result.globalErrorsCount, result.globalWarningsCount));
+        }
+        return success;
+    }
+
+    /**
+     * @return the idle timeout of the compiler daemon in seconds, or 0 if no daemon should be used
+     */
+    private static int getDaemonIdleSeconds(CompilerConfiguration config) {
+        Map<String, String> customArgs = config.getCustomCompilerArgumentsAsMap();
+        if (!customArgs.containsKey(COMPILER_DAEMON_PARAM_NAME)) {
+            return 0;
+        }
+        String value = customArgs.get(COMPILER_DAEMON_PARAM_NAME);
+        return StringUtils.isEmpty(value) ? DEFAULT_DAEMON_IDLE_SECONDS : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Compiles in process, limited to the changed source files and their dependents
+     * when the {@link BuildState} saved by the previous compile is usable.
+     */
+    private boolean incrementalCompile(CompilerConfiguration config, List<CompilerMessage> messages) throws CompilerException {
+        File destinationDir = new File(config.getOutputLocation());
+        if (!destinationDir.exists()) {
+            destinationDir.mkdirs();
+        }
+        addGroovySourceLocations(config, destinationDir);
+        verbose = config.isVerbose();
+
+        Set<File> sourceFiles = computeAllSources(config);
+        config.setSourceFiles(sourceFiles);
+        if (sourceFiles.isEmpty()) {
+            getLogger().info("Nothing to compile - all classes are up to date");
+            return true;
+        }
+        String[] args = flattenArgumentsMap(createArguments(config));
+
+        File buildDir = config.getBuildDirectory() != null ? config.getBuildDirectory() : destinationDir.getParentFile();
+        File stateFile = BuildState.getStateFile(buildDir, destinationDir);
+        String fingerprint = BuildState.fingerprint(args, config.getClasspathEntries(), destinationDir);
+        BuildState previous = BuildState.read(stateFile, fingerprint);
+        BuildState current = new BuildState(fingerprint);
+
+        getLogger().info("Using Groovy-Eclipse compiler to compile both Java and Groovy files");
+        if (previous == null) {
+            getLogger().info("No usable build state in " + stateFile + "; compiling all " + sourceFiles.size() + " source files");
+        }
+        if (verbose) {
+            getLogger().info("All args: " + Arrays.toString(args));
+        }
+
+        StringWriter out = new StringWriter();
+        Result result = InternalCompiler.doIncrementalCompile(args, sourceFiles, destinationDir, previous, current, out, getLogger(), verbose);
+        boolean success = result.success;
+        messages.addAll(toMessages(result.problems, config.isShowWarnings()));
+        try {
+            messages.addAll(parseMessages(success ? 0 : 1, out.getBuffer().toString(), config.isShowWarnings()));
+        } catch (IOException e) {
+            messages = new ArrayList<CompilerMessage>(1);
+        }
+        if (!success) {
+            messages.add(formatResult(success, result.globalErrorsCount, result.globalWarningsCount));
+            // recompile everything next time rather than track which files failed
+            stateFile.delete();
+        } else {
             try {
-                messages.addAll(parseMessages(success ? 0 : 1, out.getBuffer().toString(), config.isShowWarnings()));
+                current.write(stateFile);
             } catch (IOException e) {
-                messages = new ArrayList<CompilerMessage>(1);
+                getLogger().warn("Unable to write build state to " + stateFile, e);
+                stateFile.delete();
             }
+        }
+        return success;
+    }
 
-            if (!success) {
-                messages.add(formatResult(success, result.globalErrorsCount, result.globalWarningsCount));
+    /**
+     * @return all the included Groovy and Java source files
+     */
+    private Set<File> computeAllSources(CompilerConfiguration config) throws CompilerException {
+        Set<String> includes = config.getIncludes();
+        if (includes == null || includes.isEmpty()) {
+            includes = Collections.singleton("**/*");
+        }
+        Set<File> sources = computeStaleSources(config, new SimpleSourceInclusionScanner(includes, config.getExcludes()));
+        for (Iterator<File> it = sources.iterator(); it.hasNext();) {
+            String name = it.next().getName();
+            if (!name.endsWith(".groovy") && !name.endsWith(".java")) {
+                it.remove();
             }
         }
-        return success;
+        return sources;
     }
 
     private File[] recalculateStaleFiles(CompilerConfiguration config) throws CompilerException {
@@ -197,7 +319,33 @@ public class GroovyEclipseCompiler extends AbstractCompiler {
         if (!destinationDir.exists()) {
             destinationDir.mkdirs();
         }
+        addGroovySourceLocations(config, destinationDir);
+
+        // recalculate stale files since they were not properly calculated in
+        // super
+        File[] sourceFiles = recalculateStaleFiles(config);
+
+        if (sourceFiles.length == 0) {
+            return new String[0];
+        }
+
+        getLogger().info("Using Groovy-Eclipse compiler to compile both Java and Groovy files");
+        getLogger().debug(
+                "Compiling " + sourceFiles.length + " " + "source file" + (sourceFiles.length == 1 ? "" : "s") + " to "
+                        + destinationDir.getAbsolutePath());
+
+        Map<String,String> args = createArguments(config);
+        args.putAll(composeSourceFiles(sourceFiles));
+
+        String[] argsList = flattenArgumentsMap(args);
+        if (verbose) {
+            getLogger().info("All args: " + Arrays.toString(argsList));
+        }
 
+        return argsList;
+    }
+
+    private void addGroovySourceLocations(CompilerConfiguration config, File destinationDir) {
         // adds src/main/groovy and src/test/groovy if exksts not already added
         File workingDirectory = config.getWorkingDirectory();
         // assume dest dir for main is in target/classes and for test is in
@@ -216,19 +364,12 @@ public class GroovyEclipseCompiler extends AbstractCompiler {
                 config.addSourceLocation(srcTestGroovy.getAbsolutePath());
             }
         }
-        // recalculate stale files since they were not properly calculated in
-        // super
-        File[] sourceFiles = recalculateStaleFiles(config);
-
-        if (sourceFiles.length == 0) {
-            return new String[0];
-        }
-
-        getLogger().info("Using Groovy-Eclipse compiler to compile both Java and Groovy files");
-        getLogger().debug(
-                "Compiling " + sourceFiles.length + " " + "source file" + (sourceFiles.length == 1 ? "" : "s") + " to "
-                        + destinationDir.getAbsolutePath());
+    }
 
+    /**
+     * @return the compiler arguments other than the source files
+     */
+    private Map<String,String> createArguments(CompilerConfiguration config) {
         // intentionally using DeduplicatingHashMap to preserve order and Map to deduplicate values
         // See https://jira.codehaus.org/browse/GRECLIPSE-1659
         Map<String,String> args = new DeduplicatingHashMap<String,String>(getLogger());
@@ -316,6 +457,9 @@ public class GroovyEclipseCompiler extends AbstractCompiler {
                     // do not add the custom java agent arg because it is not
                     // expected by groovy-eclipse compiler
                     continue;
+                } else if (COMPILER_DAEMON_PARAM_NAME.equals(key)) {
+                    // not a compiler argument; see getDaemonIdleSeconds
+                    continue;
                 } else {
                     // don't add a "-" if the arg
                     // already has one
@@ -334,14 +478,7 @@ public class GroovyEclipseCompiler extends AbstractCompiler {
 
         }
 
-        args.putAll(composeSourceFiles(sourceFiles));
-
-        String[] argsList = flattenArgumentsMap(args);
-        if (verbose) {
-            getLogger().info("All args: " + Arrays.toString(argsList));
-        }
-
-        return argsList;
+        return args;
     }
 
     private Set<File> computeStaleSources(CompilerConfiguration compilerConfiguration, SourceInclusionScanner scanner)
@@ -376,6 +513,31 @@ public class GroovyEclipseCompiler extends AbstractCompiler {
         return staleSources;
     }
 
+    /**
+     * Compiles in a {@link CompilerDaemon} that is reused across modules and builds;
+     * one is started for the executable, JVM options and compiler jars if needed.
+     *
+     * @return the result or <code>null</code> if the daemon could not be used
+     */
+    private CompilerDaemonClient.Result compileWithDaemon(CompilerConfiguration config, String executable,
+            String groovyEclipseLocation, String[] args, int daemonIdleSeconds) throws CompilerException {
+        List<String> jvmOptions = new ArrayList<String>();
+        if (!StringUtils.isEmpty(javaAgentClass)) {
+            jvmOptions.add("-javaagent:" + getAdditionnalJavaAgentLocation());
+        }
+        if (!StringUtils.isEmpty(config.getMaxmem())) {
+            jvmOptions.add("-Xmx" + config.getMaxmem());
+        }
+        if (!StringUtils.isEmpty(config.getMeminitial())) {
+            jvmOptions.add("-Xms" + config.getMeminitial());
+        }
+        String classpath = groovyEclipseLocation + File.pathSeparator + getClassLocation(GroovyEclipseCompiler.class.getName());
+
+        getLogger().info("Compiling with the compiler daemon");
+        return new CompilerDaemonClient(executable, jvmOptions, classpath, daemonIdleSeconds, getLogger())
+            .compile(config.getWorkingDirectory(), args);
+    }
+
     /**
      * Compile the java sources in a external process, calling an external
      * executable, like javac.
@@ -464,6 +626,28 @@ public class GroovyEclipseCompiler extends AbstractCompiler {
         return returnCode == 0;
     }
 
+    /**
+     * Converts the problems that an in-process compile or a compiler daemon hands
+     * over directly; the other output of the compiler is still parsed.
+     */
+    private List<CompilerMessage> toMessages(List<CompilerProblem> problems, boolean showWarnings) {
+        List<CompilerMessage> messages = new ArrayList<CompilerMessage>(problems.size());
+        for (CompilerProblem problem : problems) {
+            Kind kind = problem.severity == CompilerProblem.ERROR ? Kind.ERROR :
+                problem.severity == CompilerProblem.WARNING ? Kind.WARNING : Kind.NOTE;
+            if (!showWarnings && kind != Kind.ERROR) {
+                continue;
+            }
+            if (problem.file != null) {
+                messages.add(new CompilerMessage(problem.file, kind, problem.line, problem.startColumn,
+                    problem.line, problem.endColumn, problem.message));
+            } else {
+                messages.add(new CompilerMessage(problem.message, kind));
+            }
+        }
+        return messages;
+    }
+
     /**
      * Parse the output from the compiler into a list of CompilerError objects
      *
@@ -17,12 +17,36 @@
  */
 package org.codehaus.groovy.eclipse.compiler;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.codehaus.groovy.eclipse.compiler.BuildState.SourceInfo;
 import org.codehaus.plexus.logging.Logger;
+import org.eclipse.jdt.core.compiler.CategorizedProblem;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.compiler.CompilationProgress;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.internal.compiler.ClassFile;
+import org.eclipse.jdt.internal.compiler.CompilationResult;
+import org.eclipse.jdt.internal.compiler.ICompilerRequestor;
+import org.eclipse.jdt.internal.compiler.batch.ClasspathJar;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem.Classpath;
 import org.eclipse.jdt.internal.compiler.batch.Main;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException;
 
 /**
  * Simple progress monitor to keep track of number of files compiled.
@@ -37,11 +61,13 @@ class InternalCompiler extends CompilationProgress {
         final boolean success;
         final int globalErrorsCount;
         final int globalWarningsCount;
-        public Result(boolean success, int globalErrorCount, int globalWarningCount) {
+        final List<CompilerProblem> problems;
+        public Result(boolean success, int globalErrorCount, int globalWarningCount, List<CompilerProblem> problems) {
             super();
             this.success = success;
             this.globalErrorsCount = globalErrorCount;
             this.globalWarningsCount = globalWarningCount;
+            this.problems = problems;
         }
     }
 
@@ -79,9 +105,384 @@ class InternalCompiler extends CompilationProgress {
 
     static Result doCompile(String[] args, StringWriter out, Logger logger, boolean verbose) {
         InternalCompiler progress = new InternalCompiler(logger, verbose);
-        Main main = new Main(new PrintWriter(out), new PrintWriter(out), false/* systemExit */,
-                null/* options */, progress);
+        StructuredMain main = new StructuredMain(new PrintWriter(out), progress);
         boolean result = main.compile(args);
-        return new Result(result, main.globalErrorsCount, main.globalWarningsCount);
+        return new Result(result, main.globalErrorsCount, main.globalWarningsCount, main.problems);
     }
-}
\ No newline at end of file
+
+    /**
+     * Compiles the source files that have changed since the previous compile
+     * (all of them if there is no previous state) and then, round by round, the
+     * unchanged source files that refer to types whose class files changed
+     * structurally, like the JDT incremental builder.
+     *
+     * @param args compiler arguments other than the source files
+     * @param sourceFiles all the source files of the output folder
+     * @param previous the state of the previous compile or <code>null</code>
+     * @param current receives the state of this compile
+     */
+    static Result doIncrementalCompile(String[] args, Collection<File> sourceFiles, File outputDirectory,
+            BuildState previous, BuildState current, StringWriter out, Logger logger, boolean verbose) {
+        Set<String> sources = new HashSet<String>();
+        for (File sourceFile : sourceFiles) {
+            sources.add(sourceFile.getAbsolutePath());
+        }
+
+        Set<String> toCompile = new HashSet<String>();
+        Set<String> changedTypes = new HashSet<String>();
+        if (previous == null) {
+            toCompile.addAll(sources);
+        } else {
+            for (String path : sources) {
+                SourceInfo info = previous.sources.get(path);
+                if (info == null || info.lastModified != new File(path).lastModified() || !classFilesExist(info, outputDirectory)) {
+                    toCompile.add(path);
+                } else {
+                    current.sources.put(path, info);
+                }
+            }
+            for (SourceInfo info : previous.sources.values()) {
+                if (!sources.contains(info.path)) {
+                    // the source file was deleted, so are its types
+                    for (String type : info.types) {
+                        classFile(outputDirectory, type).delete();
+                        changedTypes.add(type);
+                    }
+                }
+            }
+            toCompile.addAll(current.findDependents(changedTypes, toCompile));
+        }
+
+        if (toCompile.isEmpty()) {
+            logger.info("Nothing to compile - all classes are up to date");
+        }
+
+        Set<String> compiled = new HashSet<String>();
+        List<CompilerProblem> problems = new ArrayList<CompilerProblem>();
+        int errors = 0, warnings = 0;
+        for (int round = 1; !toCompile.isEmpty(); round += 1) {
+            if (verbose || round > 1) {
+                logger.info("Compiling " + toCompile.size() + (round == 1 ? " changed" : " dependent") +
+                        " source file" + (toCompile.size() == 1 ? "" : "s"));
+            }
+            Map<String, byte[]> oldClassFiles = new HashMap<String, byte[]>();
+            if (previous != null) {
+                for (String path : toCompile) {
+                    SourceInfo info = previous.sources.get(path);
+                    if (info != null) {
+                        for (String type : info.types) {
+                            byte[] bytes = readClassFile(outputDirectory, type);
+                            if (bytes != null) {
+                                oldClassFiles.put(type, bytes);
+                            }
+                        }
+                    }
+                }
+            }
+
+            List<String> roundArgs = new ArrayList<String>(Arrays.asList(args));
+            roundArgs.add("-referenceInfo");
+            roundArgs.addAll(toCompile);
+            InternalCompiler progress = new InternalCompiler(logger, verbose);
+            RecordingMain main = new RecordingMain(new PrintWriter(out), progress, toCompile);
+            boolean success = main.compile(roundArgs.toArray(new String[roundArgs.size()]));
+            errors += main.globalErrorsCount;
+            warnings += main.globalWarningsCount;
+            problems.addAll(main.problems);
+            compiled.addAll(toCompile);
+            if (!success) {
+                return new Result(false, errors, warnings, problems);
+            }
+
+            changedTypes.clear();
+            for (String path : toCompile) {
+                SourceInfo info = main.recorded.get(path);
+                if (info == null) {
+                    info = new SourceInfo(path);
+                }
+                info.lastModified = new File(path).lastModified();
+                Set<String> types = new HashSet<String>(Arrays.asList(info.types));
+                for (String type : info.types) {
+                    byte[] oldBytes = oldClassFiles.get(type);
+                    byte[] newBytes = readClassFile(outputDirectory, type);
+                    if (isLocalOrAnonymous(newBytes != null ? newBytes : oldBytes, type)) {
+                        // like closure classes, which Groovy numbers in order; only visible to the types of the same source
+                    } else if (oldBytes == null || hasStructuralChanges(oldBytes, newBytes, type)) {
+                        changedTypes.add(type);
+                    }
+                }
+                SourceInfo old = (previous != null ? previous.sources.get(path) : null);
+                if (old != null) {
+                    for (String type : old.types) {
+                        if (!types.contains(type)) {
+                            classFile(outputDirectory, type).delete();
+                            byte[] oldBytes = oldClassFiles.get(type);
+                            if (oldBytes == null || !isLocalOrAnonymous(oldBytes, type)) {
+                                changedTypes.add(type);
+                            }
+                        }
+                    }
+                }
+                current.sources.put(path, info);
+            }
+            toCompile = (previous != null ? current.findDependents(changedTypes, compiled) : new HashSet<String>());
+        }
+        return new Result(true, errors, warnings, problems);
+    }
+
+    private static boolean classFilesExist(SourceInfo info, File outputDirectory) {
+        for (String type : info.types) {
+            if (!classFile(outputDirectory, type).isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static File classFile(File outputDirectory, String type) {
+        return new File(outputDirectory, type.replace('/', File.separatorChar) + ".class");
+    }
+
+    private static byte[] readClassFile(File outputDirectory, String type) {
+        File file = classFile(outputDirectory, type);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            InputStream in = new FileInputStream(file);
+            try {
+                byte[] bytes = new byte[(int) file.length()];
+                int n = 0;
+                while (n < bytes.length) {
+                    int read = in.read(bytes, n, bytes.length - n);
+                    if (read < 0) {
+                        break;
+                    }
+                    n += read;
+                }
+                return n == bytes.length ? bytes : null;
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasStructuralChanges(byte[] oldBytes, byte[] newBytes, String type) {
+        if (newBytes == null) {
+            return true;
+        }
+        try {
+            return new ClassFileReader(oldBytes, type.toCharArray()).hasStructuralChanges(newBytes);
+        } catch (ClassFormatException e) {
+            return true;
+        }
+    }
+
+    private static boolean isLocalOrAnonymous(byte[] bytes, String type) {
+        if (bytes == null) {
+            return false;
+        }
+        try {
+            ClassFileReader reader = new ClassFileReader(bytes, type.toCharArray());
+            return reader.isLocal() || reader.isAnonymous();
+        } catch (ClassFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records the types declared and the names referenced by each compiled source file.
+     */
+    private static class RecordingMain extends StructuredMain {
+        final Map<String, SourceInfo> recorded = new HashMap<String, SourceInfo>();
+        private final Set<String> sources;
+
+        RecordingMain(PrintWriter writer, CompilationProgress progress, Set<String> sources) {
+            super(writer, progress);
+            this.sources = sources;
+        }
+
+        @Override
+        public ICompilerRequestor getBatchRequestor() {
+            final ICompilerRequestor requestor = super.getBatchRequestor();
+            return new ICompilerRequestor() {
+                public void acceptResult(CompilationResult result) {
+                    record(result);
+                    requestor.acceptResult(result);
+                }
+            };
+        }
+
+        void record(CompilationResult result) {
+            String path = new File(String.valueOf(result.getFileName())).getAbsolutePath();
+            if (!sources.contains(path)) {
+                return; // generated by an annotation processor
+            }
+            SourceInfo info = new SourceInfo(path);
+            List<String> types = new ArrayList<String>();
+            if (result.compiledTypes != null) {
+                for (Object classFile : result.compiledTypes.values()) {
+                    types.add(String.valueOf(((ClassFile) classFile).fileName()));
+                }
+            }
+            info.types = types.toArray(BuildState.NO_STRINGS);
+            if (result.qualifiedReferences != null) {
+                String[] names = new String[result.qualifiedReferences.length];
+                for (int i = 0; i < names.length; i += 1) {
+                    names[i] = CharOperation.toString(result.qualifiedReferences[i]);
+                }
+                info.qualifiedReferences = names;
+            }
+            if (result.simpleNameReferences != null) {
+                String[] names = new String[result.simpleNameReferences.length];
+                for (int i = 0; i < names.length; i += 1) {
+                    names[i] = String.valueOf(result.simpleNameReferences[i]);
+                }
+                info.simpleReferences = names;
+            }
+            recorded.put(path, info);
+        }
+    }
+
+    /**
+     * A batch compiler that hands its problems over as {@link CompilerProblem}s
+     * instead of rendering them, with their source lines, for
+     * {@link GroovyEclipseCompiler} to parse back.  Anything else it has to say
+     * (usage, classpath and annotation processing messages) is still printed.
+     * <p>
+     * Its classpath jars come from the {@link ClasspathJarCache}, so compiles that
+     * run at the same time in this JVM open and index each jar only once.
+     */
+    static class StructuredMain extends Main {
+        final List<CompilerProblem> problems = new ArrayList<CompilerProblem>();
+        private final PrintWriter writer;
+        private final List<Classpath> sharedJars = new ArrayList<Classpath>();
+        private boolean shareJars;
+
+        StructuredMain(PrintWriter writer, CompilationProgress progress) {
+            super(writer, writer, false/* systemExit */, null/* options */, progress);
+            this.writer = writer;
+        }
+
+        @Override
+        public boolean compile(String[] argv) {
+            // a log file (-log) gets the problems in full, so keep the printing logger for it
+            if (!Arrays.asList(argv).contains("-log")) {
+                logger = new ProblemLogger();
+            }
+            shareJars = !hasAccessRules(argv);
+            try {
+                return super.compile(argv);
+            } finally {
+                for (Classpath jar : sharedJars) {
+                    ClasspathJarCache.release(jar);
+                }
+                sharedJars.clear();
+            }
+        }
+
+        @Override
+        public FileSystem getLibraryAccess() {
+            if (shareJars && checkedClasspaths != null) {
+                Classpath[] classpaths = checkedClasspaths.clone();
+                for (int i = 0; i < classpaths.length; i += 1) {
+                    // not subclasses, like source jars
+                    if (classpaths[i].getClass() == ClasspathJar.class) {
+                        classpaths[i] = ClasspathJarCache.acquire((ClasspathJar) classpaths[i]);
+                        sharedJars.add(classpaths[i]);
+                    }
+                }
+                checkedClasspaths = classpaths;
+            }
+            return super.getLibraryAccess();
+        }
+
+        /**
+         * Shared jars have no access rules, so a classpath that gives any (like
+         * <code>lib.jar[-**&#47;internal/*]</code>) is not shared.
+         */
+        private static boolean hasAccessRules(String[] argv) {
+            for (int i = 1; i < argv.length; i += 1) {
+                String option = argv[i - 1];
+                if ((option.equals("-cp") || option.equals("-classpath") || option.equals("-bootclasspath")) &&
+                        argv[i].indexOf('[') >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private class ProblemLogger extends Main.Logger {
+            ProblemLogger() {
+                super(StructuredMain.this, writer, writer);
+            }
+
+            @Override
+            public int logProblems(CategorizedProblem[] problems, char[] unitSource, Main currentMain) {
+                int localErrorCount = 0;
+                for (CategorizedProblem problem : problems) {
+                    if (problem != null) {
+                        // keep count like the printing logger
+                        currentMain.globalProblemsCount += 1;
+                        if (problem.isError()) {
+                            localErrorCount += 1;
+                            currentMain.globalErrorsCount += 1;
+                        } else if (problem.getID() == IProblem.Task) {
+                            currentMain.globalTasksCount += 1;
+                        } else if (problem.isWarning()) {
+                            currentMain.globalWarningsCount += 1;
+                        }
+                        record(problem, unitSource);
+                    }
+                }
+                return localErrorCount;
+            }
+
+            @Override
+            public void loggingExtraProblems(Main currentMain) {
+                if (extraProblems != null) {
+                    for (Object o : extraProblems) {
+                        CategorizedProblem problem = (CategorizedProblem) o;
+                        if (problem != null) {
+                            currentMain.globalProblemsCount += 1;
+                            if (problem.isError()) {
+                                currentMain.globalErrorsCount += 1;
+                            } else if (problem.isWarning()) {
+                                currentMain.globalWarningsCount += 1;
+                            }
+                            record(problem, null);
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void logProblemsSummary(int globalProblemsCount, int globalErrorsCount, int globalWarningsCount, int globalTasksCount) {
+                // GroovyEclipseCompiler reports the totals itself
+            }
+        }
+
+        void record(CategorizedProblem problem, char[] unitSource) {
+            int severity = problem.isError() ? CompilerProblem.ERROR : problem.isWarning() ? CompilerProblem.WARNING : CompilerProblem.INFO;
+            char[] fileName = problem.getOriginatingFileName();
+            int line = Math.max(problem.getSourceLineNumber(), 0);
+            int startColumn = 0, endColumn = 0;
+            int start = problem.getSourceStart(), end = problem.getSourceEnd();
+            if (unitSource != null && start >= 0 && start < unitSource.length) {
+                int lineStart = start, lineEnd = start;
+                while (lineStart > 0 && unitSource[lineStart - 1] != '\n' && unitSource[lineStart - 1] != '\r') {
+                    lineStart -= 1;
+                }
+                while (lineEnd < unitSource.length && unitSource[lineEnd] != '\n' && unitSource[lineEnd] != '\r') {
+                    lineEnd += 1;
+                }
+                startColumn = start - lineStart + 1;
+                endColumn = Math.max(Math.min(end, lineEnd - 1), start) - lineStart + 1;
+            }
+            problems.add(new CompilerProblem(severity, fileName != null ? String.valueOf(fileName) : null,
+                    line, startColumn, endColumn, problem.getMessage()));
+        }
+    }
+}
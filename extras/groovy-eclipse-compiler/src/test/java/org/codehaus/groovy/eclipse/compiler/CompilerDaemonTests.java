@@ -0,0 +1,340 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.logging.Logger;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+
+/**
+ * Tests the requests of {@link CompilerDaemonClient} to a {@link CompilerDaemon}: the protocol, against a daemon that is played
+ * by the test, and the compiles of several modules, against a daemon that runs in this JVM.
+ */
+public class CompilerDaemonTests extends TestCase {
+
+    private static final String JAVA = new File(System.getProperty("java.home"), "bin/java").getPath();
+
+    private final Logger logger = new ConsoleLogger(Logger.LEVEL_WARN, "CompilerDaemonTests");
+
+    private File root;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        root = File.createTempFile("CompilerDaemonTests", "");
+        root.delete();
+        root.mkdirs();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        delete(root);
+        super.tearDown();
+    }
+
+    public void testRequestAndResult() throws Exception {
+        CompilerDaemonClient client = createClient(10000);
+        FakeDaemon daemon = new FakeDaemon(client.getPortFile(), "token") {
+            @Override
+            void reply(DataOutputStream out) throws IOException {
+                out.writeByte(CompilerDaemonClient.RESULT);
+                out.writeInt(1);
+                out.writeInt(1);
+                new CompilerProblem(CompilerProblem.ERROR, "/module/src/A.groovy", 3, 5, 7, "Groovy:unexpected token").write(out);
+                CompilerDaemonClient.writeString(out, "1 problem (1 error)");
+            }
+        };
+        try {
+            CompilerDaemonClient.Result result = client.compile(new File(root, "module"), new String[] {"-d", "classes", "src/A.groovy"});
+            assertNotNull(result);
+            assertEquals(1, result.exitCode);
+            assertEquals(1, result.problems.size());
+            CompilerProblem problem = result.problems.get(0);
+            assertEquals(CompilerProblem.ERROR, problem.severity);
+            assertEquals("/module/src/A.groovy", problem.file);
+            assertEquals(3, problem.line);
+            assertEquals(5, problem.startColumn);
+            assertEquals(7, problem.endColumn);
+            assertEquals("Groovy:unexpected token", problem.message);
+            assertEquals("1 problem (1 error)", result.output);
+        } finally {
+            daemon.shutdown();
+        }
+        assertEquals("token", daemon.token);
+        assertEquals(new File(root, "module").getAbsolutePath(), daemon.workingDirectory);
+        assertEquals(Arrays.asList("-d", "classes", "src/A.groovy"), daemon.args);
+    }
+
+    public void testHeartbeatsKeepLongCompileAlive() throws Exception {
+        CompilerDaemonClient client = createClient(500);
+        FakeDaemon daemon = new FakeDaemon(client.getPortFile(), "token") {
+            @Override
+            void reply(DataOutputStream out) throws IOException {
+                // five times as long as the client waits for anything
+                for (int i = 0; i < 25; i += 1) {
+                    out.writeByte(CompilerDaemonClient.HEARTBEAT);
+                    out.flush();
+                    pause(100);
+                }
+                out.writeByte(CompilerDaemonClient.RESULT);
+                out.writeInt(0);
+                out.writeInt(0);
+                CompilerDaemonClient.writeString(out, "");
+            }
+        };
+        try {
+            CompilerDaemonClient.Result result = client.compile(root, new String[0]);
+            assertNotNull(result);
+            assertEquals(0, result.exitCode);
+            assertTrue(result.problems.isEmpty());
+        } finally {
+            daemon.shutdown();
+        }
+        assertTrue("Should keep the port file of a daemon that answers", client.getPortFile().isFile());
+    }
+
+    public void testHungDaemon() throws Exception {
+        CompilerDaemonClient client = createClient(500);
+        FakeDaemon daemon = new FakeDaemon(client.getPortFile(), "token") {
+            @Override
+            void reply(DataOutputStream out) throws IOException {
+                out.writeByte(CompilerDaemonClient.HEARTBEAT);
+                out.flush();
+                pause(3000); // and then the connection is closed without a result
+            }
+        };
+        try {
+            long start = System.currentTimeMillis();
+            assertNull("Should give up on a daemon that stops answering", client.compile(root, new String[0]));
+            assertTrue("Should give up before the daemon closes the connection", System.currentTimeMillis() - start < 2500);
+        } finally {
+            daemon.shutdown();
+        }
+        assertFalse("Should remove the port file, so that the next compile starts a new daemon", client.getPortFile().exists());
+    }
+
+    public void testUnreachableDaemon() throws Exception {
+        CompilerDaemonClient client = createClient(500);
+        // the port file of a daemon that has gone away; what is started in its place cannot find the daemon class and exits
+        ServerSocket closed = new ServerSocket(0, 1, InetAddress.getByName(null));
+        closed.close();
+        writePortFile(client.getPortFile(), closed.getLocalPort() + " token");
+
+        assertNull(client.compile(root, new String[0]));
+        assertFalse(client.getPortFile().exists());
+    }
+
+    public void testResolveArguments() {
+        File module = new File(root, "module");
+        String jar = new File(root, "lib.jar").getAbsolutePath();
+        String[] args = CompilerDaemon.resolveArguments(new String[] {
+            "-cp", "lib/a.jar" + File.pathSeparator + jar + File.pathSeparator + "lib/b.jar[-**/internal/*]",
+            "-d", "target/classes", "-encoding", "UTF-8", "-source", "1.5", "src/A.groovy", new File(module, "src/B.java").getPath()
+        }, module);
+
+        assertEquals(Arrays.asList(
+            "-cp", new File(module, "lib/a.jar").getPath() + File.pathSeparator + jar + File.pathSeparator + new File(module, "lib/b.jar").getPath() + "[-**/internal/*]",
+            "-d", new File(module, "target/classes").getPath(), "-encoding", "UTF-8", "-source", "1.5",
+            new File(module, "src/A.groovy").getPath(), new File(module, "src/B.java").getPath()
+        ), Arrays.asList(args));
+
+        assertEquals(Arrays.asList("-d", "none"), Arrays.asList(CompilerDaemon.resolveArguments(new String[] {"-d", "none"}, module)));
+    }
+
+    public void testModulesCompiledByOneDaemon() throws Exception {
+        final File one = createModule("one",
+            "src/p/A.groovy", "package p\nclass A { String name }\n",
+            "src/p/B.java", "package p;\npublic class B { String hello(A a) { return a.getName(); } }\n");
+        final File two = createModule("two",
+            "src/p/A.groovy", "package p\nclass A { int count }\n",
+            "src/p/C.java", "package p;\npublic class C { String hello(A a) { return a.getName(); } }\n");
+
+        final CompilerDaemonClient client = createClient(60000);
+        final CompilerDaemon daemon = new CompilerDaemon(client.getPortFile(), 3);
+        CompilerDaemonClient.createDaemonDirectory(client.getPortFile());
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread thread = new Thread("compiler daemon") {
+            @Override
+            public void run() {
+                try {
+                    daemon.run();
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }
+        };
+        thread.start();
+        for (int i = 0; i < 100 && CompilerDaemonClient.readPortFile(client.getPortFile()) == null; i += 1) {
+            Thread.sleep(100);
+        }
+        assertNotNull("Daemon should have written its port file", CompilerDaemonClient.readPortFile(client.getPortFile()));
+
+        // both at once, with paths relative to their own modules
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<CompilerDaemonClient.Result>> results = new ArrayList<Future<CompilerDaemonClient.Result>>();
+            for (final File module : new File[] {one, two}) {
+                results.add(executor.submit(new Callable<CompilerDaemonClient.Result>() {
+                    public CompilerDaemonClient.Result call() {
+                        return client.compile(module, new String[] {
+                            "-d", "classes", "-source", "1.5", "-target", "1.5", "-nowarn", "src/p/A.groovy",
+                            module == one ? "src/p/B.java" : "src/p/C.java"
+                        });
+                    }
+                }));
+            }
+
+            CompilerDaemonClient.Result resultOne = results.get(0).get();
+            assertNotNull(resultOne);
+            assertEquals(resultOne.output, 0, resultOne.exitCode);
+            assertTrue(new File(one, "classes/p/A.class").isFile());
+            assertTrue(new File(one, "classes/p/B.class").isFile());
+
+            CompilerDaemonClient.Result resultTwo = results.get(1).get();
+            assertNotNull(resultTwo);
+            assertEquals(1, resultTwo.exitCode);
+            assertEquals(1, resultTwo.problems.size());
+            assertEquals(new File(two, "src/p/C.java").getAbsolutePath(), new File(resultTwo.problems.get(0).file).getAbsolutePath());
+            assertTrue(new File(two, "classes/p/A.class").isFile());
+            assertFalse("Should not compile the other module's sources", new File(two, "classes/p/B.class").exists());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        thread.join(30000);
+        assertFalse("Daemon should exit once idle", thread.isAlive());
+        assertTrue(String.valueOf(failures), failures.isEmpty());
+        assertFalse(client.getPortFile().exists());
+    }
+
+    //--------------------------------------------------------------------------
+
+    private CompilerDaemonClient createClient(int replyTimeoutMillis) {
+        String classpath = new File(root, "no-daemon-here").getPath();
+        return new CompilerDaemonClient(JAVA, Collections.<String>emptyList(), classpath, 1, logger, new File(root, "daemon"), replyTimeoutMillis);
+    }
+
+    private File createModule(String name, String... files) throws IOException {
+        File module = new File(root, name);
+        for (int i = 0; i < files.length; i += 2) {
+            File file = new File(module, files[i]);
+            file.getParentFile().mkdirs();
+            FileWriter writer = new FileWriter(file);
+            try {
+                writer.write(files[i + 1]);
+            } finally {
+                writer.close();
+            }
+        }
+        return module;
+    }
+
+    private static void writePortFile(File portFile, String contents) throws IOException {
+        CompilerDaemonClient.createDaemonDirectory(portFile);
+        FileWriter writer = new FileWriter(portFile);
+        try {
+            writer.write(contents + "\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Plays a daemon for one request: records what the client sends and replies as a subclass says.
+     */
+    private abstract static class FakeDaemon extends Thread {
+        private final ServerSocket server;
+        volatile String token, workingDirectory;
+        volatile List<String> args;
+
+        FakeDaemon(File portFile, String token) throws IOException {
+            super("fake compiler daemon");
+            server = new ServerSocket(0, 1, InetAddress.getByName(null));
+            writePortFile(portFile, server.getLocalPort() + " " + token);
+            setDaemon(true);
+            start();
+        }
+
+        abstract void reply(DataOutputStream out) throws IOException;
+
+        @Override
+        public void run() {
+            try {
+                Socket socket = server.accept();
+                try {
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                    token = CompilerDaemonClient.readString(in);
+                    workingDirectory = CompilerDaemonClient.readString(in);
+                    List<String> args = new ArrayList<String>();
+                    for (int i = 0, n = in.readInt(); i < n; i += 1) {
+                        args.add(CompilerDaemonClient.readString(in));
+                    }
+                    this.args = args;
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                    reply(out);
+                    out.flush();
+                } finally {
+                    socket.close();
+                }
+            } catch (IOException e) {
+                // the client has gone away
+            }
+        }
+
+        void shutdown() throws Exception {
+            server.close();
+            join(10000);
+        }
+    }
+}
@@ -23,6 +23,8 @@ import junit.framework.TestSuite
 import org.eclipse.jdt.core.groovy.tests.builder.BasicGroovyBuildTests
 import org.eclipse.jdt.core.groovy.tests.builder.BuildAccessRulesTests
 import org.eclipse.jdt.core.groovy.tests.builder.FullProjectTests
+import org.eclipse.jdt.core.groovy.tests.compiler.BatchLoaderTests
+import org.eclipse.jdt.core.groovy.tests.compiler.GroovyParserTests
 import org.eclipse.jdt.core.groovy.tests.compiler.STCScriptsTests
 import org.eclipse.jdt.core.groovy.tests.compiler.ScriptFolderTests
 import org.eclipse.jdt.core.groovy.tests.locations.ASTConverterTests
@@ -64,8 +66,10 @@ final class GroovyJDTTests {
 
         // Compiler tests
         suite.addTest(AnnotationsTests.suite())
+        suite.addTestSuite(BatchLoaderTests)
         suite.addTest(ErrorRecoveryTests.suite())
         suite.addTest(GenericsTests.suite())
+        suite.addTestSuite(GroovyParserTests)
         suite.addTest(GroovySimpleTest.suite())
         suite.addTest(GroovySimpleTests_Compliance_1_8.suite())
         suite.addTest(ScriptFolderTests.suite())
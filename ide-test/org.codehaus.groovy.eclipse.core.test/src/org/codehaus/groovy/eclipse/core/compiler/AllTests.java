@@ -23,6 +23,8 @@ public class AllTests {
         TestSuite suite = new TestSuite(AllTests.class.getName());
         suite.addTestSuite(AstPositionTests.class);
         suite.addTestSuite(ErrorRecoveryTests.class);
+        suite.addTestSuite(IncrementalReconcileTests.class);
+        suite.addTestSuite(SourceBufferTests.class);
         suite.addTestSuite(UnrecoverableErrorTests.class);
         return suite;
     }
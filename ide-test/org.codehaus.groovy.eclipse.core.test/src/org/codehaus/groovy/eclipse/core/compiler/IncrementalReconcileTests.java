@@ -0,0 +1,244 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.core.compiler;
+
+import groovy.lang.GroovyClassLoader;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.codehaus.groovy.antlr.CharArrayReaderSource;
+import org.codehaus.groovy.antlr.ErrorRecoveredCSTParserPluginFactory;
+import org.codehaus.groovy.antlr.GroovySourceAST;
+import org.codehaus.groovy.antlr.ICSTReporter;
+import org.codehaus.groovy.ast.Comment;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.ErrorCollector;
+import org.codehaus.groovy.control.SourceUnit;
+import org.eclipse.jdt.groovy.core.util.GroovyUtils;
+
+/**
+ * Tests that a reconcile which only reparses the edited method body produces
+ * the same CST, comments and positions as a full parse of the edited source.
+ */
+public class IncrementalReconcileTests extends TestCase {
+
+    private static final String KEY = "Project:/Project/src/p/A.groovy";
+
+    private static int keyCount;
+
+    private String key;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // a key of its own, so that no test sees the tree kept by another
+        key = KEY + (keyCount += 1);
+    }
+
+    private static final class Parse {
+        GroovySourceAST cst;
+        List<Comment> comments;
+    }
+
+    private static Parse parse(String contents, String key) throws Exception {
+        final Parse parse = new Parse();
+        CompilerConfiguration config = new CompilerConfiguration();
+        config.setPluginFactory(new ErrorRecoveredCSTParserPluginFactory(new ICSTReporter() {
+            public void generatedCST(String fileName, GroovySourceAST ast) {
+                parse.cst = ast;
+            }
+            @SuppressWarnings("rawtypes")
+            public void reportErrors(String fileName, List errors) {
+                fail("Unexpected errors in " + fileName + ": " + errors);
+            }
+        }));
+        SourceUnit unit = new SourceUnit("A.groovy", new CharArrayReaderSource(contents.toCharArray(), config), config,
+                new GroovyClassLoader(), new ErrorCollector(config));
+        unit.isReconcile = (key != null);
+        unit.reconcileKey = key;
+        unit.parse();
+        unit.completePhase();
+        unit.convert(); // keeps the tree for the next reconcile
+        assertFalse(unit.getErrorCollector().hasErrors());
+        parse.comments = unit.getComments();
+        return parse;
+    }
+
+    /**
+     * Reconciles the source before and after the edit and checks the result
+     * against a full parse of the edited source.
+     *
+     * @param spliced whether the edited source is expected to be spliced into the previous tree
+     */
+    private void assertReconcile(String before, String after, boolean spliced) throws Exception {
+        if (GroovyUtils.GROOVY_LEVEL < 24) {
+            return; // no incremental reconcile before groovy 2.4
+        }
+        Parse previous = parse(before, key);
+        Parse incremental = parse(after, key);
+        Parse full = parse(after, null);
+
+        if (spliced) {
+            assertSame("Expected the edited body to be spliced into the previous tree", previous.cst, incremental.cst);
+        } else {
+            assertNotSame("Expected the edited source to be parsed in full", previous.cst, incremental.cst);
+        }
+        assertEquals(print(full.cst), print(incremental.cst));
+        assertEquals(print(full.comments), print(incremental.comments));
+
+        // the tree is kept for the next reconcile as well
+        Parse again = parse(after, key);
+        assertSame(incremental.cst, again.cst);
+        assertEquals(print(full.cst), print(again.cst));
+        assertEquals(print(full.comments), print(again.comments));
+    }
+
+    private static String print(GroovySourceAST node) {
+        StringBuilder sb = new StringBuilder();
+        print(node, 0, sb);
+        return sb.toString();
+    }
+
+    private static void print(GroovySourceAST node, int depth, StringBuilder sb) {
+        for (; node != null; node = (GroovySourceAST) node.getNextSibling()) {
+            for (int i = 0; i < depth; i += 1) {
+                sb.append("  ");
+            }
+            sb.append(node.getType()).append(' ').append(node.getText());
+            sb.append(" [").append(node.getLine()).append(':').append(node.getColumn());
+            sb.append(" - ").append(node.getLineLast()).append(':').append(node.getColumnLast()).append("]\n");
+            print((GroovySourceAST) node.getFirstChild(), depth + 1, sb);
+        }
+    }
+
+    private static String print(List<Comment> comments) {
+        StringBuilder sb = new StringBuilder();
+        for (Comment comment : comments) {
+            sb.append(comment.sline).append(':').append(comment.scol).append(" - ");
+            sb.append(comment.eline).append(':').append(comment.ecol).append(' ').append(comment).append('\n');
+        }
+        return sb.toString();
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static final String SOURCE =
+        "package p\n" +
+        "/** A */\n" +
+        "class A {\n" +
+        "    def x = 1\n" +
+        "    // before m\n" +
+        "    def m(int i) {\n" +
+        "        println i // in m\n" +
+        "        return i + x\n" +
+        "    }\n" +
+        "    /* after m */\n" +
+        "    def n() { m(2) }\n" +
+        "}\n" +
+        "// end\n";
+
+    public void testUnchanged() throws Exception {
+        assertReconcile(SOURCE, SOURCE, true);
+    }
+
+    public void testEditInBody() throws Exception {
+        assertReconcile(SOURCE, SOURCE.replace("return i + x", "return i * x + 42"), true);
+    }
+
+    public void testEditAtBodyStart() throws Exception {
+        assertReconcile(SOURCE, SOURCE.replace("def m(int i) {\n", "def m(int i) {\n        def y = [1, 2]\n"), true);
+        key += "'";
+        assertReconcile(SOURCE, SOURCE.replace("def m(int i) {", "def m(int i) {  "), true);
+    }
+
+    public void testEditAtBodyEnd() throws Exception {
+        assertReconcile(SOURCE, SOURCE.replace("return i + x\n    }", "return i + x\n        // done\n\n    }"), true);
+        key += "'";
+        assertReconcile(SOURCE, SOURCE.replace("return i + x\n    }", "return i + x }"), true);
+    }
+
+    public void testEditAddsLines() throws Exception {
+        assertReconcile(SOURCE, SOURCE.replace("println i // in m\n", "println i // in m\n        if (i) {\n            i--\n        }\n"), true);
+    }
+
+    public void testEditRemovesLines() throws Exception {
+        assertReconcile(SOURCE, SOURCE.replace("        println i // in m\n", ""), true);
+    }
+
+    public void testCommentsAfterBody() throws Exception {
+        String after = SOURCE.replace("println i // in m", "println i /* in\n m */ ; /* again */");
+        assertReconcile(SOURCE, after, true);
+    }
+
+    public void testCRLF() throws Exception {
+        String before = SOURCE.replace("\n", "\r\n");
+        assertReconcile(before, before.replace("return i + x", "return i +\r\n x"), true);
+    }
+
+    public void testInnerClassMethod() throws Exception {
+        String before =
+            "class Outer {\n" +
+            "    static class Inner {\n" +
+            "        def m() {\n" +
+            "            'inner'\n" +
+            "        }\n" +
+            "    }\n" +
+            "    def n() { 0 }\n" +
+            "}\n";
+        assertReconcile(before, before.replace("'inner'", "'inner' + 1\n            2"), true);
+    }
+
+    public void testAnonymousClassMethod() throws Exception {
+        String before =
+            "class Outer {\n" +
+            "    def r = new Runnable() {\n" +
+            "        void run() {\n" +
+            "            println 'run'\n" +
+            "        }\n" +
+            "    }\n" +
+            "    def n() {\n" +
+            "        new Object() { String toString() { 'o' } }\n" +
+            "    }\n" +
+            "}\n";
+        assertReconcile(before, before.replace("println 'run'", "println 'ran'\n            return"), true);
+        key += "'";
+        assertReconcile(before, before.replace("'o'", "'oo'"), true);
+    }
+
+    public void testEditOutsideBody() throws Exception {
+        assertReconcile(SOURCE, SOURCE.replace("def x = 1", "def x = 2"), false);
+        key += "'";
+        assertReconcile(SOURCE, SOURCE.replace("def m(int i)", "def m(int j)"), false);
+    }
+
+    public void testEditInScript() throws Exception {
+        String before = "def a = 1\nprintln a\n";
+        assertReconcile(before, before.replace("println a", "println a + 1"), false);
+    }
+
+    public void testProjectsKeptApart() throws Exception {
+        if (GroovyUtils.GROOVY_LEVEL < 24) {
+            return;
+        }
+        // the same path in another project does not reuse this project's tree
+        Parse previous = parse(SOURCE, key);
+        Parse other = parse(SOURCE, "Other" + key);
+        assertNotSame(previous.cst, other.cst);
+        assertSame(previous.cst, parse(SOURCE, key).cst);
+    }
+}
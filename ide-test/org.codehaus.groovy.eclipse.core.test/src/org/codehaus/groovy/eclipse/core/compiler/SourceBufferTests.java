@@ -0,0 +1,232 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.core.compiler;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.codehaus.groovy.antlr.CharArrayReaderSource;
+import org.codehaus.groovy.antlr.LineColumn;
+import org.codehaus.groovy.antlr.LocationSupport;
+import org.codehaus.groovy.antlr.SourceBuffer;
+import org.codehaus.groovy.antlr.UnicodeEscapingReader;
+import org.codehaus.groovy.control.CompilerConfiguration;
+
+/**
+ * Tests the snippets and locations of a {@link SourceBuffer}, both when it is written to
+ * one character at a time as the parser reads and when it shares the contents of a
+ * {@link CharArrayReaderSource}.
+ */
+public class SourceBufferTests extends TestCase {
+
+    private static final String[] SOURCES = {
+        "abc\ndef\nghi",
+        "abc\r\ndef\r\nghi",
+        "abc\rdef\rghi",
+        "abc\n\r\n\rdef\r\n",
+        "x\r\n\n\r",
+        "abc",
+        "",
+    };
+
+    /**
+     * Reads the text through a {@link UnicodeEscapingReader}, as the parser does.
+     */
+    private static SourceBuffer read(String text, boolean fromCharArray) throws IOException {
+        SourceBuffer buffer;
+        Reader reader;
+        if (fromCharArray) {
+            CharArrayReaderSource source = new CharArrayReaderSource(text.toCharArray(), CompilerConfiguration.DEFAULT);
+            buffer = new SourceBuffer(source);
+            reader = source.getReader();
+        } else {
+            buffer = new SourceBuffer();
+            reader = new StringReader(text);
+        }
+        UnicodeEscapingReader unescaper = new UnicodeEscapingReader(reader, buffer);
+        while (unescaper.read() != -1) {
+        }
+        return buffer;
+    }
+
+    private void assertSnippet(String expected, String text, int startLine, int startColumn, int endLine, int endColumn) throws IOException {
+        LineColumn start = new LineColumn(startLine, startColumn), end = new LineColumn(endLine, endColumn);
+        assertEquals("streamed", expected, read(text, false).getSnippet(start, end));
+        assertEquals("from char array", expected, read(text, true).getSnippet(start, end));
+    }
+
+    private void assertRowCol(int row, int col, String text, int offset) throws IOException {
+        for (boolean fromCharArray : new boolean[] {false, true}) {
+            LocationSupport locations = read(text, fromCharArray).getLocationSupport();
+            int[] rowCol = locations.getRowCol(offset);
+            assertEquals("row of " + offset, row, rowCol[0]);
+            assertEquals("column of " + offset, col, rowCol[1]);
+            assertEquals("offset of " + row + ":" + col, offset, locations.findOffset(row, col));
+        }
+    }
+
+    private void assertAfterEnd(String text, int offset) throws IOException {
+        for (boolean fromCharArray : new boolean[] {false, true}) {
+            try {
+                read(text, fromCharArray).getLocationSupport().getRowCol(offset);
+                fail("Expected offset " + offset + " to be after the end of the document");
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Location is after end of document"));
+            }
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    public void testSnippetLF() throws Exception {
+        String text = "abc\ndef\nghi";
+        assertSnippet("def", text, 2, 1, 2, 4);
+        assertSnippet("e", text, 2, 2, 2, 3);
+        assertSnippet("bc\ndef\ng", text, 1, 2, 3, 2);
+        assertSnippet("abc\n", text, 1, 1, 2, 1);
+    }
+
+    public void testSnippetCRLF() throws Exception {
+        String text = "abc\r\ndef\r\nghi";
+        assertSnippet("def", text, 2, 1, 2, 4);
+        assertSnippet("bc\r\ndef\r\ng", text, 1, 2, 3, 2);
+        assertSnippet("abc\r\n", text, 1, 1, 2, 1);
+        assertSnippet("ghi", text, 3, 1, 3, 4);
+    }
+
+    public void testSnippetCR() throws Exception {
+        String text = "abc\rdef\rghi";
+        assertSnippet("def", text, 2, 1, 2, 4);
+        assertSnippet("bc\rdef\rg", text, 1, 2, 3, 2);
+        assertSnippet("abc\r", text, 1, 1, 2, 1);
+    }
+
+    public void testSnippetBlankLines() throws Exception {
+        String text = "abc\n\r\n\rdef\r\n";
+        assertSnippet("\r\n", text, 2, 1, 3, 1);
+        assertSnippet("\r", text, 3, 1, 4, 1);
+        assertSnippet("c\n\r\n\rd", text, 1, 3, 4, 2);
+    }
+
+    public void testSnippetUnicodeEscapes() throws Exception {
+        // the buffer holds the unescaped characters
+        String text = "a\\u0041b\nc\\uu0042";
+        assertSnippet("aAb", text, 1, 1, 1, 4);
+        assertSnippet("b\ncB", text, 1, 3, 2, 3);
+    }
+
+    public void testSnippetOutOfRange() throws Exception {
+        String text = "abc\ndef\nghi";
+        assertSnippet("ab", text, 0, -1, 1, 3);
+        assertSnippet("ghi", text, 5, 1, 9, 9);
+        assertSnippet("def\n", text, 2, 1, 2, 99);
+        assertSnippet("def\nghi", text, 2, 1, 99, 99);
+        assertSnippet("", text, 1, 9, 1, 2);
+    }
+
+    public void testNoSnippet() throws Exception {
+        assertSnippet(null, "abc", 1, 2, 1, 2);
+        assertSnippet(null, "", 1, 1, 1, 2);
+        assertNull(read("abc", false).getSnippet(null, new LineColumn(1, 2)));
+        assertNull(read("abc", true).getSnippet(new LineColumn(1, 1), null));
+    }
+
+    public void testSnippetsAgree() throws Exception {
+        // without unicode escapes, sharing the char array must not change any snippet
+        for (String text : SOURCES) {
+            SourceBuffer streamed = read(text, false), shared = read(text, true);
+            for (int startLine = 0; startLine <= 6; startLine += 1) {
+                for (int startColumn = 0; startColumn <= 6; startColumn += 1) {
+                    for (int endLine = startLine; endLine <= 6; endLine += 1) {
+                        for (int endColumn = 0; endColumn <= 6; endColumn += 1) {
+                            LineColumn start = new LineColumn(startLine, startColumn), end = new LineColumn(endLine, endColumn);
+                            assertEquals(text + " " + start + " - " + end, streamed.getSnippet(start, end), shared.getSnippet(start, end));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    public void testRowColLF() throws Exception {
+        String text = "abc\ndef\nghi";
+        assertRowCol(1, 1, text, 0);
+        assertRowCol(1, 4, text, 3);
+        assertRowCol(2, 1, text, 4);
+        assertRowCol(2, 3, text, 6);
+        assertRowCol(3, 1, text, 8);
+        assertRowCol(3, 3, text, 10);
+        assertAfterEnd(text, 11);
+        assertAfterEnd(text, 99);
+    }
+
+    public void testRowColCRLF() throws Exception {
+        String text = "ab\r\ncd\r\n";
+        assertRowCol(1, 3, text, 2);
+        assertRowCol(1, 4, text, 3);
+        assertRowCol(2, 1, text, 4);
+        assertRowCol(2, 4, text, 7);
+        assertAfterEnd(text, 8);
+    }
+
+    public void testRowColCR() throws Exception {
+        String text = "ab\rcd\r\ref";
+        assertRowCol(1, 3, text, 2);
+        assertRowCol(2, 1, text, 3);
+        assertRowCol(3, 1, text, 6);
+        assertRowCol(4, 1, text, 7);
+        assertRowCol(4, 2, text, 8);
+        assertAfterEnd(text, 9);
+    }
+
+    public void testRowColUnicodeEscapes() throws Exception {
+        // locations are offsets in the source, before unescaping
+        String text = "a\\u0041b\nc\\uu0042\nd";
+        assertRowCol(1, 8, text, 7);
+        assertRowCol(1, 9, text, 8);
+        assertRowCol(2, 1, text, 9);
+        assertRowCol(2, 9, text, 17);
+        assertRowCol(3, 1, text, 18);
+        assertAfterEnd(text, 19);
+    }
+
+    public void testRowColEmpty() throws Exception {
+        assertAfterEnd("", 0);
+        for (boolean fromCharArray : new boolean[] {false, true}) {
+            LocationSupport locations = read("", fromCharArray).getLocationSupport();
+            assertEquals(0, locations.findOffset(0, 1));
+            assertEquals(0, locations.findOffset(5, 1));
+        }
+    }
+
+    public void testLocationsAgree() throws Exception {
+        for (String text : SOURCES) {
+            LocationSupport streamed = read(text, false).getLocationSupport(), shared = read(text, true).getLocationSupport();
+            assertEquals(text, streamed.getEnd(), shared.getEnd());
+            assertEquals(text, streamed.getEndLine(), shared.getEndLine());
+            assertEquals(text, streamed.getEndColumn(), shared.getEndColumn());
+            for (int offset = 0; offset < text.length(); offset += 1) {
+                assertEquals(text + " @ " + offset, Arrays.toString(streamed.getRowCol(offset)), Arrays.toString(shared.getRowCol(offset)));
+            }
+        }
+    }
+}
@@ -27,14 +27,18 @@ public class AllDSLTests {
         TestSuite suite = new TestSuite(AllDSLTests.class.getName());
         if (!Boolean.getBoolean("greclipse.dsld.disabled")) {
             suite.addTest(BuiltInDSLInferencingTests.suite());
+            suite.addTest(CheckerStateTests.suite());
             suite.addTest(DSLContentAssistTests.suite());
+            suite.addTestSuite(DSLDProfilerTests.class);
             suite.addTest(DSLInferencingTests.suite());
             suite.addTest(DSLNamedArgContentAssistTests.suite());
             suite.addTest(DSLStoreTests.suite());
+            suite.addTest(GroovyDSLDContextTests.suite());
             suite.addTest(MetaDSLInferencingTests.suite());
             suite.addTest(PointcutCreationTests.suite());
             suite.addTest(PointcutEvaluationTests.suite());
             suite.addTestSuite(StringObjectVectorTests.class);
+            suite.addTest(SuggestionsReloadTests.suite());
         }
         return suite;
     }
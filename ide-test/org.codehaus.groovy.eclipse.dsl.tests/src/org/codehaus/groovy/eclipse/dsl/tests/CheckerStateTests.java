@@ -0,0 +1,153 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.tests;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator;
+import org.codehaus.groovy.eclipse.dsl.checker.CheckerState;
+import org.codehaus.groovy.eclipse.dsl.checker.FileCheckResult;
+import org.codehaus.groovy.eclipse.dsl.checker.ParallelResourceTypeChecker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Tests the incremental mode of the headless static checker: only changed files and
+ * the files that were checked against them are checked again.
+ */
+public final class CheckerStateTests extends AbstractDSLInferencingTest {
+
+    public static Test suite() {
+        return new TestSuite(CheckerStateTests.class);
+    }
+
+    public CheckerStateTests(String name) {
+        super(name);
+    }
+
+    private File stateFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        stateFile = File.createTempFile("checker", ".state");
+        stateFile.delete();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        stateFile.delete();
+        super.tearDown();
+    }
+
+    /**
+     * Checks the project against the recorded state and records the new one.
+     * @return the results by file name
+     */
+    private Map<String, FileCheckResult> check() throws Exception {
+        CheckerState state = new CheckerState(stateFile, CheckerState.computeFingerprint(
+            GroovyDSLCoreActivator.getDefault().getContextStoreManager().getDSLDStore(project), JavaCore.create(project), false));
+        state.load();
+        ParallelResourceTypeChecker checker = new ParallelResourceTypeChecker(Collections.<IResource>singletonList(project), null, null, false, 2, state);
+        Map<String, FileCheckResult> results = new HashMap<String, FileCheckResult>();
+        for (FileCheckResult result : checker.doCheck(null)) {
+            results.put(new Path(result.getPath()).lastSegment(), result);
+        }
+        state.save();
+        return results;
+    }
+
+    private static void assertChecked(Map<String, FileCheckResult> results, String... names) {
+        for (String name : names) {
+            FileCheckResult result = results.get(name);
+            assertNotNull("No result for " + name, result);
+            assertFalse("Expected " + name + " to be checked", result.isUpToDate());
+        }
+    }
+
+    private static void assertNotChecked(Map<String, FileCheckResult> results, String... names) {
+        for (String name : names) {
+            FileCheckResult result = results.get(name);
+            assertNotNull("No result for " + name, result);
+            assertTrue("Expected " + name + " to be up to date", result.isUpToDate());
+        }
+    }
+
+    public void testUnchanged() throws Exception {
+        createUnit("A", "class A { String name }");
+        createUnit("B", "class B { def m(A a) { a.name.length() } }");
+
+        assertChecked(check(), "A.groovy", "B.groovy");
+        assertNotChecked(check(), "A.groovy", "B.groovy");
+    }
+
+    public void testChangedFileAndDependents() throws Exception {
+        createUnit("A", "class A { String name }");
+        createUnit("B", "class B { def m(A a) { a.name.length() } }");
+        createUnit("C", "class C { def m() { 'c'.length() } }");
+        assertChecked(check(), "A.groovy", "B.groovy", "C.groovy");
+
+        env.addGroovyClass(project.getFolder("src").getFullPath(), "A", "class A { String name\n int age }");
+        Map<String, FileCheckResult> results = check();
+        assertChecked(results, "A.groovy", "B.groovy");
+        assertNotChecked(results, "C.groovy");
+        assertNotChecked(check(), "A.groovy", "B.groovy", "C.groovy");
+    }
+
+    public void testChangedSupertype() throws Exception {
+        createUnit("S", "class S { String name }");
+        createUnit("A", "class A extends S { }");
+        createUnit("B", "class B { def m(A a) { a.toString() } }");
+        assertChecked(check(), "S.groovy", "A.groovy", "B.groovy");
+
+        env.addGroovyClass(project.getFolder("src").getFullPath(), "S", "class S { String name\n String toString() { name } }");
+        assertChecked(check(), "S.groovy", "A.groovy", "B.groovy");
+    }
+
+    public void testAddedFile() throws Exception {
+        createUnit("A", "class A { String name }");
+        assertChecked(check(), "A.groovy");
+
+        // a new type may change how names resolve anywhere
+        createUnit("B", "class B { }");
+        assertChecked(check(), "A.groovy", "B.groovy");
+    }
+
+    public void testFailedFileRechecked() throws Exception {
+        createUnit("A", "class A { def m() { unknownThing } }");
+        Map<String, FileCheckResult> results = check();
+        assertChecked(results, "A.groovy");
+        assertFalse(results.get("A.groovy").isSuccess());
+
+        assertChecked(check(), "A.groovy");
+    }
+
+    public void testChangedDsld() throws Exception {
+        createUnit("A", "class A { String name }");
+        assertChecked(check(), "A.groovy");
+
+        createDsls("currentType().accept { property name : 'foo' }");
+        GroovyDSLCoreActivator.getDefault().getContextStoreManager().initialize(project, true);
+        assertChecked(check(), "A.groovy");
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.tests;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.codehaus.groovy.eclipse.dsl.DSLDProfiler;
+import org.codehaus.groovy.eclipse.dsl.DSLDProfiler.Stats;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.IPointcut;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.CurrentTypePointcut;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.FindFieldPointcut;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+
+/**
+ * Tests the per-script and per-pointcut counters of the {@link DSLDProfiler}.
+ */
+public class DSLDProfilerTests extends TestCase {
+
+    private final DSLDProfiler profiler = DSLDProfiler.getInstance();
+
+    private boolean wasEnabled;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        wasEnabled = profiler.isEnabled();
+        profiler.reset();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        profiler.reset();
+        profiler.setEnabled(wasEnabled);
+        super.tearDown();
+    }
+
+    private static IFile script(String name) {
+        // the profiler only needs the path
+        return ResourcesPlugin.getWorkspace().getRoot().getFile(new Path("/Project/" + name));
+    }
+
+    private static Stats find(List<Stats> stats, String name) {
+        for (Stats s : stats) {
+            if (s.getName().equals(name)) {
+                return s;
+            }
+        }
+        fail("No stats for " + name + " in " + stats);
+        return null;
+    }
+
+    private static void assertStats(Stats stats, long matches, long hits, long matchNanos, long contributions, long contributionNanos) {
+        assertEquals("matches of " + stats.getName(), matches, stats.getMatchCount());
+        assertEquals("hits of " + stats.getName(), hits, stats.getMatchHits());
+        assertEquals("match time of " + stats.getName(), matchNanos, stats.getMatchNanos());
+        assertEquals("contributions of " + stats.getName(), contributions, stats.getContributionCount());
+        assertEquals("contribution time of " + stats.getName(), contributionNanos, stats.getContributionNanos());
+        assertEquals("total time of " + stats.getName(), matchNanos + contributionNanos, stats.getTotalNanos());
+    }
+
+    public void testPerScriptAndPerPointcut() throws Exception {
+        IPointcut a1 = new CurrentTypePointcut(script("a.dsld"), "currentType");
+        IPointcut a2 = new FindFieldPointcut(script("a.dsld"), "fields");
+        IPointcut b1 = new CurrentTypePointcut(script("b.dsld"), "currentType");
+
+        profiler.recordMatch(a1, 10, true);
+        profiler.recordContribution(a1, 7);
+        profiler.recordMatch(a1, 20, false);
+        profiler.recordMatch(a2, 5, true);
+        profiler.recordContribution(a2, 3);
+        profiler.recordMatch(b1, 100, false);
+
+        List<Stats> scripts = profiler.getScriptStats();
+        assertEquals(2, scripts.size());
+        // most expensive first
+        assertEquals("/Project/b.dsld", scripts.get(0).getName());
+        assertStats(scripts.get(0), 1, 0, 100, 0, 0);
+        assertStats(scripts.get(1), 3, 2, 35, 2, 10);
+
+        List<Stats> pointcuts = profiler.getPointcutStats();
+        assertEquals(3, pointcuts.size());
+        assertStats(find(pointcuts, "/Project/a.dsld : " + a1.getPointcutDebugName()), 2, 1, 30, 1, 7);
+        assertStats(find(pointcuts, "/Project/a.dsld : " + a2.getPointcutDebugName()), 1, 1, 5, 1, 3);
+        assertStats(find(pointcuts, "/Project/b.dsld : " + b1.getPointcutDebugName()), 1, 0, 100, 0, 0);
+    }
+
+    public void testRecreatedPointcutSharesStats() throws Exception {
+        // pointcuts are created again whenever their script is refreshed
+        profiler.recordMatch(new CurrentTypePointcut(script("a.dsld"), "currentType"), 10, true);
+        profiler.recordMatch(new CurrentTypePointcut(script("a.dsld"), "currentType"), 15, false);
+
+        assertEquals(1, profiler.getPointcutStats().size());
+        assertStats(profiler.getPointcutStats().get(0), 2, 1, 25, 0, 0);
+        assertStats(profiler.getScriptStats().get(0), 2, 1, 25, 0, 0);
+    }
+
+    public void testReset() throws Exception {
+        profiler.recordMatch(new CurrentTypePointcut(script("a.dsld"), "currentType"), 10, true);
+        profiler.reset();
+        assertTrue(profiler.getScriptStats().isEmpty());
+        assertTrue(profiler.getPointcutStats().isEmpty());
+    }
+
+    public void testReport() throws Exception {
+        IPointcut a1 = new CurrentTypePointcut(script("a.dsld"), "currentType");
+        IPointcut b1 = new CurrentTypePointcut(script("b.dsld"), "currentType");
+        profiler.recordMatch(a1, 2000000, true);
+        profiler.recordMatch(b1, 1000000, true);
+
+        profiler.setEnabled(false);
+        String report = profiler.createReport(1);
+        String nl = String.format("%n");
+        assertTrue(report, report.startsWith("DSLD profile (profiling is disabled)"));
+        assertTrue(report, report.contains("/Project/a.dsld" + nl));
+        assertTrue(report, report.contains("/Project/b.dsld" + nl));
+        // only the hottest pointcut is listed
+        assertTrue(report, report.contains("/Project/a.dsld : " + a1.getPointcutDebugName()));
+        assertFalse(report, report.contains("/Project/b.dsld : "));
+        assertTrue(report, report.contains("... 1 more"));
+
+        profiler.setEnabled(true);
+        assertTrue(profiler.createReport(1).startsWith("DSLD profile\n"));
+    }
+}
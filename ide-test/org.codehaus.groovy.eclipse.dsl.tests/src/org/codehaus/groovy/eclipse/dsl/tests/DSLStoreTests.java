@@ -22,6 +22,7 @@ import junit.framework.TestSuite;
 
 import org.codehaus.groovy.eclipse.dsl.DSLDStore;
 import org.codehaus.groovy.eclipse.dsl.DSLPreferences;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.CurrentTypePointcut;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.FindFieldPointcut;
 import org.eclipse.core.resources.IStorage;
@@ -334,4 +335,18 @@ public final class DSLStoreTests extends AbstractDSLInferencingTest {
                     )
             );
     }
+
+    @SuppressWarnings("deprecation")
+    public void testSubStoreCachedUntilStoreChanges() throws Exception {
+        DSLDStore store = new DSLDStore();
+        GroovyDSLDContext context = new GroovyDSLDContext(new String[0], "src/p/Foo.groovy", "src");
+
+        DSLDStore subStore = store.createSubStore(context);
+        assertSame(subStore, store.createSubStore(new GroovyDSLDContext(new String[0], "src/p/Foo.groovy", "src")));
+        assertNotSame(subStore, store.createSubStore(new GroovyDSLDContext(new String[0], "src/p/Bar.groovy", "src")));
+        assertNotSame(subStore, store.createSubStore(new GroovyDSLDContext(new String[] {"nature"}, "src/p/Foo.groovy", "src")));
+
+        store.purgeAll();
+        assertNotSame(subStore, store.createSubStore(context));
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.codehaus.jdt.groovy.model.GroovyNature;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Tests that the file-level parts of a {@link GroovyDSLDContext}, which are cached,
+ * follow the unit when it is renamed or moved and the project when its natures change.
+ */
+public final class GroovyDSLDContextTests extends AbstractDSLInferencingTest {
+
+    public static Test suite() {
+        return new TestSuite(GroovyDSLDContextTests.class);
+    }
+
+    public GroovyDSLDContextTests(String name) {
+        super(name);
+    }
+
+    private static GroovyDSLDContext createContext(GroovyCompilationUnit unit) throws Exception {
+        return new GroovyDSLDContext(unit, unit.getModuleNode(), null);
+    }
+
+    private static GroovyCompilationUnit unitAt(IFile file) {
+        return (GroovyCompilationUnit) JavaCore.createCompilationUnitFrom(file);
+    }
+
+    public void testCachedFacts() throws Exception {
+        GroovyCompilationUnit unit = createUnit("p", "Foo", "package p\nclass Foo { }");
+        GroovyDSLDContext context = createContext(unit);
+        assertEquals("src/p/Foo.groovy", context.fullPathName);
+        assertEquals("Foo.groovy", context.simpleFileName);
+        assertEquals("src", context.packageRootPath);
+        assertEquals("p", context.packageFolderPath);
+        assertTrue(Arrays.asList(context.projectNatures).contains(GroovyNature.GROOVY_NATURE));
+
+        GroovyDSLDContext again = createContext(unit);
+        assertSame(context.projectNatures, again.projectNatures);
+        assertEquals(context.fullPathName, again.fullPathName);
+    }
+
+    public void testRenamedUnit() throws Exception {
+        GroovyCompilationUnit unit = createUnit("p", "Foo", "package p\nclass Foo { }");
+        assertEquals("Foo.groovy", createContext(unit).simpleFileName);
+
+        IFile file = (IFile) unit.getResource();
+        file.move(file.getFullPath().removeLastSegments(1).append("Bar.groovy"), true, null);
+        GroovyDSLDContext context = createContext(unitAt(file.getParent().getFile(new Path("Bar.groovy"))));
+        assertEquals("src/p/Bar.groovy", context.fullPathName);
+        assertEquals("Bar.groovy", context.simpleFileName);
+        assertEquals("p", context.packageFolderPath);
+    }
+
+    public void testMovedPackageFolder() throws Exception {
+        GroovyCompilationUnit unit = createUnit("p", "Foo", "package p\nclass Foo { }");
+        assertEquals("p", createContext(unit).packageFolderPath);
+
+        IFolder folder = (IFolder) unit.getResource().getParent();
+        folder.move(folder.getFullPath().removeLastSegments(1).append("q"), true, null);
+        GroovyDSLDContext context = createContext(unitAt(project.getFolder("src/q").getFile("Foo.groovy")));
+        assertEquals("src/q/Foo.groovy", context.fullPathName);
+        assertEquals("q", context.packageFolderPath);
+
+        // a new file at the old location gets its own facts as well
+        unit = createUnit("p", "Foo", "package p\nclass Foo { }");
+        assertEquals("p", createContext(unit).packageFolderPath);
+    }
+
+    public void testChangedNatures() throws Exception {
+        GroovyCompilationUnit unit = createUnit("p", "Foo", "package p\nclass Foo { }");
+        assertTrue(Arrays.asList(createContext(unit).projectNatures).contains(GroovyNature.GROOVY_NATURE));
+
+        IProjectDescription description = project.getDescription();
+        String[] natures = description.getNatureIds();
+        List<String> withoutGroovy = new ArrayList<String>(Arrays.asList(natures));
+        withoutGroovy.remove(GroovyNature.GROOVY_NATURE);
+        description.setNatureIds(withoutGroovy.toArray(new String[withoutGroovy.size()]));
+        project.setDescription(description, null);
+        try {
+            assertFalse(Arrays.asList(createContext(unit).projectNatures).contains(GroovyNature.GROOVY_NATURE));
+        } finally {
+            description = project.getDescription();
+            description.setNatureIds(natures);
+            project.setDescription(description, null);
+        }
+        assertTrue(Arrays.asList(createContext(unit).projectNatures).contains(GroovyNature.GROOVY_NATURE));
+    }
+}
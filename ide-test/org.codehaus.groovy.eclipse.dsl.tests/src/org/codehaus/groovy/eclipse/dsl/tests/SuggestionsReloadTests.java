@@ -0,0 +1,174 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.tests;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.GroovySuggestionDeclaringType;
+import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.IGroovySuggestion;
+import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.InferencingSuggestionsManager;
+import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.InferencingSuggestionsManager.ProjectSuggestions;
+import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.SuggestionDescriptor;
+import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.SuggestionsLoader;
+import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.writer.SuggestionsTransform;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+
+/**
+ * Tests that the suggestions file of a project is read when its suggestions are next
+ * requested after a DSLD refresh, and only if it has changed since it was last read.
+ */
+public final class SuggestionsReloadTests extends AbstractDSLInferencingTest {
+
+    public static Test suite() {
+        return new TestSuite(SuggestionsReloadTests.class);
+    }
+
+    public SuggestionsReloadTests(String name) {
+        super(name);
+    }
+
+    private final InferencingSuggestionsManager manager = InferencingSuggestionsManager.getInstance();
+
+    private IFile file;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        manager.getSuggestions(project).removeAll();
+        IFolder folder = project.getFolder(".groovy");
+        if (!folder.exists()) {
+            folder.create(true, true, null);
+        }
+        file = folder.getFile("suggestions.xdsl");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        manager.getSuggestions(project).removeAll();
+        super.tearDown();
+    }
+
+    private static SuggestionDescriptor property(String name) {
+        return new SuggestionDescriptor("java.lang.String", false, name, "doc", "java.lang.Integer", true);
+    }
+
+    /**
+     * Writes a suggestions file holding exactly the given properties of String, and
+     * leaves the in-memory suggestions as they were.
+     */
+    private void writeFile(String... names) throws Exception {
+        ProjectSuggestions suggestions = manager.getSuggestions(project);
+        List<SuggestionDescriptor> before = new ArrayList<SuggestionDescriptor>();
+        GroovySuggestionDeclaringType type = suggestions.getExactDeclaringType("java.lang.String");
+        if (type != null) {
+            for (IGroovySuggestion suggestion : type.getSuggestions()) {
+                before.add(new SuggestionDescriptor(suggestion));
+            }
+        }
+        suggestions.removeAll();
+        for (String name : names) {
+            suggestions.addSuggestion(property(name));
+        }
+        byte[] contents = new SuggestionsTransform(suggestions).transform().getBytes();
+        if (file.exists()) {
+            file.setContents(new ByteArrayInputStream(contents), true, false, null);
+        } else {
+            file.create(new ByteArrayInputStream(contents), true, null);
+        }
+        suggestions.removeAll();
+        for (SuggestionDescriptor descriptor : before) {
+            suggestions.addSuggestion(descriptor);
+        }
+    }
+
+    /**
+     * What a DSLD refresh does with the suggestions file.
+     */
+    private void refresh() {
+        assertTrue(new SuggestionsLoader(file).loadExistingSuggestions());
+    }
+
+    private void assertSuggestions(String... names) {
+        List<String> actual = new ArrayList<String>();
+        GroovySuggestionDeclaringType type = manager.getSuggestions(project).getExactDeclaringType("java.lang.String");
+        if (type != null) {
+            for (IGroovySuggestion suggestion : type.getSuggestions()) {
+                actual.add(suggestion.getName());
+            }
+        }
+        List<String> expected = new ArrayList<String>();
+        for (String name : names) {
+            expected.add(name);
+        }
+        assertEquals(expected, actual);
+    }
+
+    public void testReadOnRequest() throws Exception {
+        writeFile("foo");
+        assertSuggestions();
+        refresh();
+        assertSuggestions("foo");
+    }
+
+    public void testUnchangedFileNotRead() throws Exception {
+        writeFile("foo");
+        refresh();
+        assertSuggestions("foo");
+
+        // not in the file, so it would be lost if the file were read again
+        manager.getSuggestions(project).addSuggestion(property("bar"));
+        refresh();
+        assertSuggestions("foo", "bar");
+    }
+
+    public void testChangedFileRead() throws Exception {
+        writeFile("foo");
+        refresh();
+        manager.getSuggestions(project).addSuggestion(property("bar"));
+
+        writeFile("baz");
+        refresh();
+        assertSuggestions("baz");
+    }
+
+    public void testRecreatedFileRead() throws Exception {
+        writeFile("foo");
+        refresh();
+        assertSuggestions("foo");
+
+        file.delete(true, null);
+        // make sure that the file on disk gets another time stamp
+        Thread.sleep(1100);
+        writeFile("baz");
+        refresh();
+        assertSuggestions("baz");
+    }
+
+    public void testRestoreAlwaysReads() throws Exception {
+        writeFile("foo");
+        refresh();
+        manager.getSuggestions(project).addSuggestion(property("bar"));
+
+        assertTrue(manager.restoreSuggestions(project));
+        assertSuggestions("foo");
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.codehaus.groovy.eclipse.dsl.pointcuts.IPointcut;
+
+/**
+ * Accumulates the cost of evaluating DSLD scripts, per script and per pointcut,
+ * so that slow scripts can be found.  Profiling is controlled by the
+ * {@link DSLPreferencesInitializer#DSLD_PROFILING} preference; when off, the only
+ * cost to {@link DSLDStore#findContributions} is a check of {@link #isEnabled()}.
+ */
+public class DSLDProfiler {
+
+    public static final class Stats {
+        final String name;
+        final AtomicLong matchCount = new AtomicLong();
+        final AtomicLong matchHits = new AtomicLong();
+        final AtomicLong matchNanos = new AtomicLong();
+        final AtomicLong contributionCount = new AtomicLong();
+        final AtomicLong contributionNanos = new AtomicLong();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** @return number of times the pointcut(s) were evaluated */
+        public long getMatchCount() {
+            return matchCount.get();
+        }
+
+        /** @return number of evaluations that matched */
+        public long getMatchHits() {
+            return matchHits.get();
+        }
+
+        public long getMatchNanos() {
+            return matchNanos.get();
+        }
+
+        /** @return number of times contribution blocks were run */
+        public long getContributionCount() {
+            return contributionCount.get();
+        }
+
+        public long getContributionNanos() {
+            return contributionNanos.get();
+        }
+
+        public long getTotalNanos() {
+            return matchNanos.get() + contributionNanos.get();
+        }
+    }
+
+    private static final DSLDProfiler INSTANCE = new DSLDProfiler();
+
+    public static DSLDProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    private volatile boolean enabled;
+
+    private final ConcurrentMap<String, Stats> scriptStats = new ConcurrentHashMap<String, Stats>();
+
+    /** Keyed by name rather than by pointcut so that stats survive DSLD refreshes */
+    private final ConcurrentMap<String, Stats> pointcutStats = new ConcurrentHashMap<String, Stats>();
+
+    private DSLDProfiler() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void reset() {
+        scriptStats.clear();
+        pointcutStats.clear();
+    }
+
+    public void recordMatch(IPointcut pointcut, long nanos, boolean matched) {
+        for (Stats stats : statsFor(pointcut)) {
+            stats.matchCount.incrementAndGet();
+            stats.matchNanos.addAndGet(nanos);
+            if (matched) {
+                stats.matchHits.incrementAndGet();
+            }
+        }
+    }
+
+    public void recordContribution(IPointcut pointcut, long nanos) {
+        for (Stats stats : statsFor(pointcut)) {
+            stats.contributionCount.incrementAndGet();
+            stats.contributionNanos.addAndGet(nanos);
+        }
+    }
+
+    private Stats[] statsFor(IPointcut pointcut) {
+        String script = DSLDStore.toUniqueString(pointcut.getContainerIdentifier());
+        return new Stats[] {
+            statsFor(scriptStats, script),
+            statsFor(pointcutStats, script + " : " + pointcut.getPointcutDebugName())
+        };
+    }
+
+    private static Stats statsFor(ConcurrentMap<String, Stats> map, String name) {
+        Stats stats = map.get(name);
+        if (stats == null) {
+            stats = new Stats(name);
+            Stats existing = map.putIfAbsent(name, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return per-script statistics, most expensive first
+     */
+    public List<Stats> getScriptStats() {
+        return sorted(scriptStats);
+    }
+
+    /**
+     * @return per-pointcut statistics, most expensive first
+     */
+    public List<Stats> getPointcutStats() {
+        return sorted(pointcutStats);
+    }
+
+    private static List<Stats> sorted(Map<String, Stats> map) {
+        List<Stats> list = new ArrayList<Stats>(map.values());
+        Collections.sort(list, new Comparator<Stats>() {
+            public int compare(Stats s1, Stats s2) {
+                long t1 = s1.getTotalNanos(), t2 = s2.getTotalNanos();
+                return t1 < t2 ? 1 : (t1 > t2 ? -1 : s1.name.compareTo(s2.name));
+            }
+        });
+        return list;
+    }
+
+    /**
+     * @param maxPointcuts maximum number of pointcuts to list
+     * @return a plain-text report of the slowest scripts and pointcuts
+     */
+    public String createReport(int maxPointcuts) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("DSLD profile").append(enabled ? "" : " (profiling is disabled)").append('\n');
+        sb.append("\nScripts:\n");
+        appendTable(sb, getScriptStats(), Integer.MAX_VALUE);
+        sb.append("\nHot pointcuts:\n");
+        appendTable(sb, getPointcutStats(), maxPointcuts);
+        return sb.toString();
+    }
+
+    private static void appendTable(StringBuilder sb, List<Stats> stats, int max) {
+        if (stats.isEmpty()) {
+            sb.append("  (none)\n");
+            return;
+        }
+        sb.append(String.format("  %10s %10s %10s %10s %10s  %s%n", "total ms", "match ms", "contrib ms", "matches", "hits", "name"));
+        int count = 0;
+        for (Stats s : stats) {
+            if (count++ >= max) {
+                sb.append("  ... ").append(stats.size() - max).append(" more\n");
+                break;
+            }
+            sb.append(String.format("  %10.1f %10.1f %10.1f %10d %10d  %s%n",
+                s.getTotalNanos() / 1e6, s.getMatchNanos() / 1e6, s.getContributionNanos() / 1e6,
+                s.getMatchCount(), s.getMatchHits(), s.name));
+        }
+    }
+}
@@ -48,6 +48,24 @@ public class DSLDStore {
     /** Maps keys (such as script names) to the pointcuts they produce. */
     private final Map<IStorage, Set<IPointcut>> keyContextMap =
         new HashMap<IStorage, Set<IPointcut>>();
+    /**
+     * Caches the result of {@link #createSubStore(GroovyDSLDContext)} per file.
+     * The inputs of {@link IPointcut#fastMatch(GroovyDSLDContext)} only depend on
+     * the file, so the sub-store only needs recomputing when this store changes.
+     */
+    @SuppressWarnings("serial")
+    private final Map<String, DSLDStore> subStoreCache =
+        new LinkedHashMap<String, DSLDStore>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DSLDStore> eldest) {
+                return size() > MAX_CACHED_SUB_STORES;
+            }
+        };
+
+    /** Counts the changes to this store; guarded by {@link #subStoreCache}. */
+    private long subStoreGeneration;
+
+    private static final int MAX_CACHED_SUB_STORES = 500;
 
     public void addContributionGroup(IPointcut pointcut, IContributionGroup contribution) {
         synchronized (pointcutContributionMap) {
@@ -68,6 +86,7 @@ public class DSLDStore {
             }
             pointcuts.add(pointcut);
         }
+        flushSubStoreCache();
     }
 
     public void purgeIdentifier(IStorage identifier) {
@@ -85,6 +104,7 @@ public class DSLDStore {
                 }
             }
         }
+        flushSubStoreCache();
     }
 
     public void purgeAll() {
@@ -94,18 +114,31 @@ public class DSLDStore {
         synchronized (pointcutContributionMap) {
             pointcutContributionMap.clear();
         }
+        flushSubStoreCache();
     }
 
     /**
      * Creates a new {@link DSLDStore} based on the pattern passed in
      * only includes {@link IPointcut}s that match the pattern.
-     * Sub-stores are meant to be short-lived and are not purged when a
-     * script changes.
+     * Sub-stores are not purged when a script changes; instead, the sub-store
+     * for a file is cached until this store is next modified (e.g. by a DSLD refresh).
+     * Callers must not modify the returned store.
      *
      * @param patern the pattern to match against
-     * @return a new {@link DSLDStore} containing only matches against the pattern
+     * @return a {@link DSLDStore} containing only matches against the pattern
      */
     public DSLDStore createSubStore(GroovyDSLDContext pattern) {
+        String key = subStoreKey(pattern);
+        long startGeneration = 0;
+        if (key != null) {
+            synchronized (subStoreCache) {
+                DSLDStore subStore = subStoreCache.get(key);
+                if (subStore != null) {
+                    return subStore;
+                }
+                startGeneration = subStoreGeneration;
+            }
+        }
         DSLDStore subStore = new DSLDStore();
         synchronized (pointcutContributionMap) {
             for (Map.Entry<IPointcut, List<IContributionGroup>> entry : pointcutContributionMap.entrySet()) {
@@ -114,9 +147,46 @@ public class DSLDStore {
                 }
             }
         }
+        if (key != null) {
+            synchronized (subStoreCache) {
+                // a store changed since we started may have been read before or after the change
+                if (subStoreGeneration == startGeneration) {
+                    subStoreCache.put(key, subStore);
+                }
+            }
+        }
         return subStore;
     }
 
+    /**
+     * @return a key made up of all the file-level information that fast matching
+     *         depends on, or null if the sub-store for the pattern should not be cached
+     */
+    private static String subStoreKey(GroovyDSLDContext pattern) {
+        if (pattern.fullPathName == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(pattern.fullPathName);
+        sb.append('|').append(pattern.packageRootPath);
+        if (pattern.projectNatures != null) {
+            for (String nature : pattern.projectNatures) {
+                sb.append('|').append(nature);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Must be called after each change to this store, so that no sub-store computed from
+     * the contents before the change can be cached from then on.
+     */
+    private void flushSubStoreCache() {
+        synchronized (subStoreCache) {
+            subStoreGeneration += 1;
+            subStoreCache.clear();
+        }
+    }
+
     public void addAllContributions(IPointcut pointcut, List<IContributionGroup> contributions) {
         synchronized (pointcutContributionMap) {
             List<IContributionGroup> existing = pointcutContributionMap.get(pointcut);
@@ -126,6 +196,7 @@ public class DSLDStore {
                 existing.addAll(contributions);
             }
         }
+        flushSubStoreCache();
     }
 
     public void addAllContexts(List<IPointcut> pointcuts, IContributionGroup contribution) {
@@ -142,17 +213,27 @@ public class DSLDStore {
      * @return The set of contributions applicable for the pattern
      */
     public List<IContributionElement> findContributions(GroovyDSLDContext pattern, Set<String> disabledScripts) {
+        DSLDProfiler profiler = DSLDProfiler.getInstance();
+        boolean profiling = profiler.isEnabled();
         List<IContributionElement> elts = new ArrayList<IContributionElement>();
         synchronized (pointcutContributionMap) {
             for (Map.Entry<IPointcut, List<IContributionGroup>> entry : pointcutContributionMap.entrySet()) {
                 IPointcut pointcut = entry.getKey();
                 if (!disabledScripts.contains(DSLDStore.toUniqueString(pointcut.getContainerIdentifier()))) {
                     pattern.resetBinding();
+                    long start = profiling ? System.nanoTime() : 0;
                     Collection<?> results = pointcut.matches(pattern, pattern.getCurrentType());
+                    long matched = profiling ? System.nanoTime() : 0;
+                    if (profiling) {
+                        profiler.recordMatch(pointcut, matched - start, results != null);
+                    }
                     if (results != null) {
                         for (IContributionGroup group : entry.getValue()) {
                             elts.addAll(group.getContributions(pattern, pattern.getCurrentBinding()));
                         }
+                        if (profiling) {
+                            profiler.recordContribution(pointcut, System.nanoTime() - matched);
+                        }
                     }
                 }
             }
@@ -23,6 +23,7 @@ public class DSLPreferencesInitializer extends AbstractPreferenceInitializer {
     public static final String AUTO_ADD_DSL_SUPPORT = GroovyDSLCoreActivator.PLUGIN_ID + ".auto.add.support";
     public static final String PROJECTS_TO_IGNORE = GroovyDSLCoreActivator.PLUGIN_ID + ".projects.ignore";
     public static final String DSLD_DISABLED = GroovyDSLCoreActivator.PLUGIN_ID + ".disabled";
+    public static final String DSLD_PROFILING = GroovyDSLCoreActivator.PLUGIN_ID + ".profiling";
 
     @Override
     public void initializeDefaultPreferences() {
@@ -30,6 +31,7 @@ public class DSLPreferencesInitializer extends AbstractPreferenceInitializer {
         store.setDefault(DSLD_DISABLED, Boolean.getBoolean("greclipse.dsld.disabled"));
         store.setDefault(AUTO_ADD_DSL_SUPPORT, true);
         store.setDefault(PROJECTS_TO_IGNORE, "");
+        store.setDefault(DSLD_PROFILING, Boolean.getBoolean("greclipse.dsld.profile"));
     }
 
     public static void reset() {
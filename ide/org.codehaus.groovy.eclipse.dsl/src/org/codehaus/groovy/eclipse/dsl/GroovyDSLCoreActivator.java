@@ -59,6 +59,7 @@ public class GroovyDSLCoreActivator extends AbstractUIPlugin {
     @Override
     public void start(BundleContext bundleContext) throws Exception {
         super.start(bundleContext);
+        DSLDProfiler.getInstance().setEnabled(getPreferenceStore().getBoolean(DSLPreferencesInitializer.DSLD_PROFILING));
         startListening();
     }
 
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Renders the results of a {@link ParallelResourceTypeChecker} run as plain text,
+ * JSON or JUnit XML.  JUnit XML uses one test case per file so that CI servers can
+ * display the per-file timings and failures with their standard test reporting.
+ */
+public class CheckerReportWriter {
+
+    public static enum Format {
+        TEXT, JSON, JUNIT
+    }
+
+    private final List<FileCheckResult> results;
+
+    private final String projectName;
+
+    public CheckerReportWriter(String projectName, List<FileCheckResult> results) {
+        this.projectName = projectName;
+        this.results = results;
+    }
+
+    public void write(Format format, PrintStream out) {
+        switch (format) {
+        case JSON:
+            writeJson(out);
+            break;
+        case JUNIT:
+            writeJUnit(out);
+            break;
+        default:
+            writeText(out);
+        }
+        out.flush();
+    }
+
+    public int getNumProblems() {
+        int count = 0;
+        for (FileCheckResult result : results) {
+            count += result.getProblems().size();
+            if (result.getError() != null) {
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    private long getTotalMillis() {
+        long total = 0;
+        for (FileCheckResult result : results) {
+            total += result.getElapsedMillis();
+        }
+        return total;
+    }
+
+    private void writeText(PrintStream out) {
+        for (FileCheckResult result : results) {
+            if (result.isUpToDate()) {
+                continue;
+            }
+            out.println("\nChecking: " + result.getPath() + " (" + result.getElapsedMillis() + "ms)");
+            for (FileCheckResult.Problem problem : result.getProblems()) {
+                out.println("\tLine " + problem.line + ": " + problem.message);
+            }
+            if (result.getError() != null) {
+                out.println("\tError: " + result.getError());
+            }
+        }
+        int numProblems = getNumProblems();
+        if (numProblems == 0) {
+            out.println("SUCCESS");
+        } else if (numProblems == 1) {
+            out.println("FAILURE found 1 type checking problem");
+        } else {
+            out.println("FAILURE found " + numProblems + " type checking problems");
+        }
+    }
+
+    private void writeJson(PrintStream out) {
+        out.println("{");
+        out.println("  \"project\": " + jsonString(projectName) + ",");
+        out.println("  \"problems\": " + getNumProblems() + ",");
+        out.println("  \"timeMillis\": " + getTotalMillis() + ",");
+        out.println("  \"files\": [");
+        for (int i = 0, n = results.size(); i < n; i++) {
+            FileCheckResult result = results.get(i);
+            out.print("    {\"path\": " + jsonString(result.getPath()) +
+                ", \"upToDate\": " + result.isUpToDate() +
+                ", \"timeMillis\": " + result.getElapsedMillis());
+            if (result.getError() != null) {
+                out.print(", \"error\": " + jsonString(String.valueOf(result.getError())));
+            }
+            out.print(", \"problems\": [");
+            List<FileCheckResult.Problem> problems = result.getProblems();
+            for (int j = 0, m = problems.size(); j < m; j++) {
+                FileCheckResult.Problem problem = problems.get(j);
+                out.print((j > 0 ? ", " : "") + "{\"line\": " + problem.line +
+                    ", \"kind\": \"" + (problem.assertion ? "assertion" : "unknown") + "\"" +
+                    ", \"message\": " + jsonString(problem.message) + "}");
+            }
+            out.println("]}" + (i < n - 1 ? "," : ""));
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+
+    private void writeJUnit(PrintStream out) {
+        int failures = 0, errors = 0, skipped = 0;
+        for (FileCheckResult result : results) {
+            if (result.isUpToDate()) {
+                skipped += 1;
+            } else if (result.getError() != null) {
+                errors += 1;
+            } else if (!result.getProblems().isEmpty()) {
+                failures += 1;
+            }
+        }
+        out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        out.println("<testsuite name=" + xmlAttribute("groovy.staticCheck." + projectName) +
+            " tests=\"" + results.size() + "\" failures=\"" + failures + "\" errors=\"" + errors +
+            "\" skipped=\"" + skipped + "\" time=\"" + seconds(getTotalMillis()) + "\">");
+        for (FileCheckResult result : results) {
+            out.print("  <testcase classname=" + xmlAttribute(projectName) + " name=" + xmlAttribute(result.getPath()) +
+                " time=\"" + seconds(result.getElapsedMillis()) + "\"");
+            if (result.isSuccess() && !result.isUpToDate()) {
+                out.println("/>");
+                continue;
+            }
+            out.println(">");
+            if (result.isUpToDate()) {
+                out.println("    <skipped message=\"unchanged since last check\"/>");
+            }
+            if (result.getError() != null) {
+                StringWriter trace = new StringWriter();
+                result.getError().printStackTrace(new PrintWriter(trace));
+                out.println("    <error message=" + xmlAttribute(String.valueOf(result.getError())) + ">" + xmlText(trace.toString()) + "</error>");
+            }
+            if (!result.getProblems().isEmpty()) {
+                StringBuilder text = new StringBuilder();
+                for (FileCheckResult.Problem problem : result.getProblems()) {
+                    text.append("Line ").append(problem.line).append(": ").append(problem.message).append('\n');
+                }
+                out.println("    <failure message=" + xmlAttribute(result.getProblems().size() + " type checking problem(s)") + ">" + xmlText(text.toString()) + "</failure>");
+            }
+            out.println("  </testcase>");
+        }
+        out.println("</testsuite>");
+    }
+
+    private static String seconds(long millis) {
+        return String.valueOf(millis / 1000.0);
+    }
+
+    static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    String hex = Integer.toHexString(c);
+                    sb.append("\\u");
+                    for (int j = hex.length(); j < 4; j++) {
+                        sb.append('0');
+                    }
+                    sb.append(hex);
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    static String xmlAttribute(String value) {
+        return "\"" + xmlText(value).replace("\"", "&quot;") + "\"";
+    }
+
+    static String xmlText(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.codehaus.groovy.eclipse.dsl.DSLDStore;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.IStorage;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.groovy.core.util.ContentTypeUtils;
+
+/**
+ * Persistent record of the files that passed static checking, used by the checker's
+ * incremental mode.  For each file that passed, the state holds a hash of its contents
+ * and of the contents of the workspace sources it was checked against.  A file is only
+ * skipped if none of those have changed since and the recorded fingerprint (see
+ * {@link #computeFingerprint}) still matches.  Files that had problems are always
+ * rechecked so that they are reported again.
+ * <p>
+ * Only contents are compared, never time stamps, so the state stays valid across fresh
+ * checkouts of the same sources.
+ */
+public class CheckerState {
+
+    private static final String FINGERPRINT_KEY = "#fingerprint";
+
+    private static final char SEPARATOR = '|';
+
+    private final File stateFile;
+
+    /** workspace path of a file that passed -> its hash, followed by the path and hash of each of its dependencies */
+    private final Properties passed = new Properties();
+
+    private final String fingerprint;
+
+    /** content hashes computed during this run, by workspace path; "" for a file that does not exist */
+    private final ConcurrentMap<String, String> hashes = new ConcurrentHashMap<String, String>();
+
+    /**
+     * @param stateFile file to read the previous state from and write the new state to
+     * @param fingerprint identifies everything besides the workspace sources that checking depends on;
+     *        if it differs from the recorded one, the whole recorded state is discarded
+     */
+    public CheckerState(File stateFile, String fingerprint) {
+        this.stateFile = stateFile;
+        this.fingerprint = fingerprint;
+    }
+
+    public void load() throws IOException {
+        passed.clear();
+        if (!stateFile.isFile()) {
+            return;
+        }
+        InputStream in = new FileInputStream(stateFile);
+        try {
+            passed.load(in);
+        } finally {
+            in.close();
+        }
+        if (!fingerprint.equals(passed.getProperty(FINGERPRINT_KEY))) {
+            passed.clear();
+        }
+    }
+
+    public synchronized void save() throws IOException {
+        passed.setProperty(FINGERPRINT_KEY, fingerprint);
+        File parent = stateFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        OutputStream out = new FileOutputStream(stateFile);
+        try {
+            passed.store(out, "Groovy static checker state");
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return true iff the file passed last time and neither it nor any of the sources it
+     *         was checked against have changed since
+     */
+    public boolean isUpToDate(IFile file) {
+        String recorded;
+        synchronized (this) {
+            recorded = passed.getProperty(file.getFullPath().toPortableString());
+        }
+        if (recorded == null) {
+            return false;
+        }
+        String[] parts = split(recorded);
+        if (!parts[0].equals(getHash(file.getFullPath().toPortableString()))) {
+            return false;
+        }
+        for (int i = 1; i < parts.length; i++) {
+            int eq = parts[i].lastIndexOf('=');
+            if (eq < 0 || !parts[i].substring(eq + 1).equals(getHash(parts[i].substring(0, eq)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the outcome of checking the file.  Must be called with the hash the file had
+     * when checking started, so that concurrent edits are not masked.
+     *
+     * @param hash content hash of the file, see {@link #getHash(String)}
+     * @param dependencies workspace paths of the sources declaring the types the file was checked against
+     */
+    public void record(IFile file, String hash, Collection<String> dependencies, FileCheckResult result) {
+        String key = file.getFullPath().toPortableString();
+        StringBuilder value = null;
+        if (result.isSuccess() && hash.length() > 0) {
+            value = new StringBuilder(hash);
+            for (String dependency : dependencies) {
+                if (!dependency.equals(key)) {
+                    value.append(SEPARATOR).append(dependency).append('=').append(getHash(dependency));
+                }
+            }
+        }
+        synchronized (this) {
+            if (value != null) {
+                passed.setProperty(key, value.toString());
+            } else {
+                passed.remove(key);
+            }
+        }
+    }
+
+    /**
+     * @param path workspace path of a file
+     * @return hash of the current contents of the file, or the empty string if it does not exist
+     */
+    public String getHash(String path) {
+        String hash = hashes.get(path);
+        if (hash == null) {
+            hash = "";
+            IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile(new Path(path));
+            if (file.exists()) {
+                try {
+                    hash = hash(file.getContents(true));
+                } catch (CoreException e) {
+                    // treat as missing; the file is checked again next time
+                } catch (IOException e) {
+                    // as above
+                }
+            }
+            hashes.putIfAbsent(path, hash);
+        }
+        return hash;
+    }
+
+    private static String[] split(String value) {
+        List<String> parts = new ArrayList<String>();
+        int start = 0;
+        for (int end; (end = value.indexOf(SEPARATOR, start)) >= 0; start = end + 1) {
+            parts.add(value.substring(start, end));
+        }
+        parts.add(value.substring(start));
+        return parts.toArray(new String[parts.size()]);
+    }
+
+    /**
+     * Computes a fingerprint of everything besides the workspace sources that checking may
+     * depend on: the checking mode, the contents of the DSLD scripts contributing to the
+     * store and of the jars and class folders on the classpath of the project and of the
+     * projects it requires.  The names of the Groovy and Java sources of those projects are
+     * included as well (but not their contents), since adding a type may change how names
+     * elsewhere resolve.  A change to any of these discards the whole recorded state.
+     */
+    public static String computeFingerprint(DSLDStore store, IJavaProject project, boolean assertionsOnly) throws CoreException {
+        List<String> parts = new ArrayList<String>();
+        for (IStorage key : store.getAllContextKeys()) {
+            String part = DSLDStore.toUniqueString(key);
+            try {
+                part += "@" + hash(key.getContents());
+            } catch (CoreException e) {
+                part += "@unreadable";
+            } catch (IOException e) {
+                part += "@unreadable";
+            }
+            parts.add(part);
+        }
+        addClasspathParts(project, parts, new HashSet<IJavaProject>());
+        Collections.sort(parts);
+
+        MessageDigest digest = createDigest();
+        for (String part : parts) {
+            digest.update(part.getBytes());
+            digest.update((byte) '\n');
+        }
+        return (assertionsOnly ? "assertions:" : "all:") + toHex(digest.digest());
+    }
+
+    private static void addClasspathParts(IJavaProject project, final List<String> parts, Set<IJavaProject> visited) throws CoreException {
+        if (!visited.add(project)) {
+            return;
+        }
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        for (IClasspathEntry entry : project.getResolvedClasspath(true)) {
+            switch (entry.getEntryKind()) {
+            case IClasspathEntry.CPE_SOURCE:
+                IResource sourceFolder = root.findMember(entry.getPath());
+                if (sourceFolder != null) {
+                    sourceFolder.accept(new IResourceVisitor() {
+                        public boolean visit(IResource resource) {
+                            if (resource.getType() == IResource.FILE && (JavaCore.isJavaLikeFileName(resource.getName()) ||
+                                    ContentTypeUtils.isGroovyLikeFileName(resource.getName()))) {
+                                parts.add(resource.getFullPath().toPortableString());
+                            }
+                            return true;
+                        }
+                    });
+                }
+                break;
+            case IClasspathEntry.CPE_PROJECT:
+                IProject requiredProject = root.getProject(entry.getPath().lastSegment());
+                if (requiredProject.isAccessible()) {
+                    addClasspathParts(JavaCore.create(requiredProject), parts, visited);
+                } else {
+                    parts.add(entry.getPath().toPortableString() + "@missing");
+                }
+                break;
+            case IClasspathEntry.CPE_LIBRARY:
+                IResource library = root.findMember(entry.getPath());
+                IPath location = library != null ? library.getLocation() : entry.getPath();
+                if (location != null) {
+                    addLibraryParts(location.toFile(), entry.getPath().lastSegment(), parts);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Adds the contents of a jar, or of every file below a class folder.  A jar is identified
+     * by the names, sizes and checksums of its entries as recorded in its directory, which is
+     * much cheaper than reading all of it.
+     */
+    private static void addLibraryParts(File file, String name, List<String> parts) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    addLibraryParts(child, name + "/" + child.getName(), parts);
+                }
+            }
+        } else if (!file.isFile()) {
+            parts.add(name + "@missing");
+        } else if (name.endsWith(".jar") || name.endsWith(".zip")) {
+            CRC32 crc = new CRC32();
+            try {
+                ZipFile zip = new ZipFile(file);
+                try {
+                    for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements();) {
+                        ZipEntry entry = entries.nextElement();
+                        crc.update((entry.getName() + "@" + entry.getCrc() + "#" + entry.getSize()).getBytes());
+                    }
+                } finally {
+                    zip.close();
+                }
+                parts.add(name + "@" + crc.getValue());
+            } catch (IOException e) {
+                parts.add(name + "@unreadable");
+            }
+        } else {
+            try {
+                parts.add(name + "@" + hash(new FileInputStream(file)));
+            } catch (IOException e) {
+                parts.add(name + "@unreadable");
+            }
+        }
+    }
+
+    /**
+     * Reads the stream to its end and closes it.
+     */
+    private static String hash(InputStream in) throws IOException {
+        try {
+            MessageDigest digest = createDigest();
+            byte[] buffer = new byte[8192];
+            for (int n; (n = in.read(buffer)) > 0;) {
+                digest.update(buffer, 0, n);
+            }
+            return toHex(digest.digest());
+        } finally {
+            in.close();
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
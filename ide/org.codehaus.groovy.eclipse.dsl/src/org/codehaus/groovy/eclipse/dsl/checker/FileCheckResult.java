@@ -0,0 +1,100 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of statically checking a single file.  Instances are filled in by
+ * a {@link RecordingStaticCheckerHandler} and are safe to hand between threads
+ * once checking of the file has completed.
+ */
+public class FileCheckResult {
+
+    public static class Problem {
+        public final int line;
+        public final String message;
+        /** <code>true</code> for failed type assertions, <code>false</code> for unknown references */
+        public final boolean assertion;
+
+        Problem(int line, String message, boolean assertion) {
+            this.line = line;
+            this.message = message;
+            this.assertion = assertion;
+        }
+    }
+
+    private final String path;
+    private final List<Problem> problems = new ArrayList<Problem>();
+    private long elapsedMillis;
+    private boolean upToDate;
+    private Throwable error;
+
+    public FileCheckResult(String path) {
+        this.path = path;
+    }
+
+    /**
+     * @return workspace-relative full path of the checked file
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public List<Problem> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    void addProblem(int line, String message, boolean assertion) {
+        problems.add(new Problem(line, message, assertion));
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return true iff the file was not rechecked because it is unchanged since the last recorded state
+     */
+    public boolean isUpToDate() {
+        return upToDate;
+    }
+
+    void setUpToDate(boolean upToDate) {
+        this.upToDate = upToDate;
+    }
+
+    /**
+     * @return the exception thrown while checking this file, or null if checking completed normally
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    void setError(Throwable error) {
+        this.error = error;
+    }
+
+    public boolean isSuccess() {
+        return problems.isEmpty() && error == null;
+    }
+}
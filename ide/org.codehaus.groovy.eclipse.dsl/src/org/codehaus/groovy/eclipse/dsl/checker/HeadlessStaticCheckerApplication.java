@@ -0,0 +1,130 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Runs the static type checker without a workbench or display, so that it can be used on
+ * CI build agents.  Unlike {@link StaticCheckerApplication} it never loads the workbench.
+ * In addition to the options of that application it supports checking files in parallel,
+ * an incremental mode that skips the files that passed last time if neither they nor the
+ * sources they were checked against have changed since, and machine-readable output.
+ */
+public class HeadlessStaticCheckerApplication extends AbstractStaticCheckerApplication {
+
+    private int numThreads;
+    private String stateFile;
+    private CheckerReportWriter.Format format = CheckerReportWriter.Format.TEXT;
+
+    @Override
+    public Object start(IApplicationContext context) throws Exception {
+        if (!processCommandLine((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS))) {
+            return IApplication.EXIT_OK;
+        }
+        return performCheck() ? IApplication.EXIT_OK : Integer.valueOf(1);
+    }
+
+    @Override
+    protected boolean processCommandLine(String[] args) {
+        List<String> remaining = new ArrayList<String>(args.length);
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--threads") || arg.equals("--incremental") || arg.equals("--format")) {
+                if (i == args.length - 1) {
+                    System.err.println("Missing " + arg + " argument");
+                    printUsage(false);
+                    return false;
+                }
+                String value = args[++i];
+                if (arg.equals("--threads")) {
+                    try {
+                        numThreads = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        System.err.println("Invalid --threads argument: " + value);
+                        printUsage(false);
+                        return false;
+                    }
+                } else if (arg.equals("--incremental")) {
+                    stateFile = value;
+                } else {
+                    try {
+                        format = CheckerReportWriter.Format.valueOf(value.toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("Invalid --format argument: " + value);
+                        printUsage(false);
+                        return false;
+                    }
+                }
+            } else {
+                remaining.add(arg);
+            }
+        }
+        return super.processCommandLine(remaining.toArray(new String[remaining.size()]));
+    }
+
+    @Override
+    protected boolean runChecker(IProject project) throws Exception {
+        CheckerState state = null;
+        if (stateFile != null) {
+            state = new CheckerState(new File(stateFile), CheckerState.computeFingerprint(
+                GroovyDSLCoreActivator.getDefault().getContextStoreManager().getDSLDStore(project), JavaCore.create(project), assertionsOnly));
+            state.load();
+        }
+
+        long start = System.currentTimeMillis();
+        ParallelResourceTypeChecker checker = new ParallelResourceTypeChecker(Collections.<IResource>singletonList(project),
+            inclusionFilters, exclusionFilters, assertionsOnly, numThreads, state);
+        List<FileCheckResult> results = checker.doCheck(null);
+        System.out.println("Checked " + results.size() + " files in " + (System.currentTimeMillis() - start) + "ms");
+
+        if (state != null) {
+            state.save();
+        }
+
+        CheckerReportWriter report = new CheckerReportWriter(projectName, results);
+        PrintStream out = resultFile == null ? System.out : createOutStream(resultFile);
+        try {
+            report.write(format, out);
+        } finally {
+            if (out != System.out) {
+                out.close();
+            }
+        }
+        return report.getNumProblems() == 0;
+    }
+
+    @Override
+    protected void printUsage(boolean isInvalid) {
+        super.printUsage(isInvalid);
+        System.out.println();
+        System.out.println("When run as org.codehaus.groovy.eclipse.dsl.staticCheckHeadless, no display is required and these options are also available:");
+        System.out.println("\t--threads  Number of files to check in parallel.  Defaults to the number of available processors.");
+        System.out.println("\t--incremental  State file recording files that passed; those that did not change, and none of whose dependencies changed, are not rechecked.  A change to a DSLD or classpath entry, or an added or removed source, rechecks all files.");
+        System.out.println("\t--format  One of 'text', 'json' or 'junit'.  Defaults to 'text'.");
+    }
+}
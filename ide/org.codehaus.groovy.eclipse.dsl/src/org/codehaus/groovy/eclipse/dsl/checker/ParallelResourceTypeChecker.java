@@ -0,0 +1,197 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.groovy.core.util.ContentTypeUtils;
+import org.eclipse.jdt.internal.core.util.Util;
+
+/**
+ * Variant of {@link ResourceTypeChecker} that does not need a UI, checks files concurrently
+ * and produces one {@link FileCheckResult} per file instead of streaming to an
+ * {@link IStaticCheckerHandler}.  Files are independent of each other, so each one is
+ * inferred on its own worker with its own handler.
+ */
+public class ParallelResourceTypeChecker {
+
+    private final List<IResource> resources;
+    private final char[][] includes;
+    private final char[][] excludes;
+    private final boolean onlyAssertions;
+    private final int numThreads;
+    private final CheckerState state;
+
+    /** type name -> workspace path of the source declaring it, or "" if it is not declared in a workspace source */
+    private final ConcurrentMap<String, String> sourcePaths = new ConcurrentHashMap<String, String>();
+
+    /**
+     * @param numThreads number of worker threads; values less than 1 mean one per available processor
+     * @param state recorded state of a previous run, or null to check every file
+     */
+    public ParallelResourceTypeChecker(List<IResource> resources, char[][] includes, char[][] excludes, boolean onlyAssertions, int numThreads, CheckerState state) {
+        this.resources = resources;
+        this.includes = includes;
+        this.excludes = excludes;
+        this.onlyAssertions = onlyAssertions;
+        this.numThreads = numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors();
+        this.state = state;
+    }
+
+    /**
+     * Performs the type checking on the selected resources.
+     * @param monitor progress monitor, can be null
+     * @return results for every checked (or up-to-date) file, in resource traversal order
+     */
+    public List<FileCheckResult> doCheck(IProgressMonitor monitor) throws CoreException {
+        if (monitor == null) {
+            monitor = new NullProgressMonitor();
+        }
+        final List<GroovyCompilationUnit> units = new ArrayList<GroovyCompilationUnit>();
+        for (IResource resource : resources) {
+            resource.accept(new IResourceVisitor() {
+                public boolean visit(IResource resource) throws CoreException {
+                    if (resource.isDerived()) {
+                        return false;
+                    }
+                    if (resource.getType() == IResource.FILE && ContentTypeUtils.isGroovyLikeFileName(resource.getName())) {
+                        if (Util.isExcluded(resource, includes, excludes)) {
+                            return false;
+                        }
+                        GroovyCompilationUnit unit = (GroovyCompilationUnit) JavaCore.create((IFile) resource);
+                        if (unit != null && unit.isOnBuildPath()) {
+                            units.add(unit);
+                        }
+                    }
+                    return true;
+                }
+            });
+        }
+
+        monitor.beginTask("Static type analysis", units.size());
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Groovy static checker " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<FileCheckResult>> futures = new ArrayList<Future<FileCheckResult>>(units.size());
+            for (final GroovyCompilationUnit unit : units) {
+                futures.add(executor.submit(new Callable<FileCheckResult>() {
+                    public FileCheckResult call() {
+                        return check(unit);
+                    }
+                }));
+            }
+            List<FileCheckResult> results = new ArrayList<FileCheckResult>(units.size());
+            for (Future<FileCheckResult> future : futures) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                try {
+                    results.add(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new OperationCanceledException();
+                } catch (ExecutionException e) {
+                    // check() handles its own exceptions
+                    throw new IllegalStateException(e.getCause());
+                }
+                monitor.worked(1);
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+            monitor.done();
+        }
+    }
+
+    private FileCheckResult check(GroovyCompilationUnit unit) {
+        IFile file = (IFile) unit.getResource();
+        FileCheckResult result = new FileCheckResult(file.getFullPath().toPortableString());
+        if (state != null && state.isUpToDate(file)) {
+            result.setUpToDate(true);
+            return result;
+        }
+        String hash = state != null ? state.getHash(file.getFullPath().toPortableString()) : null;
+        Set<String> referencedTypes = state != null ? new HashSet<String>() : null;
+        long start = System.nanoTime();
+        try {
+            ResourceTypeChecker.checkUnit(unit, new RecordingStaticCheckerHandler(result), onlyAssertions, referencedTypes, new NullProgressMonitor());
+        } catch (Exception e) {
+            result.setError(e);
+        } finally {
+            result.setElapsedMillis((System.nanoTime() - start) / 1000000);
+        }
+        if (state != null) {
+            state.record(file, hash, findSourcePaths(unit.getJavaProject(), referencedTypes), result);
+        }
+        return result;
+    }
+
+    /**
+     * @return workspace paths of the sources that declare any of the given types
+     */
+    private Set<String> findSourcePaths(IJavaProject project, Set<String> typeNames) {
+        Set<String> paths = new HashSet<String>();
+        for (String typeName : typeNames) {
+            String path = sourcePaths.get(typeName);
+            if (path == null) {
+                path = "";
+                try {
+                    IType type = project.findType(typeName.replace('$', '.'), new NullProgressMonitor());
+                    if (type != null && !type.isBinary() && type.getResource() != null) {
+                        path = type.getResource().getFullPath().toPortableString();
+                    }
+                } catch (JavaModelException e) {
+                    // not a type the project can see
+                }
+                sourcePaths.putIfAbsent(typeName, path);
+            }
+            if (path.length() > 0) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jface.text.Position;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Records the problems of a single file into a {@link FileCheckResult}.  One handler is
+ * created per file so that files can be checked concurrently without sharing state.
+ */
+class RecordingStaticCheckerHandler implements IStaticCheckerHandler {
+
+    private final FileCheckResult result;
+
+    RecordingStaticCheckerHandler(FileCheckResult result) {
+        this.result = result;
+    }
+
+    public void handleUnknownReference(ASTNode node, Position position, int line) {
+        result.addProblem(line, "unknown type: " + node.getText(), false);
+    }
+
+    public void handleTypeAssertionFailed(ASTNode node, String expectedType, String actualType, Position position, int line) {
+        result.addProblem(line, "Invalid inferred type.  " + node.getText() + "  Expected: " + expectedType + " Actual: " + actualType, true);
+    }
+
+    public void setResource(IFile resource) {
+        // result is already bound to its file
+    }
+
+    public int numProblemsFound() {
+        return result.getProblems().size();
+    }
+
+    public void handleResourceStart(IResource resource) {
+        // do nothing
+    }
+
+    public boolean finish(Shell shell) {
+        return result.isSuccess();
+    }
+}
@@ -19,6 +19,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.codehaus.groovy.ast.Comment;
@@ -72,57 +73,80 @@ public class ResourceTypeChecker {
                     }
                     monitor.subTask(resource.getName());
                     handler.setResource((IFile) resource);
-                    Map<Integer, String> commentsMap = findComments(unit);
-                    StaticTypeCheckerRequestor requestor = new StaticTypeCheckerRequestor(handler, commentsMap, onlyAssertions);
-                    TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
-                    try {
-                        unit.becomeWorkingCopy(monitor);
-                        visitor.visitCompilationUnit(requestor);
-                    } finally {
-                        unit.discardWorkingCopy();
-                    }
+                    checkUnit(unit, handler, onlyAssertions, monitor);
                 }
             }
             return true;
         }
+    }
+
+    private static final Object WORKING_COPY_LOCK = new Object();
+
+    /**
+     * Type checks a single compilation unit, reporting all problems to the handler.
+     * Does not call {@link IStaticCheckerHandler#setResource(IFile)}; that is left to the caller.
+     */
+    static void checkUnit(GroovyCompilationUnit unit, IStaticCheckerHandler handler, boolean onlyAssertions, IProgressMonitor monitor) throws CoreException {
+        checkUnit(unit, handler, onlyAssertions, null, monitor);
+    }
 
-        private Map<Integer, String> findComments(GroovyCompilationUnit unit) {
-            List<Comment> comments = unit.getModuleNode().getContext().getComments();
-            Map<Integer, String> allComments = new HashMap<Integer, String>(comments.size());
-            for (Comment comment : comments) {
-                StringTokenizer stok = new StringTokenizer(comment.toString());
-                String type = null;
-                if (stok.hasMoreTokens()) {
-                    // consume the comment start
-                    String val = stok.nextToken();
-                    int typeIndex = val.indexOf("TYPE:");
-                    if (typeIndex > 0) {
-                        type = val.substring(typeIndex + "TYPE:".length());
-                        if (type.length() == 0) {
-                            type = null;
-                        }
+    /**
+     * @param referencedTypes if not null, receives the names of the types that the unit was checked against
+     */
+    static void checkUnit(GroovyCompilationUnit unit, IStaticCheckerHandler handler, boolean onlyAssertions, Set<String> referencedTypes, IProgressMonitor monitor) throws CoreException {
+        Map<Integer, String> commentsMap = findComments(unit);
+        StaticTypeCheckerRequestor requestor = new StaticTypeCheckerRequestor(handler, commentsMap, onlyAssertions, referencedTypes);
+        TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
+        // working copies are created and discarded through the shared Java model, which
+        // does not expect several threads to do that at once; see ParallelResourceTypeChecker
+        synchronized (WORKING_COPY_LOCK) {
+            unit.becomeWorkingCopy(monitor);
+        }
+        try {
+            visitor.visitCompilationUnit(requestor);
+        } finally {
+            synchronized (WORKING_COPY_LOCK) {
+                unit.discardWorkingCopy();
+            }
+        }
+    }
+
+    private static Map<Integer, String> findComments(GroovyCompilationUnit unit) {
+        List<Comment> comments = unit.getModuleNode().getContext().getComments();
+        Map<Integer, String> allComments = new HashMap<Integer, String>(comments.size());
+        for (Comment comment : comments) {
+            StringTokenizer stok = new StringTokenizer(comment.toString());
+            String type = null;
+            if (stok.hasMoreTokens()) {
+                // consume the comment start
+                String val = stok.nextToken();
+                int typeIndex = val.indexOf("TYPE:");
+                if (typeIndex > 0) {
+                    type = val.substring(typeIndex + "TYPE:".length());
+                    if (type.length() == 0) {
+                        type = null;
                     }
                 }
-                String candidate;
-                if (stok.hasMoreTokens() && (candidate = stok.nextToken()).startsWith("TYPE:")) {
-                    // may or may not have a space after the colon
-                    if (candidate.equals("TYPE:")) {
-                        if (stok.hasMoreTokens()) {
-                            type = stok.nextToken();
-                        }
-                    } else {
-                        String[] split = candidate.split("\\:");
-                        type = split[1];
+            }
+            String candidate;
+            if (stok.hasMoreTokens() && (candidate = stok.nextToken()).startsWith("TYPE:")) {
+                // may or may not have a space after the colon
+                if (candidate.equals("TYPE:")) {
+                    if (stok.hasMoreTokens()) {
+                        type = stok.nextToken();
                     }
+                } else {
+                    String[] split = candidate.split("\\:");
+                    type = split[1];
                 }
-                if (type != null) {
-                    allComments.put(comment.sline, type);
-                }
             }
-            return allComments;
+            if (type != null) {
+                allComments.put(comment.sline, type);
+            }
         }
+        return allComments;
     }
-    
+
     private final IStaticCheckerHandler handler;
     private final List<IResource> resources;
 
@@ -16,6 +16,7 @@
 package org.codehaus.groovy.eclipse.dsl.checker;
 
 import java.util.Map;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.AnnotatedNode;
@@ -53,14 +54,30 @@ public class StaticTypeCheckerRequestor extends SemanticReferenceRequestor {
 
     private final boolean onlyAssertions;
 
+    private final Set<String> referencedTypes;
+
     StaticTypeCheckerRequestor(IStaticCheckerHandler handler, Map<Integer, String> commentsMap, boolean onlyAssertions) {
+        this(handler, commentsMap, onlyAssertions, null);
+    }
+
+    /**
+     * @param referencedTypes if not null, receives the names of all types that inferencing looked at, along with their
+     *        type arguments and supertypes
+     */
+    StaticTypeCheckerRequestor(IStaticCheckerHandler handler, Map<Integer, String> commentsMap, boolean onlyAssertions, Set<String> referencedTypes) {
         this.handler = handler;
         this.commentsMap = commentsMap;
         this.onlyAssertions = onlyAssertions;
+        this.referencedTypes = referencedTypes;
     }
 
 
     public VisitStatus acceptASTNode(ASTNode node, TypeLookupResult result, IJavaElement enclosingElement) {
+        if (referencedTypes != null) {
+            addReferencedType(result.type, 0);
+            addReferencedType(result.declaringType, 0);
+        }
+
         if (node instanceof BlockStatement) {
             if (((BlockStatement) node).getStatements() == null) {
                 return VisitStatus.CANCEL_BRANCH;
@@ -90,6 +107,33 @@ public class StaticTypeCheckerRequestor extends SemanticReferenceRequestor {
         return VisitStatus.CONTINUE;
     }
 
+    private void addReferencedType(ClassNode type, int depth) {
+        if (type == null || depth > 8) {
+            return;
+        }
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        // the same type may be seen with different type arguments
+        GenericsType[] generics = type.getGenericsTypes();
+        if (generics != null) {
+            for (GenericsType gt : generics) {
+                if (!gt.isPlaceholder() && !gt.isWildcard()) {
+                    addReferencedType(gt.getType(), depth + 1);
+                }
+            }
+        }
+        if (referencedTypes.add(type.getName())) {
+            addReferencedType(type.getSuperClass(), depth + 1);
+            ClassNode[] interfaces = type.getInterfaces();
+            if (interfaces != null) {
+                for (ClassNode face : interfaces) {
+                    addReferencedType(face, depth + 1);
+                }
+            }
+        }
+    }
+
     /**
      * @param type
      * @param expectedType
@@ -16,8 +16,11 @@
 package org.codehaus.groovy.eclipse.dsl.inferencing.suggestions;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.InferencingSuggestionsManager.ProjectSuggestions;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext;
 import org.eclipse.core.resources.IProject;
@@ -48,9 +51,20 @@ public class DeclaringTypeSuperTypeMatcher {
         ProjectSuggestions suggestions = InferencingSuggestionsManager.getInstance().getSuggestions(project);
         List<GroovySuggestionDeclaringType> superTypes = new ArrayList<GroovySuggestionDeclaringType>();
         if (suggestions != null) {
-            for (GroovySuggestionDeclaringType declaringType : suggestions.getDeclaringTypes()) {
-                if (context.matchesType(declaringType.getName())) {
-                    superTypes.add(declaringType);
+            if (context.getCurrentType() == null) {
+                // no type to match against, so everything matches
+                superTypes.addAll(suggestions.getDeclaringTypes());
+            } else {
+                // suggestions are indexed by declaring type name, so look up each
+                // type in the hierarchy instead of matching every declaring type
+                Set<String> seen = new HashSet<String>();
+                for (ClassNode type : context.getCurrentTypeHierarchy()) {
+                    if (seen.add(type.getName())) {
+                        GroovySuggestionDeclaringType declaringType = suggestions.getExactDeclaringType(type.getName());
+                        if (declaringType != null) {
+                            superTypes.add(declaringType);
+                        }
+                    }
                 }
             }
         }
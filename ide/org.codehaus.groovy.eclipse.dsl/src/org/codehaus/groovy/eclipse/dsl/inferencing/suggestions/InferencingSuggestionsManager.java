@@ -22,11 +22,13 @@ import java.util.Map;
 
 import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator;
 import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.writer.SuggestionsFile;
+import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.writer.SuggestionsReader;
 import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.writer.SuggestionsTransform;
 import org.codehaus.jdt.groovy.model.GroovyNature;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.NullProgressMonitor;
 
 /**
@@ -42,6 +44,18 @@ public class InferencingSuggestionsManager {
 
     private IProject lastModifiedProject;
 
+    /**
+     * Suggestions files that have been registered by a DSLD refresh but not yet read.
+     * They are read the next time the suggestions of their project are requested.
+     */
+    private final Map<IProject, IFile> pendingFiles = new HashMap<IProject, IFile>();
+
+    /**
+     * Versions of the suggestions files at the time they were last read or written,
+     * so that unchanged files are not parsed again; see {@link #getVersion(IFile)}.
+     */
+    private final Map<IProject, String> loadedVersions = new HashMap<IProject, String>();
+
     private InferencingSuggestionsManager() {
         // Singleton
     }
@@ -77,6 +91,12 @@ public class InferencingSuggestionsManager {
 
             IFile file = suggestionsFile.createFile();
             writeToFile(file, result);
+            if (file != null) {
+                // the in-memory model is what was just written, so no need to read it back
+                synchronized (loadedVersions) {
+                    loadedVersions.put(project, getVersion(file));
+                }
+            }
             return true;
         }
         return false;
@@ -100,7 +120,7 @@ public class InferencingSuggestionsManager {
             SuggestionsFile suggestionFile = new SuggestionsFile(project);
             IFile file = suggestionFile.getFile();
             if (file != null && file.exists()) {
-                return new SuggestionsLoader(file).loadExistingSuggestions();
+                return new SuggestionsLoader(file).loadExistingSuggestions(true);
             }
         }
         // If restoring was not possible, remove suggestions from model
@@ -156,6 +176,13 @@ public class InferencingSuggestionsManager {
         if (!isValidProject(project)) {
             return null;
         }
+        IFile pending;
+        synchronized (pendingFiles) {
+            pending = pendingFiles.remove(project);
+        }
+        if (pending != null) {
+            readSuggestions(pending, false);
+        }
         if (perProjectSuggestions == null) {
             perProjectSuggestions = new HashMap<IProject, ProjectSuggestions>();
         }
@@ -168,6 +195,47 @@ public class InferencingSuggestionsManager {
         return projectSuggestions;
     }
 
+    /**
+     * Defers reading the suggestions file until the suggestions of its project are next requested.
+     */
+    public void scheduleRead(IFile file) {
+        synchronized (pendingFiles) {
+            pendingFiles.put(file.getProject(), file);
+        }
+    }
+
+    /**
+     * Reads the suggestions file into the model, replacing all in-memory suggestions of its project.
+     *
+     * @param force if false, the file is only read if it has changed since it was last read or written
+     * @return true if the model reflects the file contents
+     */
+    public boolean readSuggestions(IFile file, boolean force) {
+        IProject project = file.getProject();
+        String version = getVersion(file);
+        synchronized (loadedVersions) {
+            if (!force && version.equals(loadedVersions.get(project))) {
+                return true;
+            }
+            IPath path = file.getLocation();
+            String absoluteFileName = path != null ? path.toString() : null;
+            SuggestionsReader reader = new SuggestionsReader(project, absoluteFileName);
+            if (reader.read() == null) {
+                return false;
+            }
+            loadedVersions.put(project, version);
+            return true;
+        }
+    }
+
+    /**
+     * The modification stamp alone does not tell a file apart from one that was deleted and
+     * created again, so the time stamp of the file on disk is part of the version as well.
+     */
+    private static String getVersion(IFile file) {
+        return file.getModificationStamp() + "/" + file.getLocalTimeStamp();
+    }
+
     public class ProjectSuggestions {
         private Map<String, GroovySuggestionDeclaringType> suggestions;
 
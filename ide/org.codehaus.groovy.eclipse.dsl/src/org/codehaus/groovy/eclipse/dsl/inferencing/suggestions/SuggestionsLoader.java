@@ -17,10 +17,8 @@ package org.codehaus.groovy.eclipse.dsl.inferencing.suggestions;
 
 import org.codehaus.groovy.eclipse.dsl.DSLDStore;
 import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator;
-import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.writer.SuggestionsReader;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.runtime.IPath;
 
 /**
  * 
@@ -36,19 +34,31 @@ public class SuggestionsLoader {
     }
 
     /**
-     * Loads all suggestions from XML, clearing any existing in-memory
-     * suggestions, and adds corresponding contribution groups and point cutsF
+     * Registers the suggestions of the file and adds corresponding contribution
+     * groups and point cuts.  Reading the XML is deferred until the suggestions
+     * are next requested, and skipped if the file has not changed since it was
+     * last read.
      */
     public boolean loadExistingSuggestions() {
+        return loadExistingSuggestions(false);
+    }
+
+    /**
+     * @param force if true, reads the XML immediately, clearing any existing
+     *        in-memory suggestions, even if the file has not changed
+     */
+    public boolean loadExistingSuggestions(boolean force) {
         if (file != null && file.isAccessible()) {
             IProject project = file.getProject();
             // Make sure the file is in a Groovy project, and the project is
             // accessible
-            if (InferencingSuggestionsManager.getInstance().isValidProject(project)) {
-                IPath path = file.getLocation();
-                String absoluteFileName = path != null ? path.toString() : null;
-                SuggestionsReader reader = new SuggestionsReader(file.getProject(), absoluteFileName);
-                reader.read();
+            InferencingSuggestionsManager manager = InferencingSuggestionsManager.getInstance();
+            if (manager.isValidProject(project)) {
+                if (force) {
+                    manager.readSuggestions(file, true);
+                } else {
+                    manager.scheduleRead(file);
+                }
                 addSuggestionsContributionGroup();
                 return true;
             }
@@ -11,7 +11,10 @@
 package org.codehaus.groovy.eclipse.dsl.pointcuts;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.codehaus.groovy.ast.ClassNode;
@@ -19,6 +22,8 @@ import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.eclipse.dsl.lookup.ResolverCache;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.groovy.search.VariableScope;
@@ -72,9 +77,7 @@ public class GroovyDSLDContext {
     private ClassNode targetType;
 
     public GroovyDSLDContext(GroovyCompilationUnit unit, ModuleNode module, JDTResolver jdtResolver) throws CoreException {
-        this(getProjectNatures(unit),
-                getFullPathToFile(unit),
-                getPathToPackage(unit));
+        this(FileFacts.get(unit));
         resolverCache = new ResolverCache(jdtResolver, module);
     }
 
@@ -85,31 +88,92 @@ public class GroovyDSLDContext {
      */
     @Deprecated
     public GroovyDSLDContext(String[] projectNatures, String fullPathName, String packageRootPath) {
-        this.fullPathName = fullPathName;
-        this.packageRootPath = packageRootPath;
-        if (fullPathName != null) {
-            int lastDot = fullPathName.lastIndexOf('/');
-            this.simpleFileName = fullPathName.substring(lastDot+1);
-        } else {
-            this.simpleFileName = null;
+        this(new FileFacts(projectNatures, fullPathName, packageRootPath, 0));
+    }
+
+    private GroovyDSLDContext(FileFacts facts) {
+        this.projectNatures = facts.projectNatures;
+        this.fullPathName = facts.fullPathName;
+        this.simpleFileName = facts.simpleFileName;
+        this.packageRootPath = facts.packageRootPath;
+        this.packageFolderPath = facts.packageFolderPath;
+    }
+
+    /**
+     * The parts of the context that only depend on the file and its project.  These are
+     * cached per file so that a context can be created for every inferencing session
+     * without fetching the project description each time.  Entries are keyed by the
+     * project, package root and file paths, so a unit that is renamed or moved, or whose
+     * source folder changes, gets new ones; they are discarded when the project's
+     * <code>.project</code> file changes.
+     */
+    private static final class FileFacts {
+
+        private static final int MAX_CACHED_FILES = 500;
+
+        @SuppressWarnings("serial")
+        private static final Map<String, FileFacts> CACHE =
+            new LinkedHashMap<String, FileFacts>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, FileFacts> eldest) {
+                    return size() > MAX_CACHED_FILES;
+                }
+            };
+
+        static FileFacts get(GroovyCompilationUnit unit) throws CoreException {
+            IProject project = unit.getJavaProject().getProject();
+            long descriptionStamp = project.getFile(IProjectDescription.DESCRIPTION_FILE_NAME).getModificationStamp();
+            String fullPathName = getFullPathToFile(unit);
+            String packageRootPath = getPathToPackage(unit);
+            String key = project.getName() + ':' + packageRootPath + ':' + fullPathName;
+            FileFacts facts;
+            synchronized (CACHE) {
+                facts = CACHE.get(key);
+            }
+            if (facts == null || facts.descriptionStamp != descriptionStamp) {
+                facts = new FileFacts(project.getDescription().getNatureIds(), fullPathName, packageRootPath, descriptionStamp);
+                synchronized (CACHE) {
+                    CACHE.put(key, facts);
+                }
+            }
+            return facts;
         }
 
-        // assumption is that packageRootPath is a prefix of fullPathName
-        String candidate;
-        if (packageRootPath != null && packageRootPath.length() < fullPathName.length()) {
-            candidate = fullPathName.substring(packageRootPath.length());
-            if (simpleFileName != null) {
-                int indexOf = candidate.lastIndexOf("/" + simpleFileName);
-                int start = candidate.startsWith("/") ? 1 : 0;
-                if (indexOf > 0 && candidate.length() > 0) {
-                    candidate = candidate.substring(start, indexOf);
+        final String[] projectNatures;
+        final String fullPathName;
+        final String simpleFileName;
+        final String packageRootPath;
+        final String packageFolderPath;
+        final long descriptionStamp;
+
+        FileFacts(String[] projectNatures, String fullPathName, String packageRootPath, long descriptionStamp) {
+            this.projectNatures = projectNatures;
+            this.fullPathName = fullPathName;
+            this.packageRootPath = packageRootPath;
+            this.descriptionStamp = descriptionStamp;
+            if (fullPathName != null) {
+                int lastDot = fullPathName.lastIndexOf('/');
+                this.simpleFileName = fullPathName.substring(lastDot+1);
+            } else {
+                this.simpleFileName = null;
+            }
+
+            // assumption is that packageRootPath is a prefix of fullPathName
+            String candidate;
+            if (packageRootPath != null && packageRootPath.length() < fullPathName.length()) {
+                candidate = fullPathName.substring(packageRootPath.length());
+                if (simpleFileName != null) {
+                    int indexOf = candidate.lastIndexOf("/" + simpleFileName);
+                    int start = candidate.startsWith("/") ? 1 : 0;
+                    if (indexOf > 0 && candidate.length() > 0) {
+                        candidate = candidate.substring(start, indexOf);
+                    }
                 }
+            } else {
+                candidate = "";
             }
-        } else {
-            candidate = "";
+            this.packageFolderPath = candidate;
         }
-        packageFolderPath = candidate;
-        this.projectNatures = projectNatures;
     }
 
     private static String getPathToPackage(GroovyCompilationUnit unit) {
@@ -123,11 +187,6 @@ public class GroovyDSLDContext {
         return resource == null ? null : resource.getFullPath().removeFirstSegments(1).toPortableString();
     }
 
-
-    private static String[] getProjectNatures(GroovyCompilationUnit unit) throws CoreException {
-        return unit.getJavaProject().getProject().getDescription().getNatureIds();
-    }
-
     /** cached type hierarchy for checking type matches (consider caching more) */
     private Set<ClassNode> cachedHierarchy;
 
@@ -219,6 +278,22 @@ public class GroovyDSLDContext {
 
 
 
+    /**
+     * @return the target type followed by all of its super types and interfaces,
+     *         or an empty set if there is no target type
+     */
+    public Set<ClassNode> getCurrentTypeHierarchy() {
+        if (targetType == null) {
+            return Collections.emptySet();
+        }
+        if (cachedHierarchy == null) {
+            // use linked hash set because order is important
+            cachedHierarchy = new LinkedHashSet<ClassNode>();
+            getAllSupers(targetType, cachedHierarchy);
+        }
+        return Collections.unmodifiableSet(cachedHierarchy);
+    }
+
     public VariableScope getCurrentScope() {
         return currentScope;
     }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.ui;
+
+import org.codehaus.groovy.eclipse.dsl.DSLDProfiler;
+import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+
+/**
+ * Shows the slowest DSLD scripts and pointcuts as recorded by the {@link DSLDProfiler}.
+ */
+public class DSLDProfileDialog extends Dialog {
+
+    private static final int RESET_ID = IDialogConstants.CLIENT_ID + 1;
+    private static final int REFRESH_ID = IDialogConstants.CLIENT_ID + 2;
+
+    private Text text;
+
+    public DSLDProfileDialog(Shell parentShell) {
+        super(parentShell);
+        setShellStyle(getShellStyle() | SWT.RESIZE);
+    }
+
+    @Override
+    protected void configureShell(Shell newShell) {
+        super.configureShell(newShell);
+        newShell.setText("DSLD Profile");
+    }
+
+    @Override
+    protected Control createDialogArea(Composite parent) {
+        Composite composite = (Composite) super.createDialogArea(parent);
+        text = new Text(composite, SWT.MULTI | SWT.READ_ONLY | SWT.BORDER | SWT.H_SCROLL | SWT.V_SCROLL);
+        text.setFont(JFaceResources.getTextFont());
+        GridData data = new GridData(SWT.FILL, SWT.FILL, true, true);
+        data.widthHint = convertWidthInCharsToPixels(140);
+        data.heightHint = convertHeightInCharsToPixels(30);
+        text.setLayoutData(data);
+        refresh();
+        return composite;
+    }
+
+    @Override
+    protected void createButtonsForButtonBar(Composite parent) {
+        createButton(parent, REFRESH_ID, "Refresh", false);
+        createButton(parent, RESET_ID, "Reset", false);
+        createButton(parent, IDialogConstants.CLOSE_ID, IDialogConstants.CLOSE_LABEL, true);
+    }
+
+    @Override
+    protected void buttonPressed(int buttonId) {
+        if (buttonId == RESET_ID) {
+            DSLDProfiler.getInstance().reset();
+            refresh();
+        } else if (buttonId == REFRESH_ID) {
+            refresh();
+        } else if (buttonId == IDialogConstants.CLOSE_ID) {
+            close();
+        } else {
+            super.buttonPressed(buttonId);
+        }
+    }
+
+    private void refresh() {
+        text.setText(DSLDProfiler.getInstance().createReport(50));
+    }
+}
@@ -25,6 +25,7 @@ import java.util.Set;
 
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.groovy.eclipse.dsl.DSLDProfiler;
 import org.codehaus.groovy.eclipse.dsl.DSLDStore;
 import org.codehaus.groovy.eclipse.dsl.DSLDStoreManager;
 import org.codehaus.groovy.eclipse.dsl.DSLPreferencesInitializer;
@@ -80,12 +81,13 @@ import org.eclipse.ui.progress.UIJob;
 
 public class DSLPreferencesPage extends PreferencePage implements IWorkbenchPreferencePage {
 
-    private static final String[] LABELS = {"Edit...", "Recompile Scripts", "Refresh List", "Check All", "Uncheck All"};
+    private static final String[] LABELS = {"Edit...", "Recompile Scripts", "Refresh List", "Check All", "Uncheck All", "Profile Report..."};
     private static final int IDX_EDIT = 0;
     private static final int IDX_RECOMPILE = 1;
     private static final int IDX_REFRESH = 2;
     private static final int IDX_CHECK_ALL = 3;
     private static final int IDX_UNCHECK_ALL= 4;
+    private static final int IDX_PROFILE = 5;
 
     private class CheckStateListener implements ICheckStateListener {
         public void checkStateChanged(CheckStateChangedEvent event) {
@@ -176,6 +178,9 @@ public class DSLPreferencesPage extends PreferencePage implements IWorkbenchPref
             } else if (index == IDX_UNCHECK_ALL) {
                 // uncheck all
                 checkAll(false);
+            } else if (index == IDX_PROFILE) {
+                // show profile
+                new DSLDProfileDialog(getShell()).open();
             }
         }
 
@@ -236,6 +241,7 @@ public class DSLPreferencesPage extends PreferencePage implements IWorkbenchPref
 
     private Button autoAdd;
     private Button disableDSLDs;
+    private Button profileDSLDs;
 
     public void init(IWorkbench workbench) {
         cache = new DisabledScriptsCache();
@@ -274,6 +280,10 @@ public class DSLPreferencesPage extends PreferencePage implements IWorkbenchPref
         boolean isDisabled = GroovyDSLCoreActivator.getDefault().getPreferenceStore().getBoolean(DSLPreferencesInitializer.DSLD_DISABLED);
         disableDSLDs.setSelection(isDisabled);
         disableDSLDs.setLayoutData(data);
+        profileDSLDs = new Button(composite, SWT.CHECK);
+        profileDSLDs.setText("Profile DSLD evaluation (see 'Profile Report...' for results)");
+        profileDSLDs.setSelection(GroovyDSLCoreActivator.getDefault().getPreferenceStore().getBoolean(DSLPreferencesInitializer.DSLD_PROFILING));
+        profileDSLDs.setLayoutData(data);
 
         if (disableDSLDs.getSelection()) {
             Label l = new Label(composite, SWT.NONE);
@@ -399,6 +409,8 @@ public class DSLPreferencesPage extends PreferencePage implements IWorkbenchPref
         checkAll(true);
         DSLPreferencesInitializer.reset();
         autoAdd.setSelection(true);
+        // applied by performOk, so that cancelling the page leaves profiling as it was
+        profileDSLDs.setSelection(GroovyDSLCoreActivator.getDefault().getPreferenceStore().getDefaultBoolean(DSLPreferencesInitializer.DSLD_PROFILING));
     }
 
     @Override
@@ -414,6 +426,8 @@ public class DSLPreferencesPage extends PreferencePage implements IWorkbenchPref
         cache.setDisabled(unchecked);
 
         GroovyDSLCoreActivator.getDefault().getPreferenceStore().setValue(DSLPreferencesInitializer.AUTO_ADD_DSL_SUPPORT, autoAdd.getSelection());
+        GroovyDSLCoreActivator.getDefault().getPreferenceStore().setValue(DSLPreferencesInitializer.DSLD_PROFILING, profileDSLDs.getSelection());
+        DSLDProfiler.getInstance().setEnabled(profileDSLDs.getSelection());
 
         boolean origDisabled = GroovyDSLCoreActivator.getDefault().getPreferenceStore().getBoolean(DSLPreferencesInitializer.DSLD_DISABLED);
         if (origDisabled != disableDSLDs.getSelection()) {
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2009-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.ui;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.groovy.eclipse.dsl.DSLDProfiler;
+import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator;
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+
+/**
+ * Writes the current {@link DSLDProfiler} report to the Groovy event console
+ * and to <code>dsld-profile.txt</code> in the plugin's state location.
+ */
+public class DumpDSLDProfileHandler extends AbstractHandler {
+
+    public Object execute(ExecutionEvent event) throws ExecutionException {
+        String report = DSLDProfiler.getInstance().createReport(Integer.MAX_VALUE);
+        File file = GroovyDSLCoreActivator.getDefault().getStateLocation().append("dsld-profile.txt").toFile();
+        try {
+            Writer writer = new FileWriter(file);
+            try {
+                writer.write(report);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new ExecutionException("Could not write DSLD profile to " + file, e);
+        }
+        if (GroovyLogManager.manager.hasLoggers()) {
+            GroovyLogManager.manager.log(TraceCategory.DSL, "DSLD profile written to " + file + "\n" + report);
+        }
+        return null;
+    }
+}
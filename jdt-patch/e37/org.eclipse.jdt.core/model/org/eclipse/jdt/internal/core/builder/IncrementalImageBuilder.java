@@ -40,6 +40,9 @@ protected ArrayList previousSourceFiles;
 protected StringSet qualifiedStrings;
 protected StringSet simpleStrings;
 protected StringSet rootStrings;
+// GROOVY add
+protected ArrayList memberChanges;
+// GROOVY end
 protected SimpleLookupTable secondaryTypesToRemove;
 protected boolean hasStructuralChanges;
 protected int compileLoop;
@@ -182,12 +185,25 @@ protected void buildAfterBatchBuild() {
 }
 
 protected void addAffectedSourceFiles() {
+	// GROOVY add
+	for (int i = 0, l = this.memberChanges.size(); i < l; i++) {
+		MemberChange change = (MemberChange) this.memberChanges.get(i);
+		addAffectedSourceFiles(change.qualifiedNames, change.simpleNames, change.rootNames, null, change);
+	}
+	this.memberChanges.clear();
+	// GROOVY end
 	if (this.qualifiedStrings.elementSize == 0 && this.simpleStrings.elementSize == 0) return;
 
 	addAffectedSourceFiles(this.qualifiedStrings, this.simpleStrings, this.rootStrings, null);
 }
 
 protected void addAffectedSourceFiles(StringSet qualifiedSet, StringSet simpleSet, StringSet rootSet, StringSet affectedTypes) {
+	// GROOVY add
+	addAffectedSourceFiles(qualifiedSet, simpleSet, rootSet, affectedTypes, null);
+}
+
+protected void addAffectedSourceFiles(StringSet qualifiedSet, StringSet simpleSet, StringSet rootSet, StringSet affectedTypes, MemberChange memberChange) {
+	// GROOVY end
 	// the qualifiedStrings are of the form 'p1/p2' & the simpleStrings are just 'X'
 	char[][][] internedQualifiedNames = ReferenceCollection.internQualifiedNames(qualifiedSet);
 	// if a well known qualified name was found then we can skip over these
@@ -207,6 +223,10 @@ protected void addAffectedSourceFiles(StringSet qualifiedSet, StringSet simpleSe
 			if (affectedTypes != null && !affectedTypes.includes(typeLocator)) continue next;
 			ReferenceCollection refs = (ReferenceCollection) valueTable[i];
 			if (refs.includes(internedQualifiedNames, internedSimpleNames, internedRootNames)) {
+				// GROOVY add
+				if (memberChange != null && !refs.includesMember(memberChange.memberNames)
+						&& !refs.includesSuperType(memberChange.typeName.toCharArray())) continue next;
+				// GROOVY end
 				IFile file = this.javaBuilder.currentProject.getFile(typeLocator);
 				SourceFile sourceFile = findSourceFile(file, true);
 				if (sourceFile == null) continue next;
@@ -299,6 +319,9 @@ protected void cleanUp() {
 	this.qualifiedStrings = null;
 	this.simpleStrings = null;
 	this.rootStrings = null;
+	// GROOVY add
+	this.memberChanges = null;
+	// GROOVY end
 	this.secondaryTypesToRemove = null;
 	this.hasStructuralChanges = false;
 	this.compileLoop = 0;
@@ -797,6 +820,9 @@ protected void resetCollections() {
 		this.qualifiedStrings = new StringSet(3);
 		this.simpleStrings = new StringSet(3);
 		this.rootStrings = new StringSet(3);
+		// GROOVY add
+		this.memberChanges = new ArrayList(3);
+		// GROOVY end
 		this.hasStructuralChanges = false;
 		this.compileLoop = 0;
 	} else {
@@ -806,6 +832,9 @@ protected void resetCollections() {
 		this.qualifiedStrings.clear();
 		this.simpleStrings.clear();
 		this.rootStrings.clear();
+		// GROOVY add
+		this.memberChanges.clear();
+		// GROOVY end
 		this.workQueue.clear();
 	}
 }
@@ -909,7 +938,19 @@ protected boolean writeClassFileCheck(IFile file, String fileName, byte[] newByt
 		if (!(reader.isLocal() || reader.isAnonymous()) && reader.hasStructuralChanges(newBytes)) {
 			if (JavaBuilder.DEBUG)
 				System.out.println("Type has structural changes " + fileName); //$NON-NLS-1$
-			addDependentsOf(new Path(fileName), true);
+			// GROOVY edit
+			//addDependentsOf(new Path(fileName), true);
+			char[][] changedMemberNames = getChangedMemberNames(reader, newBytes);
+			if (changedMemberNames == null) {
+				addDependentsOf(new Path(fileName), true);
+			} else {
+				if (JavaBuilder.DEBUG)
+					System.out.println("  changes are to members " + new String(CharOperation.concatWith(changedMemberNames, ','))); //$NON-NLS-1$
+				MemberChange change = new MemberChange(fileName, changedMemberNames);
+				addDependentsOf(new Path(fileName), true, change.qualifiedNames, change.simpleNames, change.rootNames);
+				this.memberChanges.add(change);
+			}
+			// GROOVY end
 			this.newState.wasStructurallyChanged(fileName);
 		}
 	} catch (ClassFormatException e) {
@@ -919,6 +960,109 @@ protected boolean writeClassFileCheck(IFile file, String fileName, byte[] newByt
 	return true;
 }
 
+// GROOVY add
+/**
+ * Returns the names of the fields and methods that were added, removed or changed, or null if the type itself has changed and
+ * all of its dependents must be recompiled.  Annotations are not compared: a member that has any counts as changed, as does a
+ * type.  A change to a constant changes the type, since the constant may have been inlined where its name no longer appears.
+ */
+protected char[][] getChangedMemberNames(ClassFileReader oldReader, byte[] newBytes) throws ClassFormatException {
+	ClassFileReader newReader = new ClassFileReader(newBytes, oldReader.getFileName());
+	if (oldReader.getModifiers() != newReader.getModifiers() || (oldReader.getModifiers() & ClassFileConstants.AccAnnotation) != 0
+			|| oldReader.getTagBits() != newReader.getTagBits()
+			|| oldReader.getAnnotations() != null || newReader.getAnnotations() != null
+			|| !CharOperation.equals(oldReader.getGenericSignature(), newReader.getGenericSignature())
+			|| !CharOperation.equals(oldReader.getSuperclassName(), newReader.getSuperclassName())
+			|| !CharOperation.equals(oldReader.getInterfaceNames(), newReader.getInterfaceNames())
+			|| !CharOperation.equals(oldReader.getEnclosingTypeName(), newReader.getEnclosingTypeName())
+			|| !getMemberTypeKeys(oldReader).equals(getMemberTypeKeys(newReader))
+			|| oldReader.getMissingTypeNames() != null || newReader.getMissingTypeNames() != null)
+		return null;
+
+	HashSet changedNames = new HashSet();
+	HashMap newFields = new HashMap();
+	FieldInfo[] fields = (FieldInfo[]) newReader.getFields();
+	for (int i = 0, l = fields == null ? 0 : fields.length; i < l; i++)
+		newFields.put(new String(fields[i].getName()), fields[i]);
+	fields = (FieldInfo[]) oldReader.getFields();
+	for (int i = 0, l = fields == null ? 0 : fields.length; i < l; i++) {
+		FieldInfo newField = (FieldInfo) newFields.remove(new String(fields[i].getName()));
+		if (newField == null || hasStructuralFieldChanges(fields[i], newField)) {
+			if (fields[i].hasConstant() || (newField != null && newField.hasConstant())) return null;
+			changedNames.add(new String(fields[i].getName()));
+		}
+	}
+	for (Iterator i = newFields.values().iterator(); i.hasNext();) {
+		FieldInfo newField = (FieldInfo) i.next();
+		if (newField.hasConstant()) return null;
+		changedNames.add(new String(newField.getName()));
+	}
+
+	HashMap newMethods = new HashMap();
+	MethodInfo[] methods = (MethodInfo[]) newReader.getMethods();
+	for (int i = 0, l = methods == null ? 0 : methods.length; i < l; i++)
+		newMethods.put(new String(CharOperation.concat(methods[i].getSelector(), methods[i].getMethodDescriptor())), methods[i]);
+	methods = (MethodInfo[]) oldReader.getMethods();
+	for (int i = 0, l = methods == null ? 0 : methods.length; i < l; i++) {
+		MethodInfo newMethod = (MethodInfo) newMethods.remove(new String(CharOperation.concat(methods[i].getSelector(), methods[i].getMethodDescriptor())));
+		if (newMethod == null || hasStructuralMethodChanges(methods[i], newMethod))
+			changedNames.add(new String(methods[i].getSelector()));
+	}
+	for (Iterator i = newMethods.values().iterator(); i.hasNext();)
+		changedNames.add(new String(((MethodInfo) i.next()).getSelector()));
+
+	if (changedNames.isEmpty()) return null; // the change is one that is not compared here
+	char[][] names = new char[changedNames.size()][];
+	int index = 0;
+	for (Iterator i = changedNames.iterator(); i.hasNext();)
+		names[index++] = ((String) i.next()).toCharArray();
+	return names;
+}
+
+private static HashSet getMemberTypeKeys(ClassFileReader reader) {
+	HashSet keys = new HashSet();
+	org.eclipse.jdt.internal.compiler.env.IBinaryNestedType[] memberTypes = reader.getMemberTypes();
+	for (int i = 0, l = memberTypes == null ? 0 : memberTypes.length; i < l; i++)
+		keys.add(new String(memberTypes[i].getName()) + ':' + memberTypes[i].getModifiers());
+	return keys;
+}
+
+private static boolean hasStructuralFieldChanges(FieldInfo oldField, FieldInfo newField) {
+	return oldField instanceof FieldInfoWithAnnotation || newField instanceof FieldInfoWithAnnotation
+		|| oldField.getModifiers() != newField.getModifiers()
+		|| oldField.getTagBits() != newField.getTagBits()
+		|| !CharOperation.equals(oldField.getTypeName(), newField.getTypeName())
+		|| !CharOperation.equals(oldField.getGenericSignature(), newField.getGenericSignature())
+		|| oldField.hasConstant() != newField.hasConstant()
+		|| (oldField.hasConstant() && !oldField.getConstant().hasSameValue(newField.getConstant()));
+}
+
+private static boolean hasStructuralMethodChanges(MethodInfo oldMethod, MethodInfo newMethod) {
+	return oldMethod instanceof MethodInfoWithAnnotations || newMethod instanceof MethodInfoWithAnnotations
+		|| oldMethod.getModifiers() != newMethod.getModifiers()
+		|| oldMethod.getTagBits() != newMethod.getTagBits()
+		|| !CharOperation.equals(oldMethod.getGenericSignature(), newMethod.getGenericSignature())
+		|| !CharOperation.equals(oldMethod.getExceptionTypeNames(), newMethod.getExceptionTypeNames());
+}
+
+/**
+ * A type whose fields or methods have structural changes, but not the type itself, so that only the dependents that refer to
+ * one of the changed members by name, or that extend the type, need to be recompiled.
+ */
+static class MemberChange {
+	String typeName; // of the form 'p1/p2/X$Y'
+	char[][] memberNames;
+	StringSet qualifiedNames = new StringSet(1);
+	StringSet simpleNames = new StringSet(1);
+	StringSet rootNames = new StringSet(1);
+
+	MemberChange(String typeName, char[][] memberNames) {
+		this.typeName = typeName;
+		this.memberNames = memberNames;
+	}
+}
+// GROOVY end
+
 public String toString() {
 	return "incremental image builder for:\n\tnew state: " + this.newState; //$NON-NLS-1$
 }
@@ -1013,6 +1013,7 @@ protected void locateMatches(JavaProject javaProject, PossibleMatch[] possibleMa
 	// GROOVY start
 	boolean isInterestingProject = LanguageSupportFactory.isInterestingProject(javaProject.getProject());
 	Set alreadyMatched = new HashSet();
+	ArrayList unboundGroovyMatches = new ArrayList();
 	// GROOVY end
 
 	
@@ -1025,11 +1026,21 @@ protected void locateMatches(JavaProject javaProject, PossibleMatch[] possibleMa
 		for (int i = start, maxUnits = start + length; i < maxUnits; i++) {
 			PossibleMatch possibleMatch = possibleMatches[i];
 			// GROOVY start
-			if (isInterestingProject && possibleMatch.isInterestingSourceFile()) {
-				boolean matchPerformed = LanguageSupportFactory.maybePerformDelegatedSearch(possibleMatch, this.pattern, this.requestor);
-				if (matchPerformed) {
-					alreadyMatched.add(possibleMatch);
+			// the delegated search reports all matches in the unit; it is only parsed to build its bindings
+			// if some unit must be resolved, in which case the module node of the delegated search is used
+			boolean matchPerformed = isInterestingProject && possibleMatch.isInterestingSourceFile() &&
+				LanguageSupportFactory.maybePerformDelegatedSearch(possibleMatch, this.pattern, this.requestor);
+			if (matchPerformed && !mustResolvePattern) {
+				// bound below if the node set of a Java unit turns out to need resolution
+				unboundGroovyMatches.add(possibleMatch);
+				if (possibleMatch.hasSimilarMatch()) {
+					possibleMatches[i] = possibleMatch.getSimilarMatch();
+					i--;
 				}
+				continue;
+			}
+			if (matchPerformed) {
+				alreadyMatched.add(possibleMatch);
 			}
 			// GROOVY end
 			try {
@@ -1071,6 +1082,17 @@ protected void locateMatches(JavaProject javaProject, PossibleMatch[] possibleMa
 					possibleMatch.cleanUp();
 			}
 		}
+		// GROOVY start
+		for (int i = 0, n = unboundGroovyMatches.size(); i < n; i++) {
+			PossibleMatch possibleMatch = (PossibleMatch) unboundGroovyMatches.get(i);
+			if (mustResolve && parseAndBuildBindings(possibleMatch, true)) {
+				// the lookup environment must know the Groovy types as well
+				alreadyMatched.add(possibleMatch);
+			} else {
+				possibleMatch.cleanUp();
+			}
+		}
+		// GROOVY end
 		if (mustResolve)
 			this.lookupEnvironment.completeTypeBindings();
 
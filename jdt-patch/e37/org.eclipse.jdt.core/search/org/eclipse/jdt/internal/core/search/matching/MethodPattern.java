@@ -1,3 +1,4 @@
+// GROOVY PATCHED
 /*******************************************************************************
  * Copyright (c) 2000, 2010 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
@@ -12,11 +13,18 @@ package org.eclipse.jdt.internal.core.search.matching;
 
 import java.io.IOException;
 
+import org.codehaus.jdt.groovy.integration.ISupplementalIndexer;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
 import org.eclipse.jdt.core.*;
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.internal.core.index.*;
+import org.eclipse.jdt.internal.core.search.IndexQueryRequestor;
 import org.eclipse.jdt.internal.core.util.Util;
 
 public class MethodPattern extends JavaSearchPattern {
@@ -314,6 +322,37 @@ protected boolean mustResolve() {
 			if (this.parameterQualifications[i] != null) return true;
 	return false;
 }
+// GROOVY add
+public void findIndexMatches(Index index, IndexQueryRequestor requestor, SearchParticipant participant, IJavaSearchScope scope, IProgressMonitor monitor) throws IOException {
+	super.findIndexMatches(index, requestor, participant, scope, monitor);
+	if (this.findReferences)
+		findDynamicReferenceMatches(this, this.selector, index, requestor, participant, scope, monitor);
+}
+/*
+ * Groovy class files may refer to a method or field by name only, so those names are indexed in
+ * a category of their own (see ISupplementalIndexer.DYNAMIC_REF) that is matched on the name alone.
+ */
+static void findDynamicReferenceMatches(SearchPattern pattern, char[] name, Index index, IndexQueryRequestor requestor, SearchParticipant participant, IJavaSearchScope scope, IProgressMonitor monitor) throws IOException {
+	if (name == null) return; // matching every dynamic reference would match every Groovy class file
+	try {
+		index.startQuery();
+		EntryResult[] entries = index.query(new char[][] {ISupplementalIndexer.DYNAMIC_REF}, name, pattern.getMatchRule());
+		if (entries == null) return;
+
+		String containerPath = index.containerPath;
+		char separator = index.separator;
+		for (int i = 0, l = entries.length; i < l; i++) {
+			if (monitor != null && monitor.isCanceled()) throw new OperationCanceledException();
+
+			String[] names = entries[i].getDocumentNames(index);
+			for (int j = 0, n = names.length; j < n; j++)
+				pattern.acceptMatch(names[j], containerPath, separator, pattern, requestor, participant, scope, monitor);
+		}
+	} finally {
+		index.stopQuery();
+	}
+}
+// GROOVY end
 public EntryResult[] queryIn(Index index) throws IOException {
 	char[] key = this.selector; // can be null
 	int matchRule = getMatchRule();
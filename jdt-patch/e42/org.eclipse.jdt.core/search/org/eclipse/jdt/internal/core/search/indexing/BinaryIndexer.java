@@ -14,6 +14,7 @@ package org.eclipse.jdt.internal.core.search.indexing;
 import java.util.Iterator;
 import java.util.List;
 
+import org.codehaus.jdt.groovy.integration.ISupplementalIndexer;
 import org.codehaus.jdt.groovy.integration.LanguageSupportFactory;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jdt.core.Signature;
@@ -805,13 +806,8 @@ public class BinaryIndexer extends AbstractIndexer implements SuffixConstants {
 				List references = LanguageSupportFactory.getSupplementalIndexer().extractNamedReferences(contents, reader);
 				for (Iterator iterator = references.iterator(); iterator.hasNext();) {
 					char[] reference = (char[]) iterator.next();
-					addNameReference(reference);
-					addMethodReference(reference, 0);
-					addMethodReference(reference, 1);
-					addMethodReference(reference, 2);
-					addMethodReference(reference, 3);
-					addMethodReference(reference, 4);
-					addMethodReference(reference, 5);
+					addNameReference(reference); // type and package reference searches query these
+					addIndexEntry(ISupplementalIndexer.DYNAMIC_REF, reference);
 				}
 			}
 			// GROOVY end
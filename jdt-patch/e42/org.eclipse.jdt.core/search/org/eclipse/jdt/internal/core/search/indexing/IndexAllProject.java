@@ -1,3 +1,4 @@
+// GROOVY PATCHED
 /*******************************************************************************
  * Copyright (c) 2000, 2011 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
@@ -203,6 +204,10 @@ public class IndexAllProject extends IndexRequest {
 			SourceElementParser parser = this.manager.getSourceElementParser(javaProject, null/*requestor will be set by indexer*/);
 			Object[] names = indexedFileNames.keyTable;
 			Object[] values = indexedFileNames.valueTable;
+			// GROOVY add
+			IFile[] sources = new IFile[indexedFileNames.elementSize];
+			int sourceCount = 0;
+			// GROOVY end
 			for (int i = 0, namesLength = names.length; i < namesLength; i++) {
 				String name = (String) names[i];
 				if (name != null) {
@@ -212,12 +217,26 @@ public class IndexAllProject extends IndexRequest {
 					if (value != OK) {
 						if (value == DELETED)
 							this.manager.remove(name, this.containerPath);
-						else
+						// GROOVY edit
+						//else
+						//	this.manager.addSource((IFile) value, this.containerPath, parser);
+						else {
 							this.manager.addSource((IFile) value, this.containerPath, parser);
+							sources[sourceCount++] = (IFile) value;
+						}
+						// GROOVY end
 					}
 				}
 			}
 
+			// GROOVY add
+			if (sourceCount > 0 && parser instanceof IndexingParser) {
+				IFile[] files = new IFile[sourceCount];
+				System.arraycopy(sources, 0, files, 0, sourceCount);
+				((IndexingParser) parser).aboutToIndex(files);
+			}
+			// GROOVY end
+
 			// request to save index when all cus have been indexed... also sets state to SAVED_STATE
 			this.manager.request(new SaveIndex(this.containerPath, this.manager));
 		} catch (CoreException e) {
@@ -1,3 +1,4 @@
+// GROOVY PATCHED
 /*******************************************************************************
  * Copyright (c) 2000, 2009 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
@@ -10,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.core.search.indexing;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.compiler.IProblemFactory;
 import org.eclipse.jdt.internal.compiler.ISourceElementRequestor;
@@ -33,6 +35,16 @@ public class IndexingParser extends SourceElementParser {
 				optimizeStringLiterals, useSourceJavadocParser);
 	}
 
+	// GROOVY add
+	/**
+	 * Called once the given files have been queued for indexing with this parser, in the
+	 * order they will be indexed.  Subclasses may start parsing them ahead of time.
+	 */
+	public void aboutToIndex(IFile[] files) {
+		// nothing by default
+	}
+	// GROOVY end
+
 	protected ImportReference newImportReference(char[][] tokens, long[] sourcePositions, boolean onDemand, int mod) {
 		ImportReference ref = this.importReference;
 		ref.tokens = tokens;
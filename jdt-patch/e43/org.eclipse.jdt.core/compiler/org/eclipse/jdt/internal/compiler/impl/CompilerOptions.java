@@ -183,6 +183,7 @@ public class CompilerOptions {
 	public static final String OPTIONG_GroovyTransformsToRunOnReconcile = "org.eclipse.jdt.core.compiler.groovy.groovyTransformsToRunOnReconcile"; //$NON-NLS-1$
 	public static final String OPTIONG_GroovyCustomizerClassesList = "org.eclipse.jdt.core.compiler.groovy.groovyCustomizerClassesList"; //$NON-NLS-1$
 	public static final String OPTIONG_GroovyExcludeGlobalASTScan = "org.eclipse.jdt.core.compiler.groovy.groovyServiceScanExclude";  //$NON-NLS-1$
+	public static final String OPTIONG_GroovyParserPluginFactory = "org.eclipse.jdt.core.compiler.groovy.groovyParserPluginFactory"; //$NON-NLS-1$
 	// GROOVY end
 	
 	/**
@@ -437,6 +438,7 @@ public class CompilerOptions {
 	public String groovyProjectName = null;
 	public String groovyTransformsToRunOnReconcile = null;
 	public String groovyExcludeGlobalASTScan = null;
+	public String groovyParserPluginFactory = null;
 	// GROOVY end
 
 	// === Support for Null Annotations: ===
@@ -1835,10 +1837,16 @@ public class CompilerOptions {
 		if ((optionValue = optionsMap.get(OPTIONG_GroovyExcludeGlobalASTScan)) != null) {
 			this.groovyExcludeGlobalASTScan = (String)optionValue;
 		}
+		if ((optionValue = optionsMap.get(OPTIONG_GroovyParserPluginFactory)) != null) {
+			this.groovyParserPluginFactory = (String)optionValue;
+		} else if (sysPropConfiguredParserPluginFactory != null && this.groovyParserPluginFactory == null) {
+			this.groovyParserPluginFactory = sysPropConfiguredParserPluginFactory;
+		}
 		// GROOVY end
 	}
 	
 	static String sysPropConfiguredCustomizerClassesList = null;
+	static String sysPropConfiguredParserPluginFactory = null;
 	static String sysPropConfiguredExtraImports = null;
 	static String sysPropConfiguredGroovyTransforms = null;
 	static {
@@ -1857,6 +1865,11 @@ public class CompilerOptions {
 		} catch (Exception e) {
 			sysPropConfiguredCustomizerClassesList= null;
 		}
+		try {
+			sysPropConfiguredParserPluginFactory = System.getProperty("greclipse.parserPluginFactory"); //$NON-NLS-1$
+		} catch (Exception e) {
+			sysPropConfiguredParserPluginFactory = null;
+		}
 	}
 	
 	public String toString() {
@@ -1974,6 +1987,7 @@ public class CompilerOptions {
 		buf.append("\n\t- groovy projectname: ").append(this.groovyProjectName); //$NON-NLS-1$
 		buf.append("\n\t- groovy extra imports: ").append(this.groovyExtraImports); //$NON-NLS-1$
 		buf.append("\n\t- groovy customizer classes list: ").append(this.groovyCustomizerClassesList); //$NON-NLS-1$
+		buf.append("\n\t- groovy parser plugin factory: ").append(this.groovyParserPluginFactory); //$NON-NLS-1$
 		// GROOVY end
 		return buf.toString();
 	}
@@ -473,6 +473,9 @@ protected SourceFile findSourceFile(IFile file, boolean mustExist) {
 protected void finishedWith(String sourceLocator, CompilationResult result, char[] mainTypeName, ArrayList definedTypeNames, ArrayList duplicateTypeNames) {
 	if (duplicateTypeNames == null) {
 		this.newState.record(sourceLocator, result.qualifiedReferences, result.simpleNameReferences, result.rootReferences, mainTypeName, definedTypeNames);
+		// GROOVY add
+		this.newState.recordMemberReferences(sourceLocator, result.memberReferences, result.superTypeReferences);
+		// GROOVY end
 		return;
 	}
 
@@ -489,6 +492,9 @@ protected void finishedWith(String sourceLocator, CompilationResult result, char
 		simpleRefs[sLength] = typeName;
 	}
 	this.newState.record(sourceLocator, result.qualifiedReferences, simpleRefs, result.rootReferences, mainTypeName, definedTypeNames);
+	// GROOVY add
+	this.newState.recordMemberReferences(sourceLocator, result.memberReferences, result.superTypeReferences);
+	// GROOVY end
 }
 
 protected IContainer createFolder(IPath packagePath, IContainer outputFolder) throws CoreException {
@@ -1,3 +1,4 @@
+// GROOVY PATCHED
 /*******************************************************************************
  * Copyright (c) 2000, 2010 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
@@ -19,6 +20,10 @@ public class ReferenceCollection {
 char[][][] qualifiedNameReferences; // contains no simple names as in just 'a' which is kept in simpleNameReferences instead
 char[][] simpleNameReferences;
 char[][] rootReferences;
+// GROOVY add
+char[][] memberReferences; // the names of the fields & methods referenced, or null when any member may be reached
+char[][] superTypeReferences; // the supertypes of the types defined, direct or not, e.g. 'p1/p2/X$Y'
+// GROOVY end
 
 protected ReferenceCollection(char[][][] qualifiedNameReferences, char[][] simpleNameReferences, char[][] rootReferences) {
 	this.qualifiedNameReferences = internQualifiedNames(qualifiedNameReferences, false);
@@ -34,6 +39,9 @@ public void addDependencies(String[] typeNameDependencies) {
 	for (int i = typeNameDependencies.length; --i >= 0;)
 		qNames[i] = CharOperation.splitOn('.', typeNameDependencies[i].toCharArray());
 	qNames = internQualifiedNames(qNames, false);
+	// GROOVY add
+	this.memberReferences = null; // the members that the dependencies reach are not known
+	// GROOVY end
 
 	next : for (int i = qNames.length; --i >= 0;) {
 		char[][] qualifiedTypeName = qNames[i];
@@ -61,6 +69,23 @@ public void addDependencies(String[] typeNameDependencies) {
 	}
 }
 
+// GROOVY add
+public boolean includesMember(char[][] memberNames) {
+	if (this.memberReferences == null) return true;
+	for (int i = 0, l = memberNames.length; i < l; i++)
+		for (int j = 0, m = this.memberReferences.length; j < m; j++)
+			if (CharOperation.equals(memberNames[i], this.memberReferences[j])) return true;
+	return false;
+}
+
+public boolean includesSuperType(char[] typeName) {
+	if (this.superTypeReferences != null)
+		for (int i = 0, l = this.superTypeReferences.length; i < l; i++)
+			if (CharOperation.equals(typeName, this.superTypeReferences[i])) return true;
+	return false;
+}
+// GROOVY end
+
 public boolean includes(char[] simpleName) {
 	for (int i = 0, l = this.simpleNameReferences.length; i < l; i++)
 		if (simpleName == this.simpleNameReferences[i]) return true;
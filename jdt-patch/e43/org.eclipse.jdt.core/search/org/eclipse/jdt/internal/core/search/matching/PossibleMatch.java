@@ -36,6 +36,13 @@ public SearchDocument document;
 private String sourceFileName;
 private char[] source;
 private PossibleMatch similarMatch;
+// GROOVY start
+/**
+ * AST of the Groovy module that a delegated search has already parsed, if any;
+ * used to build this unit's declarations so that it is not parsed again.
+ */
+public Object groovyModuleNode;
+// GROOVY end
 
 public PossibleMatch(MatchLocator locator, IResource resource, Openable openable, SearchDocument document, boolean mustResolve) {
 	this.resource = resource;
@@ -53,6 +60,9 @@ public void cleanUp() {
 		this.parsedUnit = null;
 	}
 	this.nodeSet = null;
+	// GROOVY start
+	this.groovyModuleNode = null;
+	// GROOVY end
 }
 public boolean equals(Object obj) {
 	if (this.compoundName == null) return super.equals(obj);
@@ -1,3 +1,4 @@
+// GROOVY PATCHED
 /*******************************************************************************
  * Copyright (c) 2000, 2014 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
@@ -47,7 +48,10 @@ private long previousStructuralBuildTime;
 private StringSet structurallyChangedTypes;
 public static int MaxStructurallyChangedTypes = 100; // keep track of ? structurally changed types, otherwise consider all to be changed
 
-public static final byte VERSION = 0x001C;
+// GROOVY edit
+//public static final byte VERSION = 0x001C;
+public static final byte VERSION = 0x001D; // member references
+// GROOVY end
 
 static final byte SOURCE_FOLDER = 1;
 static final byte BINARY_FOLDER = 2;
@@ -181,6 +185,16 @@ void record(String typeLocator, char[][][] qualifiedRefs, char[][] simpleRefs, c
 	}
 }
 
+// GROOVY add
+void recordMemberReferences(String typeLocator, char[][] memberRefs, char[][] superTypeRefs) {
+	ReferenceCollection collection = (ReferenceCollection) this.references.get(typeLocator);
+	if (collection != null) {
+		collection.memberReferences = memberRefs;
+		collection.superTypeReferences = superTypeRefs;
+	}
+}
+// GROOVY end
+
 void recordLocatorForType(String qualifiedTypeName, String typeLocator) {
 	this.knownPackageNames = null;
 	// in the common case, the qualifiedTypeName is a substring of the typeLocator so share the char[] by using String.substring()
@@ -332,6 +346,12 @@ static State read(IProject project, DataInputStream in) throws IOException {
 					rNames[j] = internedRootNames[in.readInt()];
 				collection = new ReferenceCollection(qNames, sNames, rNames);
 		}
+		// GROOVY add
+		if (in.readBoolean()) {
+			collection.memberReferences = readNames(in);
+			collection.superTypeReferences = readNames(in);
+		}
+		// GROOVY end
 		newState.references.put(typeLocator, collection);
 	}
 	if (JavaBuilder.DEBUG)
@@ -613,6 +633,9 @@ void write(DataOutputStream out) throws IOException {
  * References table
  * int		interned locator id
  * ReferenceCollection
+ * boolean	whether the member references follow
+ * char[][]	member references
+ * char[][]	supertype references
 */
 	out.writeInt(length = this.references.elementSize);
 	if (length > 0) {
@@ -651,6 +674,13 @@ void write(DataOutputStream out) throws IOException {
 					index = (Integer) internedRootNames.get(rNames[j]);
 					out.writeInt(index.intValue());
 				}
+				// GROOVY add
+				out.writeBoolean(collection.memberReferences != null);
+				if (collection.memberReferences != null) {
+					writeNames(collection.memberReferences, out);
+					writeNames(collection.superTypeReferences, out);
+				}
+				// GROOVY end
 			}
 		}
 		if (JavaBuilder.DEBUG && length != 0)
@@ -65,6 +65,10 @@ public class CompilationResult {
 	public char[][][] qualifiedReferences;
 	public char[][] simpleNameReferences;
 	public char[][] rootReferences;
+	// GROOVY add
+	public char[][] memberReferences; // the names of the members referenced, or null when any member may be reached
+	public char[][] superTypeReferences; // the supertypes of the types defined, direct or not, e.g. 'p1/p2/X$Y'
+	// GROOVY end
 	public boolean hasAnnotations = false;
 	public boolean hasFunctionalTypes = false;
 	public int lineSeparatorPositions[];
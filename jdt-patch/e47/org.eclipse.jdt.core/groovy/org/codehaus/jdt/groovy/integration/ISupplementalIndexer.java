@@ -26,11 +26,18 @@ import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
  */
 public interface ISupplementalIndexer {
 
+	/**
+	 * Index category for the names used by the dynamic call sites and property accesses of a
+	 * Groovy class file.  Each name is indexed once per class file, without arity or declaring
+	 * type, and method and field reference searches consult it in addition to their own categories.
+	 */
+	char[] DYNAMIC_REF = "groovyDynamicRef".toCharArray(); //$NON-NLS-1$
+
 	/**
 	 * Provides supplemental indexing for a class file
 	 * @param contents The byte contents of the classfile
 	 * @param reader a reader for the class file
-	 * @return a char[] list of extra things to add to the index
+	 * @return the distinct names to add to the index in the {@link #DYNAMIC_REF} category
 	 */
 	List<char[]> extractNamedReferences(byte[] contents, ClassFileReader reader);
 }
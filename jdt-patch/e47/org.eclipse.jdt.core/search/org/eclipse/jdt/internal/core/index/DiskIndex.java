@@ -1,3 +1,4 @@
+// GROOVY PATCHED
 /*******************************************************************************
  * Copyright (c) 2000, 2017 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
@@ -46,7 +47,10 @@ private int bufferIndex, bufferEnd; // used when reading from the file into the
 private int streamEnd; // used when writing data from the streamBuffer to the file
 char separator = Index.DEFAULT_SEPARATOR;
 
-public static final String SIGNATURE= "INDEX VERSION 1.130"; //$NON-NLS-1$
+// GROOVY edit -- binary indexes hold Groovy dynamic references (see ISupplementalIndexer.DYNAMIC_REF)
+//public static final String SIGNATURE= "INDEX VERSION 1.130"; //$NON-NLS-1$
+public static final String SIGNATURE= "INDEX VERSION 1.130+GROOVY 1"; //$NON-NLS-1$
+// GROOVY end
 private static final char[] SIGNATURE_CHARS = SIGNATURE.toCharArray();
 public static boolean DEBUG = false;
 
@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.core.search.indexing;
 
+import org.codehaus.jdt.groovy.integration.ISupplementalIndexer;
 import org.codehaus.jdt.groovy.integration.LanguageSupportFactory;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jdt.core.Signature;
@@ -819,13 +820,8 @@ public class BinaryIndexer extends AbstractIndexer implements SuffixConstants {
 			char[] sourceFileName = reader.sourceFileName();
 			if (sourceFileName != null && LanguageSupportFactory.isInterestingSourceFile(String.valueOf(sourceFileName))) {
 				for (char[] reference : LanguageSupportFactory.getSupplementalIndexer().extractNamedReferences(contents, reader)) {
-					addNameReference(reference);
-					addMethodReference(reference, 0);
-					addMethodReference(reference, 1);
-					addMethodReference(reference, 2);
-					addMethodReference(reference, 3);
-					addMethodReference(reference, 4);
-					addMethodReference(reference, 5);
+					addNameReference(reference); // type and package reference searches query these
+					addIndexEntry(ISupplementalIndexer.DYNAMIC_REF, reference);
 				}
 			}
 			// GROOVY end